@@ -0,0 +1,147 @@
+package com.dnc.algorithms;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+import com.dnc.algorithms.BenchRunner.Algorithm;
+import com.dnc.algorithms.util.InputGenerator.Distribution;
+import com.dnc.algorithms.util.Options;
+
+/**
+ * Settings for a benchmark sweep, read by {@link Options}.
+ *
+ * <pre>
+ * --algorithms merge,quick   engines to run, see {@link Algorithm}
+ * --sizes 1000,100000        input sizes
+ * --distributions random     input distributions, see {@link Distribution}
+ * --repetitions 5            measured runs per algorithm, distribution and size
+ * --warmup 2                 unmeasured runs before them
+ * --seed 42                  input seed
+ * --threads 4                workers for the parallel engines
+ * --out results.csv          result file; rows are only summarised without it
+ * --format csv|binary        result format, by default from the file extension
+ * </pre>
+ */
+public class BenchConfig {
+    public enum Format { CSV, BINARY }
+
+    private Algorithm[] algorithms = {Algorithm.MERGE, Algorithm.QUICK, Algorithm.INTRO, Algorithm.RADIX};
+    private int[] sizes = {1000, 10000, 100000};
+    private Distribution[] distributions = {Distribution.RANDOM};
+    private int repetitions = 5;
+    private int warmup = 2;
+    private long seed = 42;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Path output;
+    private Format format;
+
+    /**
+     * Parses the options in args from index start on.
+     */
+    public static BenchConfig parse(String[] args, int start) throws IOException {
+        BenchConfig config = new BenchConfig();
+        Options.parse(args, start, config::set);
+        return config;
+    }
+
+    /**
+     * Applies every key of a properties file.
+     */
+    public void load(Path file) throws IOException {
+        Options.load(file, this::set);
+    }
+
+    public void set(String key, String value) {
+        value = value.trim();
+        switch (key) {
+            case "algorithms":
+                algorithms = Arrays.stream(split(value)).map(Algorithm::fromLabel).toArray(Algorithm[]::new);
+                break;
+            case "sizes":
+                sizes = Arrays.stream(split(value)).mapToInt(s -> positive(key, Integer.parseInt(s))).toArray();
+                break;
+            case "distributions":
+                distributions = Arrays.stream(split(value))
+                    .map(s -> Distribution.valueOf(s.toUpperCase(Locale.ROOT).replace('-', '_')))
+                    .toArray(Distribution[]::new);
+                break;
+            case "repetitions":
+                repetitions = positive(key, Integer.parseInt(value));
+                break;
+            case "warmup":
+                warmup = Integer.parseInt(value);
+                if (warmup < 0) throw new IllegalArgumentException("warmup must not be negative: " + warmup);
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            case "threads":
+                threads = positive(key, Integer.parseInt(value));
+                break;
+            case "out":
+                output = Paths.get(value);
+                break;
+            case "format":
+                format = Format.valueOf(value.toUpperCase(Locale.ROOT));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown bench option: " + key);
+        }
+    }
+
+    public Algorithm[] getAlgorithms() {
+        return algorithms.clone();
+    }
+
+    public int[] getSizes() {
+        return sizes.clone();
+    }
+
+    public Distribution[] getDistributions() {
+        return distributions.clone();
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public int getWarmup() {
+        return warmup;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /** Result file, or null to only print the summary. */
+    public Path getOutput() {
+        return output;
+    }
+
+    /** Explicit format, or else BINARY for a .bin or .dncr file and CSV otherwise. */
+    public Format getFormat() {
+        if (format != null) return format;
+        if (output == null) return Format.CSV;
+        String name = output.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".bin") || name.endsWith(".dncr") ? Format.BINARY : Format.CSV;
+    }
+
+    private static String[] split(String value) {
+        String[] parts = value.split(",");
+        for (int i = 0; i < parts.length; i++) parts[i] = parts[i].trim();
+        if (parts.length == 0 || parts[0].isEmpty()) throw new IllegalArgumentException("Empty list: " + value);
+        return parts;
+    }
+
+    private static int positive(String key, int value) {
+        if (value < 1) throw new IllegalArgumentException(key + " must be positive: " + value);
+        return value;
+    }
+}
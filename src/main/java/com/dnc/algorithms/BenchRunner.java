@@ -0,0 +1,197 @@
+package com.dnc.algorithms;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.select.DeterministicSelect;
+import com.dnc.algorithms.select.IntroSelect;
+import com.dnc.algorithms.select.ParallelSelect;
+import com.dnc.algorithms.select.VectorSelect;
+import com.dnc.algorithms.sort.AdaptiveSort;
+import com.dnc.algorithms.sort.IntroSort;
+import com.dnc.algorithms.sort.MergeSort;
+import com.dnc.algorithms.sort.NaturalMergeSort;
+import com.dnc.algorithms.sort.ParallelMergeSort;
+import com.dnc.algorithms.sort.QuickSort;
+import com.dnc.algorithms.sort.RadixSort;
+import com.dnc.algorithms.sort.VectorSort;
+import com.dnc.algorithms.util.AsyncResultSink;
+import com.dnc.algorithms.util.CSVWriter;
+import com.dnc.algorithms.util.ColumnarResultWriter;
+import com.dnc.algorithms.util.InputGenerator;
+import com.dnc.algorithms.util.InputGenerator.Distribution;
+import com.dnc.algorithms.util.ResultSink;
+
+/**
+ * Runs the sweep described by a {@link BenchConfig}: every algorithm on
+ * every distribution and size, with warmup runs first. Each measured run
+ * streams one row to the result file through an {@link AsyncResultSink},
+ * and a median per combination is printed at the end of it. Selection
+ * engines pick the median key.
+ */
+public class BenchRunner {
+    /**
+     * Engines a sweep can run, by the label used in the config.
+     */
+    public enum Algorithm {
+        MERGE("merge"),
+        NATURAL_MERGE("natural-merge"),
+        QUICK("quick"),
+        INTRO("intro"),
+        RADIX("radix"),
+        VECTOR("vector"),
+        ADAPTIVE("adaptive"),
+        PARALLEL_MERGE("parallel-merge"),
+        SELECT_DETERMINISTIC("select-deterministic"),
+        SELECT_INTRO("select-intro"),
+        SELECT_PARALLEL("select-parallel"),
+        SELECT_VECTOR("select-vector");
+
+        private final String label;
+
+        Algorithm(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public static Algorithm fromLabel(String label) {
+            for (Algorithm a : values()) {
+                if (a.label.equals(label)) return a;
+            }
+            throw new IllegalArgumentException("Unknown algorithm: " + label);
+        }
+    }
+
+    /**
+     * One engine, built once per sweep and reused for every run.
+     */
+    private interface Engine {
+        void run(int[] data);
+    }
+
+    private final BenchConfig config;
+
+    public BenchRunner(BenchConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Runs the sweep and returns the number of measured runs.
+     */
+    public long run() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(config.getThreads());
+        MetricsTracker metrics = new MetricsTracker();
+        Algorithm[] algorithms = config.getAlgorithms();
+        Engine[] engines = new Engine[algorithms.length];
+        for (int a = 0; a < algorithms.length; a++) engines[a] = engine(algorithms[a], metrics, pool);
+
+        int repetitions = config.getRepetitions();
+        long[] times = new long[repetitions];
+        long rows = 0;
+        try (ResultSink sink = openSink()) {
+            for (int size : config.getSizes()) {
+                int[] work = new int[size];
+                for (Distribution distribution : config.getDistributions()) {
+                    int[] data = InputGenerator.ints(distribution, size, config.getSeed());
+                    String distributionName = distribution.name();
+                    for (int a = 0; a < algorithms.length; a++) {
+                        for (int w = 0; w < config.getWarmup(); w++) {
+                            System.arraycopy(data, 0, work, 0, size);
+                            engines[a].run(work);
+                        }
+                        for (int r = 0; r < repetitions; r++) {
+                            System.arraycopy(data, 0, work, 0, size);
+                            metrics.reset();
+                            long start = System.nanoTime();
+                            engines[a].run(work);
+                            times[r] = System.nanoTime() - start;
+                            if (sink != null) {
+                                sink.write(algorithms[a].label(), distributionName, size, config.getThreads(), r,
+                                    times[r], metrics.getMaxRecursionDepth(), metrics.getComparisons(),
+                                    metrics.getAllocations());
+                            }
+                            rows++;
+                        }
+                        Arrays.sort(times);
+                        System.out.printf(Locale.ROOT, "  %-22s %-10s %,12d  median %10.3f ms  min %10.3f ms%n",
+                            algorithms[a].label(), distributionName, size,
+                            times[repetitions / 2] / 1_000_000.0, times[0] / 1_000_000.0);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return rows;
+    }
+
+    private ResultSink openSink() throws IOException {
+        if (config.getOutput() == null) return null;
+        if (config.getFormat() == BenchConfig.Format.BINARY) {
+            return new AsyncResultSink(new ColumnarResultWriter(config.getOutput()));
+        }
+        CSVWriter csv = new CSVWriter(config.getOutput().toString(), false);
+        csv.writeHeader();
+        return new AsyncResultSink(csv);
+    }
+
+    private static Engine engine(Algorithm algorithm, Metrics metrics, ForkJoinPool pool) {
+        switch (algorithm) {
+            case MERGE: {
+                MergeSort sorter = new MergeSort(metrics);
+                return sorter::sort;
+            }
+            case NATURAL_MERGE: {
+                NaturalMergeSort sorter = new NaturalMergeSort(metrics);
+                return sorter::sort;
+            }
+            case QUICK: {
+                QuickSort sorter = new QuickSort(metrics);
+                return sorter::sort;
+            }
+            case INTRO: {
+                IntroSort sorter = new IntroSort(metrics);
+                return sorter::sort;
+            }
+            case RADIX: {
+                RadixSort sorter = new RadixSort(metrics);
+                return sorter::sort;
+            }
+            case VECTOR: {
+                VectorSort sorter = new VectorSort(metrics);
+                return sorter::sort;
+            }
+            case ADAPTIVE: {
+                AdaptiveSort sorter = new AdaptiveSort(metrics);
+                return sorter::sort;
+            }
+            case PARALLEL_MERGE: {
+                ParallelMergeSort sorter = new ParallelMergeSort(metrics, ParallelMergeSort.DEFAULT_THRESHOLD, pool);
+                return sorter::sort;
+            }
+            case SELECT_DETERMINISTIC: {
+                DeterministicSelect selector = new DeterministicSelect(metrics);
+                return data -> selector.select(data, (data.length + 1) / 2);
+            }
+            case SELECT_INTRO: {
+                IntroSelect selector = new IntroSelect(metrics);
+                return data -> selector.select(data, (data.length + 1) / 2);
+            }
+            case SELECT_PARALLEL: {
+                ParallelSelect selector = new ParallelSelect(metrics, ParallelSelect.DEFAULT_THRESHOLD, pool);
+                return data -> selector.select(data, (data.length + 1) / 2);
+            }
+            default: {
+                VectorSelect selector = new VectorSelect(metrics);
+                return data -> selector.select(data, (data.length + 1) / 2);
+            }
+        }
+    }
+}
@@ -1,13 +1,43 @@
 package com.dnc.algorithms;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Random;
 
+import com.dnc.algorithms.geometry.AutoClosestPair;
 import com.dnc.algorithms.geometry.ClosestPair;
+import com.dnc.algorithms.geometry.ClosestPairEngine;
+import com.dnc.algorithms.geometry.DynamicClosestPair;
+import com.dnc.algorithms.geometry.GridClosestPair;
+import com.dnc.algorithms.geometry.KdTree;
+import com.dnc.algorithms.geometry.PrimitiveClosestPair;
 import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.profiling.JfrSummary;
 import com.dnc.algorithms.select.DeterministicSelect;
+import com.dnc.algorithms.select.IntroSelect;
+import com.dnc.algorithms.select.KllSketch;
+import com.dnc.algorithms.select.ParallelSelect;
+import com.dnc.algorithms.select.VectorSelect;
+import com.dnc.algorithms.service.JobServer;
+import com.dnc.algorithms.service.LoadGenerator;
+import com.dnc.algorithms.service.ServiceConfig;
+import com.dnc.algorithms.service.ServiceStats;
+import com.dnc.algorithms.sort.AdaptiveSort;
+import com.dnc.algorithms.sort.ArgSort;
+import com.dnc.algorithms.sort.ExternalSort;
+import com.dnc.algorithms.sort.IntroSort;
 import com.dnc.algorithms.sort.MergeSort;
+import com.dnc.algorithms.sort.NaturalMergeSort;
+import com.dnc.algorithms.sort.ParallelMergeSort;
 import com.dnc.algorithms.sort.QuickSort;
+import com.dnc.algorithms.sort.RadixSort;
+import com.dnc.algorithms.sort.SegmentedSort;
+import com.dnc.algorithms.sort.VectorSort;
+import com.dnc.algorithms.util.ArrayUtils;
+import com.dnc.algorithms.util.CSVWriter;
+import com.dnc.algorithms.util.ColumnarResultWriter;
 
 public class CLI {
     private static final Random RANDOM = new Random();
@@ -29,11 +59,35 @@ public class CLI {
                 testRunner.runAllTests();
                 break;
             case "bench":
-                runBenchmarks();
+                if (args.length > 1 && args[1].equals("sketch")) {
+                    runSketchBenchmark();
+                } else if (args.length > 1 && args[1].equals("closest")) {
+                    runClosestPairBenchmark();
+                } else if (args.length > 1 && args[1].equals("segments")) {
+                    runSegmentedSortBenchmark();
+                } else if (args.length > 1 && args[1].equals("sweep")) {
+                    runSweep(args);
+                } else if (args.length > 1 && args[1].equals("convert")) {
+                    runConvert(args);
+                } else {
+                    runBenchmarks();
+                }
                 break;
             case "demo":
                 runDemo();
                 break;
+            case "sort-file":
+                runSortFile(args);
+                break;
+            case "jfr-summary":
+                runJfrSummary(args);
+                break;
+            case "serve":
+                runServer(args);
+                break;
+            case "loadgen":
+                runLoadGenerator(args);
+                break;
             case "help":
                 printHelp();
                 break;
@@ -71,8 +125,65 @@ public class CLI {
         new QuickSort(new MetricsTracker()).sort(Arrays.copyOf(data, data.length));
         long quickTime = System.nanoTime() - start;
         
-        System.out.printf("  MergeSort: %6.2f ms | QuickSort: %6.2f ms%n", 
-            mergeTime / 1_000_000.0, quickTime / 1_000_000.0);
+        // Benchmark ParallelMergeSort
+        start = System.nanoTime();
+        new ParallelMergeSort(new MetricsTracker()).sort(Arrays.copyOf(data, data.length));
+        long parallelTime = System.nanoTime() - start;
+        
+        // Benchmark IntroSort
+        start = System.nanoTime();
+        new IntroSort(new MetricsTracker()).sort(Arrays.copyOf(data, data.length));
+        long introTime = System.nanoTime() - start;
+        
+        System.out.printf("  MergeSort: %6.2f ms | QuickSort: %6.2f ms | ParallelMergeSort: %6.2f ms | IntroSort: %6.2f ms%n", 
+            mergeTime / 1_000_000.0, quickTime / 1_000_000.0, parallelTime / 1_000_000.0, introTime / 1_000_000.0);
+        
+        // Benchmark RadixSort and the AdaptiveSort dispatcher
+        start = System.nanoTime();
+        new RadixSort(new MetricsTracker()).sort(Arrays.copyOf(data, data.length));
+        long radixTime = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        AdaptiveSort.Engine engine = new AdaptiveSort(new MetricsTracker()).sort(Arrays.copyOf(data, data.length));
+        long adaptiveTime = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        VectorSort vectorSort = new VectorSort(new MetricsTracker());
+        vectorSort.sort(Arrays.copyOf(data, data.length));
+        long vectorTime = System.nanoTime() - start;
+        
+        System.out.printf("  RadixSort: %6.2f ms | AdaptiveSort: %6.2f ms (%s) | VectorSort: %6.2f ms (%s)%n", 
+            radixTime / 1_000_000.0, adaptiveTime / 1_000_000.0, engine,
+            vectorTime / 1_000_000.0, vectorSort.kernelName());
+        
+        // Nearly sorted input: ascending with one key in a hundred displaced
+        int[] nearly = Arrays.copyOf(data, data.length);
+        Arrays.sort(nearly);
+        for (int i = 0; i + 1 < nearly.length; i += 100) ArrayUtils.swap(nearly, i, Math.min(i + 37, nearly.length - 1));
+        start = System.nanoTime();
+        new MergeSort(new MetricsTracker()).sort(Arrays.copyOf(nearly, nearly.length));
+        long nearlyMergeTime = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        new NaturalMergeSort(new MetricsTracker()).sort(Arrays.copyOf(nearly, nearly.length));
+        long naturalTime = System.nanoTime() - start;
+        
+        System.out.printf("  Nearly sorted: MergeSort: %6.2f ms | NaturalMergeSort: %6.2f ms%n", 
+            nearlyMergeTime / 1_000_000.0, naturalTime / 1_000_000.0);
+        
+        // Argsort: packed radix keys against boxed indices with a comparator
+        start = System.nanoTime();
+        new ArgSort(new MetricsTracker()).argsort(data);
+        long argsortTime = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        Integer[] boxed = new Integer[data.length];
+        for (int i = 0; i < boxed.length; i++) boxed[i] = i;
+        Arrays.sort(boxed, (p, q) -> Integer.compare(data[p], data[q]));
+        long boxedTime = System.nanoTime() - start;
+        
+        System.out.printf("  Argsort: ArgSort: %6.2f ms | boxed comparator: %6.2f ms%n", 
+            argsortTime / 1_000_000.0, boxedTime / 1_000_000.0);
     }
     
     private void benchmarkSelection(int size) {
@@ -83,7 +194,20 @@ public class CLI {
         new DeterministicSelect(new MetricsTracker()).select(Arrays.copyOf(data, data.length), k);
         long time = System.nanoTime() - start;
         
-    System.out.printf("  Select k=%d: %6.2f ms%n", k, time / 1_000_000.0);
+        start = System.nanoTime();
+        new IntroSelect(new MetricsTracker()).select(Arrays.copyOf(data, data.length), k);
+        long introTime = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        new ParallelSelect(new MetricsTracker()).select(Arrays.copyOf(data, data.length), k);
+        long parallelTime = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        new VectorSelect(new MetricsTracker()).select(Arrays.copyOf(data, data.length), k);
+        long vectorTime = System.nanoTime() - start;
+        
+    System.out.printf("  Select k=%d: %6.2f ms | IntroSelect: %6.2f ms | ParallelSelect: %6.2f ms | VectorSelect: %6.2f ms%n",
+        k, time / 1_000_000.0, introTime / 1_000_000.0, parallelTime / 1_000_000.0, vectorTime / 1_000_000.0);
     }
     
     private void benchmarkClosestPair(int size) {
@@ -93,7 +217,336 @@ public class CLI {
         new ClosestPair(new MetricsTracker()).findClosestDistance(points);
         long time = System.nanoTime() - start;
         
-    System.out.printf("  ClosestPair (n=%d): %6.2f ms%n", size, time / 1_000_000.0);
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = points[i].x;
+            ys[i] = points[i].y;
+        }
+        start = System.nanoTime();
+        new PrimitiveClosestPair(new MetricsTracker()).find(xs, ys);
+        long primitiveTime = System.nanoTime() - start;
+        
+    System.out.printf("  ClosestPair (n=%d): %6.2f ms | PrimitiveClosestPair: %6.2f ms%n",
+        size, time / 1_000_000.0, primitiveTime / 1_000_000.0);
+    }
+    
+    private void runSortFile(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: sort-file <in> <out> [--mem <MB>] [--long] [--tmp <dir>]");
+            return;
+        }
+        
+        long memoryMb = 256;
+        ExternalSort.Width width = ExternalSort.Width.INT;
+        Path tempDir = null;
+        MetricsTracker metrics = new MetricsTracker();
+        try {
+            for (int i = 3; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--mem":
+                        memoryMb = Long.parseLong(optionValue(args, i++));
+                        if (memoryMb < 1 || memoryMb > Long.MAX_VALUE >> 20) {
+                            throw new IllegalArgumentException("--mem out of range: " + memoryMb);
+                        }
+                        break;
+                    case "--long":
+                        width = ExternalSort.Width.LONG;
+                        break;
+                    case "--tmp":
+                        tempDir = Paths.get(optionValue(args, i++));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+
+            long start = System.nanoTime();
+            int runs = new ExternalSort(metrics, memoryMb * 1024 * 1024, tempDir)
+                .sort(Paths.get(args[1]), Paths.get(args[2]), width);
+            long time = System.nanoTime() - start;
+            System.out.printf("Sorted %s -> %s: %d run(s), %,d comparisons, %.2f s%n",
+                args[1], args[2], runs, metrics.getComparisons(), time / 1_000_000_000.0);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("sort-file failed: " + e.getMessage());
+        }
+    }
+    
+    private static String optionValue(String[] args, int i) {
+        if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+        return args[i + 1];
+    }
+    
+    private void runSweep(String[] args) {
+        try {
+            BenchConfig config = BenchConfig.parse(args, 2);
+            System.out.println("Benchmark sweep\n");
+            long start = System.nanoTime();
+            long rows = new BenchRunner(config).run();
+            System.out.printf("%nMeasured %,d run(s) in %.2f s%s%n", rows, (System.nanoTime() - start) / 1_000_000_000.0,
+                config.getOutput() != null ? ", results in " + config.getOutput() + " (" + config.getFormat() + ")" : "");
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("bench sweep failed: " + e.getMessage());
+        }
+    }
+    
+    private void runConvert(String[] args) {
+        if (args.length < 4) {
+            System.out.println("Usage: bench convert <results.bin> <results.csv>");
+            return;
+        }
+        try (CSVWriter csv = new CSVWriter(args[3], false)) {
+            csv.writeHeader();
+            ColumnarResultWriter.replay(Paths.get(args[2]), csv);
+            System.out.println("Wrote " + args[3]);
+        } catch (IOException e) {
+            System.out.println("bench convert failed: " + e.getMessage());
+        }
+    }
+    
+    private void runJfrSummary(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: jfr-summary <recording.jfr>");
+            return;
+        }
+        try {
+            JfrSummary.read(Paths.get(args[1])).print(System.out);
+        } catch (IOException e) {
+            System.out.println("jfr-summary failed: " + e.getMessage());
+        }
+    }
+    
+    private void runServer(String[] args) {
+        JobServer server;
+        ServiceConfig config;
+        try {
+            config = ServiceConfig.parse(args, 1);
+            server = new JobServer(config);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("serve failed: " + e.getMessage());
+            return;
+        }
+        server.start();
+        System.out.printf("Serving sort, select and closest pair jobs on %s with %d worker(s), %d batcher(s)%n",
+            server.getAddress(), config.getWorkers(), config.getBatchers());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("\n" + server.stats().format());
+            try {
+                server.close();
+            } catch (IOException ignored) {
+                // Exiting anyway
+            }
+        }));
+
+        long last = 0;
+        long lastTime = System.nanoTime();
+        while (true) {
+            try {
+                Thread.sleep(config.getReportSeconds() > 0 ? config.getReportSeconds() * 1000L : Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+                return;
+            }
+            ServiceStats stats = server.stats();
+            long now = System.nanoTime();
+            System.out.printf("%,10.0f jobs/s  queued %,d  rejected %,d  %s%n",
+                (stats.getCompleted() - last) * 1e9 / (now - lastTime), stats.getQueued(), stats.getRejected(),
+                stats.getLatency().format());
+            last = stats.getCompleted();
+            lastTime = now;
+        }
+    }
+    
+    private void runLoadGenerator(String[] args) {
+        try {
+            ServiceConfig config = ServiceConfig.parse(args, 1);
+            System.out.printf("Load against %s: %d connection(s), %d in flight each, %d s%n",
+                config.getAddress(), config.getConnections(), config.getWindow(), config.getDurationSeconds());
+            LoadGenerator generator = new LoadGenerator(config);
+            LoadGenerator.Report report = generator.run();
+            System.out.println("\nClient\n" + report.format());
+            System.out.println("\nServer\n" + generator.serverStats());
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("loadgen failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void runSketchBenchmark() {
+        System.out.println("KLL Sketch vs Exact Selection\n");
+        
+        double[] qs = {0.5, 0.9, 0.95, 0.99, 0.999};
+        int[] sizes = {100_000, 1_000_000, 10_000_000};
+        for (int size : sizes) {
+            int[] data = generateRandomArray(size);
+            
+            long start = System.nanoTime();
+            KllSketch sketch = new KllSketch();
+            for (int v : data) sketch.update(v);
+            long sketchTime = System.nanoTime() - start;
+            
+            int[] ks = new int[qs.length];
+            for (int i = 0; i < qs.length; i++) ks[i] = Math.max(1, (int) Math.ceil(qs[i] * size));
+            start = System.nanoTime();
+            int[] exact = new DeterministicSelect(new MetricsTracker()).selectMany(Arrays.copyOf(data, size), ks);
+            long exactTime = System.nanoTime() - start;
+            
+            int[] sorted = Arrays.copyOf(data, size);
+            Arrays.sort(sorted);
+            double maxError = 0;
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < qs.length; i++) {
+                int estimate = sketch.quantile(qs[i]);
+                double rank = upperBound(sorted, estimate) / (double) size;
+                maxError = Math.max(maxError, Math.abs(rank - qs[i]));
+                row.append(String.format(" p%s=%d/%d", qs[i] * 100, estimate, exact[i]));
+            }
+            
+            System.out.printf("n=%,d: sketch %6.2f ms (%.1f M updates/s, %d retained) | exact selectMany %6.2f ms%n",
+                size, sketchTime / 1_000_000.0, size * 1000.0 / sketchTime, sketch.getRetained(),
+                exactTime / 1_000_000.0);
+            System.out.printf("  max rank error %.4f (bound %.4f) |%s%n",
+                maxError, KllSketch.normalizedRankError(sketch.getK()), row);
+        }
+    }
+    
+    private void runSegmentedSortBenchmark() {
+        System.out.println("Segmented Sort vs One Call per Segment\n");
+        
+        Random random = new Random(42);
+        int[] counts = {10_000, 100_000, 1_000_000};
+        for (int segments : counts) {
+            // Segments of 4 to 200 keys, back to back
+            int[] offsets = new int[segments + 1];
+            for (int i = 0; i < segments; i++) offsets[i + 1] = offsets[i] + 4 + random.nextInt(197);
+            int[] data = generateRandomArray(offsets[segments]);
+            
+            long bestSegmented = Long.MAX_VALUE, bestLoop = Long.MAX_VALUE;
+            MetricsTracker metrics = new MetricsTracker();
+            for (int rep = 0; rep < 3; rep++) {
+                int[] batch = Arrays.copyOf(data, data.length);
+                metrics.reset();
+                long start = System.nanoTime();
+                new SegmentedSort(metrics).sortSegments(batch, offsets);
+                bestSegmented = Math.min(bestSegmented, System.nanoTime() - start);
+                
+                int[] loop = Arrays.copyOf(data, data.length);
+                start = System.nanoTime();
+                IntroSort introSort = new IntroSort(new MetricsTracker());
+                for (int i = 0; i < segments; i++) introSort.sort(loop, offsets[i], offsets[i + 1] - 1);
+                bestLoop = Math.min(bestLoop, System.nanoTime() - start);
+            }
+            
+            System.out.printf("%,d segments (%,d keys): sortSegments %7.2f ms | IntroSort per segment %7.2f ms | %s%n",
+                segments, data.length, bestSegmented / 1_000_000.0, bestLoop / 1_000_000.0,
+                metrics.getDispatchedElements());
+        }
+    }
+    
+    private void runClosestPairBenchmark() {
+        System.out.println("Closest Pair: Divide & Conquer vs Grid Hashing\n");
+        
+        int[] sizes = {256, 1_000, 4_000, 16_000, 64_000, 256_000, 1_000_000, 4_000_000};
+        String[] layouts = {"uniform", "clustered"};
+        for (String layout : layouts) {
+            System.out.println(layout + ":");
+            for (int size : sizes) {
+                double[] xs = new double[size];
+                double[] ys = new double[size];
+                for (int i = 0; i < size; i++) {
+                    if (layout.equals("uniform")) {
+                        xs[i] = RANDOM.nextDouble() * 100;
+                        ys[i] = RANDOM.nextDouble() * 100;
+                    } else {
+                        // A few tight clusters far apart from each other
+                        int cluster = RANDOM.nextInt(8);
+                        xs[i] = cluster * 1e4 + RANDOM.nextGaussian() * 1e-3;
+                        ys[i] = cluster * 3e3 + RANDOM.nextGaussian() * 1e-3;
+                    }
+                }
+                
+                long dcTime = timeClosestPair(new PrimitiveClosestPair(new MetricsTracker()), xs, ys);
+                long gridTime = timeClosestPair(new GridClosestPair(new MetricsTracker()), xs, ys);
+                AutoClosestPair auto = new AutoClosestPair(new MetricsTracker());
+                long autoTime = timeClosestPair(auto, xs, ys);
+                System.out.printf("  n=%,9d: D&C %8.2f ms | Grid %8.2f ms (%.2fx) | Auto %8.2f ms (%s)%n",
+                    size, dcTime / 1_000_000.0, gridTime / 1_000_000.0, (double) dcTime / gridTime,
+                    autoTime / 1_000_000.0, auto.choose(xs, ys));
+            }
+        }
+        
+        // Dynamic index: batches of removals and insertions against a fixed-size set
+        int size = 1_000_000, batch = 2_000, batches = 100;
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = RANDOM.nextDouble() * 1000;
+            ys[i] = RANDOM.nextDouble() * 1000;
+        }
+        DynamicClosestPair dynamic = new DynamicClosestPair(new MetricsTracker());
+        long start = System.nanoTime();
+        dynamic.build(xs, ys);
+        long buildTime = System.nanoTime() - start;
+        
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) ids[i] = i;
+        start = System.nanoTime();
+        for (int b = 0; b < batches; b++) {
+            // Retire a contiguous window of slots so no id is removed twice
+            int from = b * batch % (size - batch);
+            int[] removed = Arrays.copyOfRange(ids, from, from + batch);
+            double[] insertXs = new double[batch];
+            double[] insertYs = new double[batch];
+            for (int i = 0; i < batch; i++) {
+                insertXs[i] = RANDOM.nextDouble() * 1000;
+                insertYs[i] = RANDOM.nextDouble() * 1000;
+            }
+            System.arraycopy(dynamic.applyBatch(removed, insertXs, insertYs), 0, ids, from, batch);
+            dynamic.closestPair();
+        }
+        long updateTime = System.nanoTime() - start;
+        System.out.printf("dynamic (n=%,d): build %8.2f ms | %d batches of %,d removals + %,d inserts: %6.2f ms/batch (%d rebuilds)%n",
+            size, buildTime / 1_000_000.0, batches, batch, batch, updateTime / 1_000_000.0 / batches,
+            dynamic.getRebuildCount());
+        
+        // k-d tree over the same points: build, all-nearest-neighbours and the closest pairs
+        KdTree tree = new KdTree(new MetricsTracker());
+        start = System.nanoTime();
+        tree.build(xs, ys);
+        long treeBuild = System.nanoTime() - start;
+        start = System.nanoTime();
+        tree.allNearestNeighbours(1);
+        long nearestTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        tree.allNearestNeighbours(8);
+        long knnTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        tree.kClosestPairs(100);
+        long pairsTime = System.nanoTime() - start;
+        System.out.printf("k-d tree (n=%,d): build %8.2f ms | all-NN %8.2f ms | 8-NN %8.2f ms | 100 closest pairs %8.2f ms%n",
+            size, treeBuild / 1_000_000.0, nearestTime / 1_000_000.0, knnTime / 1_000_000.0, pairsTime / 1_000_000.0);
+    }
+    
+    private static long timeClosestPair(ClosestPairEngine engine, double[] xs, double[] ys) {
+        // Best of several runs after as many warm-up calls, more of both for small inputs
+        int reps = Math.max(3, 1_000_000 / xs.length);
+        for (int rep = 0; rep < reps; rep++) engine.find(xs, ys);
+        long best = Long.MAX_VALUE;
+        for (int rep = 0; rep < reps; rep++) {
+            long start = System.nanoTime();
+            engine.find(xs, ys);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+    
+    private static int upperBound(int[] sorted, int value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= value) lo = mid + 1; else hi = mid;
+        }
+        return lo;
     }
     
     private void runDemo() {
@@ -141,13 +594,39 @@ public class CLI {
             "Commands:\n" +
             "  test    - Run comprehensive correctness tests\n" +
             "  bench   - Run performance benchmarks with various sizes\n" +
+            "  bench sketch - Compare the KLL quantile sketch with exact selection\n" +
+            "  bench closest - Closest pair engine crossover, dynamic index and k-d tree queries\n" +
+            "  bench segments - Batch sort of many small segments vs one call per segment\n" +
+            "  bench sweep [--config <file>] [--algorithms merge,quick,...] [--sizes 1000,...]\n" +
+            "              [--distributions random,sorted,reversed,few_unique,organ_pipe]\n" +
+            "              [--repetitions N] [--warmup N] [--seed N] [--threads N]\n" +
+            "              [--out <file.csv|file.bin>] [--format csv|binary]\n" +
+            "          - Configurable sweep; rows stream to a CSV or binary columnar file\n" +
+            "  bench convert <results.bin> <results.csv> - Binary results to CSV\n" +
             "  demo    - See algorithms in action with sample data\n" +
+            "  sort-file <in> <out> [--mem <MB>] [--long] [--tmp <dir>]\n" +
+            "          - External sort of a binary big-endian int (or long) file\n" +
+            "  jfr-summary <recording.jfr>\n" +
+            "          - Per-level time and split histograms from the engines' JFR events\n" +
+            "  serve [--address host:port|unix:<path>] [--workers N] [--batchers N] [--queue N]\n" +
+            "        [--admit-ms N] [--small-sort N] [--batch-jobs N] [--report <s>] [--config <file>]\n" +
+            "          - Long-running job service; small sorts are batched into segmented sorts\n" +
+            "  loadgen [--address ...] [--connections N] [--window N] [--duration <s>]\n" +
+            "          [--mix sort:60,select:30,closest:10] [--sizes sort:256,select:10000,closest:2000]\n" +
+            "          - Drive a running service and report throughput and latency percentiles\n" +
             "  help    - Show this help message\n" +
             "\n" +
             "Examples:\n" +
             "  mvn exec:java -Dexec.args=\"test\"\n" +
             "  mvn exec:java -Dexec.args=\"bench\"\n" +
-            "  mvn exec:java -Dexec.args=\"demo\"\n"
+            "  mvn exec:java -Dexec.args=\"bench sweep --sizes 1000,100000 --repetitions 10 --out results.csv\"\n" +
+            "  mvn exec:java -Dexec.args=\"demo\"\n" +
+            "  mvn exec:java -Dexec.args=\"sort-file data.bin sorted.bin --mem 512\"\n" +
+            "  java -XX:StartFlightRecording=filename=dnc.jfr -Ddnc.profiling.detailInterval=1 \\\n" +
+            "       -cp target/classes com.dnc.algorithms.Main bench sweep --sizes 100000\n" +
+            "  mvn exec:java -Dexec.args=\"jfr-summary dnc.jfr\"\n" +
+            "  mvn exec:java -Dexec.args=\"serve --address unix:/tmp/dnc.sock\"\n" +
+            "  mvn exec:java -Dexec.args=\"loadgen --address unix:/tmp/dnc.sock --duration 30\"\n"
         );
     }
     
@@ -1,14 +1,63 @@
 package com.dnc.algorithms;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Random;
 
+import jdk.jfr.Recording;
+
+import com.dnc.algorithms.geometry.AutoClosestPair;
 import com.dnc.algorithms.geometry.ClosestPair;
+import com.dnc.algorithms.geometry.DynamicClosestPair;
+import com.dnc.algorithms.geometry.GridClosestPair;
+import com.dnc.algorithms.geometry.KdTree;
+import com.dnc.algorithms.geometry.KnnResult;
+import com.dnc.algorithms.geometry.PairResult;
+import com.dnc.algorithms.geometry.ParallelClosestPair;
+import com.dnc.algorithms.geometry.PrimitiveClosestPair;
+import com.dnc.algorithms.metrics.ConcurrentMetrics;
+import com.dnc.algorithms.metrics.LevelHistogramMetrics;
 import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.metrics.NoOpMetrics;
+import com.dnc.algorithms.profiling.JfrSummary;
+import com.dnc.algorithms.profiling.Profiling;
 import com.dnc.algorithms.select.DeterministicSelect;
+import com.dnc.algorithms.select.IntroSelect;
+import com.dnc.algorithms.select.KllSketch;
+import com.dnc.algorithms.select.OffHeapSelect;
+import com.dnc.algorithms.select.ParallelSelect;
+import com.dnc.algorithms.select.VectorSelect;
+import com.dnc.algorithms.service.JobServer;
+import com.dnc.algorithms.service.ServiceConfig;
+import com.dnc.algorithms.sort.AdaptiveSort;
+import com.dnc.algorithms.sort.ArgSort;
+import com.dnc.algorithms.sort.ExternalSort;
+import com.dnc.algorithms.sort.IntroSort;
 import com.dnc.algorithms.sort.MergeSort;
+import com.dnc.algorithms.sort.NaturalMergeSort;
+import com.dnc.algorithms.sort.OffHeapMergeSort;
+import com.dnc.algorithms.sort.ParallelMergeSort;
 import com.dnc.algorithms.sort.QuickSort;
+import com.dnc.algorithms.sort.RadixSort;
+import com.dnc.algorithms.sort.SegmentedSort;
+import com.dnc.algorithms.sort.VectorSort;
 import com.dnc.algorithms.util.ArrayUtils;
+import com.dnc.algorithms.util.AsyncResultSink;
+import com.dnc.algorithms.util.ColumnarResultWriter;
+import com.dnc.algorithms.util.ResultBatch;
+import com.dnc.algorithms.util.ResultSink;
+import com.dnc.algorithms.util.ScratchArena;
 
 /**
  * Minimal test runner used by the CLI to perform quick correctness checks.
@@ -22,7 +71,13 @@ public class TestRunner {
 
         if (!testSorting()) failures++;
         if (!testSelection()) failures++;
+        if (!testSketch()) failures++;
         if (!testClosestPair()) failures++;
+        if (!testOffHeap()) failures++;
+        if (!testExternalSort()) failures++;
+        if (!testResultSinks()) failures++;
+        if (!testService()) failures++;
+        if (!testProfiling()) failures++;
 
         System.out.printf("\nSummary: %d failure(s)\n", failures);
         if (failures == 0) System.out.println("All quick tests passed.");
@@ -33,11 +88,97 @@ public class TestRunner {
         int[] arr = generateRandomArray(1000);
         int[] a1 = Arrays.copyOf(arr, arr.length);
         int[] a2 = Arrays.copyOf(arr, arr.length);
+        int[] a3 = Arrays.copyOf(arr, arr.length);
+        int[] a4 = Arrays.copyOf(arr, arr.length);
+        int[] a5 = Arrays.copyOf(arr, arr.length);
+        int[] a6 = Arrays.copyOf(arr, arr.length);
+        int[] a7 = Arrays.copyOf(arr, arr.length);
+        int[] a8 = Arrays.copyOf(arr, arr.length);
+        for (int i = 0; i < a5.length; i += 3) a5[i] = -a5[i]; // exercise negative keys
+        int[] expected5 = Arrays.copyOf(a5, a5.length);
+        Arrays.sort(expected5);
 
         new MergeSort(new MetricsTracker()).sort(a1);
         new QuickSort(new MetricsTracker()).sort(a2);
+        new ParallelMergeSort(new MetricsTracker(), 64).sort(a3);
+        new IntroSort(new MetricsTracker()).sort(a4);
+        new RadixSort(new MetricsTracker()).sort(a5);
+        new AdaptiveSort(new MetricsTracker()).sort(a6);
+        new VectorSort(new MetricsTracker()).sort(a7);
+        new NaturalMergeSort(new MetricsTracker()).sort(a8);
+
+        boolean ok = ArrayUtils.isSorted(a1) && ArrayUtils.isSorted(a2)
+            && Arrays.equals(a1, a3) && Arrays.equals(a1, a4)
+            && Arrays.equals(expected5, a5) && Arrays.equals(a1, a6)
+            && Arrays.equals(a1, a7) && Arrays.equals(a1, a8);
+
+        // Short arrays are classified from pairs across the whole range, not one repeated pair
+        AdaptiveSort adaptive = new AdaptiveSort(new MetricsTracker());
+        int[] shortRandom = generateRandomArray(48);
+        int[] shortAscending = Arrays.copyOf(a1, 48);
+        ok = ok && adaptive.choose(shortRandom) == AdaptiveSort.Engine.QUICK
+            && adaptive.choose(shortAscending) == AdaptiveSort.Engine.MERGE;
+
+        // Nearly sorted input with a reversed block exercises run detection and galloping
+        int[] nearly = Arrays.copyOf(a1, a1.length);
+        for (int i = 100, j = 299; i < j; i++, j--) ArrayUtils.swap(nearly, i, j);
+        nearly[500] = -1;
+        int[] expectedNearly = Arrays.copyOf(nearly, nearly.length);
+        Arrays.sort(expectedNearly);
+        new NaturalMergeSort(new MetricsTracker()).sort(nearly);
+        ok = ok && Arrays.equals(expectedNearly, nearly);
+
+        // Once warm, an arena serves repeated sorts without allocating
+        ScratchArena arena = new ScratchArena();
+        new MergeSort(new MetricsTracker(), arena).sort(Arrays.copyOf(arr, arr.length));
+        long warm = arena.getAllocatedBytes();
+        MetricsTracker steady = new MetricsTracker();
+        int[] again = Arrays.copyOf(arr, arr.length);
+        new MergeSort(steady, arena).sort(again);
+        new RadixSort(steady, arena).sort(Arrays.copyOf(arr, arr.length));
+        new MergeSort(steady, arena).sort(Arrays.copyOf(arr, arr.length));
+        ok = ok && Arrays.equals(a1, again) && arena.getAllocatedBytes() == warm;
 
-        boolean ok = ArrayUtils.isSorted(a1) && ArrayUtils.isSorted(a2);
+        // Segments of every engine size, sorted in one batch
+        int[] offsets = {0, 0, 1, 9, 40, 1000, 1000};
+        int[] segmented = Arrays.copyOf(arr, arr.length);
+        int[] expectedSegments = Arrays.copyOf(arr, arr.length);
+        for (int i = 0; i + 1 < offsets.length; i++) Arrays.sort(expectedSegments, offsets[i], offsets[i + 1]);
+        new SegmentedSort(new MetricsTracker()).sortSegments(segmented, offsets);
+        ok = ok && Arrays.equals(expectedSegments, segmented);
+
+        // Argsort and key/payload sorts keep equal keys in index order
+        int[] keys = new int[arr.length];
+        int[] payload = new int[arr.length];
+        Integer[] byKey = new Integer[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            keys[i] = arr[i] % 10;
+            payload[i] = i;
+            byKey[i] = i;
+        }
+        Arrays.sort(byKey, (p, q) -> Integer.compare(keys[p], keys[q]));
+        ArgSort argSort = new ArgSort(new MetricsTracker());
+        int[] order = argSort.argsort(keys);
+        int[] sortedKeys = Arrays.copyOf(keys, keys.length);
+        argSort.sort(sortedKeys, payload);
+        for (int i = 0; i < arr.length; i++) {
+            ok = ok && order[i] == byKey[i] && payload[i] == byKey[i] && sortedKeys[i] == keys[byKey[i]];
+        }
+
+        // Every Metrics implementation counts the same work; the histogram splits it by level
+        MetricsTracker tracked = new MetricsTracker();
+        ConcurrentMetrics concurrent = new ConcurrentMetrics();
+        LevelHistogramMetrics histogram = new LevelHistogramMetrics();
+        new MergeSort(tracked).sort(Arrays.copyOf(arr, arr.length));
+        new MergeSort(concurrent).sort(Arrays.copyOf(arr, arr.length));
+        new MergeSort(histogram).sort(Arrays.copyOf(arr, arr.length));
+        int[] quiet = Arrays.copyOf(arr, arr.length);
+        new MergeSort(NoOpMetrics.INSTANCE).sort(quiet);
+        ok = ok && Arrays.equals(a1, quiet)
+            && concurrent.getComparisons() == tracked.getComparisons()
+            && histogram.getComparisons() == tracked.getComparisons()
+            && Arrays.stream(histogram.getComparisonsByLevel()).sum() == tracked.getComparisons()
+            && histogram.getComparisonsByLevel().length == tracked.getMaxRecursionDepth() + 1;
         System.out.println(ok ? "OK" : "FAILED");
         return ok;
     }
@@ -49,20 +190,95 @@ public class TestRunner {
         Arrays.sort(sorted);
 
         DeterministicSelect selector = new DeterministicSelect(new MetricsTracker());
+        IntroSelect introSelector = new IntroSelect(new MetricsTracker());
+        ParallelSelect parallelSelector = new ParallelSelect(new MetricsTracker(), 16);
+        VectorSelect vectorSelector = new VectorSelect(new MetricsTracker());
         // check first 5 order-statistics
         for (int k = 1; k <= 5; k++) {
             int expected = sorted[k - 1];
             int got = selector.select(Arrays.copyOf(arr, arr.length), k);
-            if (got != expected) {
+            int gotIntro = introSelector.select(Arrays.copyOf(arr, arr.length), k);
+            int gotParallel = parallelSelector.select(Arrays.copyOf(arr, arr.length), k);
+            int gotVector = vectorSelector.select(Arrays.copyOf(arr, arr.length), k);
+            if (got != expected || gotIntro != expected || gotParallel != expected || gotVector != expected) {
                 System.out.println("FAILED (k=" + k + ")");
                 return false;
             }
         }
 
+        // A threshold of 16 forces several parallel passes; the input must stay a permutation
+        int[] large = generateRandomArray(5000);
+        int[] largeSorted = Arrays.copyOf(large, large.length);
+        Arrays.sort(largeSorted);
+        ParallelSelect smallThreshold = new ParallelSelect(new MetricsTracker(), 16);
+        for (int k : new int[] {1, 1250, 2500, 2501, 4999, 5000}) {
+            int[] input = Arrays.copyOf(large, large.length);
+            int got = smallThreshold.select(input, k);
+            int[] after = Arrays.copyOf(input, input.length);
+            Arrays.sort(after);
+            if (got != largeSorted[k - 1] || input[k - 1] != got || !Arrays.equals(after, largeSorted)) {
+                System.out.println("FAILED (parallel k=" + k + ")");
+                return false;
+            }
+        }
+
+        int[] ks = {201, 101, 1, 101, 180};
+        int[] many = selector.selectMany(Arrays.copyOf(arr, arr.length), ks);
+        for (int i = 0; i < ks.length; i++) {
+            if (many[i] != sorted[ks[i] - 1]) {
+                System.out.println("FAILED (selectMany k=" + ks[i] + ")");
+                return false;
+            }
+        }
+
         System.out.println("OK");
         return true;
     }
 
+    private boolean testSketch() {
+        System.out.print("[sketch]  ");
+        // Two halves of one stream, sketched apart and merged, against a sketch of the whole
+        int[] stream = generateRandomArray(200_000);
+        KllSketch first = new KllSketch(KllSketch.DEFAULT_K, new Random(1));
+        KllSketch second = new KllSketch(KllSketch.DEFAULT_K, new Random(2));
+        KllSketch whole = new KllSketch(KllSketch.DEFAULT_K, new Random(3));
+        for (int i = 0; i < stream.length; i++) {
+            (i % 2 == 0 ? first : second).update(stream[i]);
+            whole.update(stream[i]);
+        }
+        first.merge(second);
+        int[] sorted = Arrays.copyOf(stream, stream.length);
+        Arrays.sort(sorted);
+
+        double tolerance = KllSketch.normalizedRankError(KllSketch.DEFAULT_K);
+        boolean ok = first.getN() == stream.length && whole.getN() == stream.length;
+        for (int step = 0; step <= 20 && ok; step++) {
+            double q = step / 20.0;
+            ok = rankError(sorted, first.quantile(q), q) <= tolerance
+                && rankError(sorted, whole.quantile(q), q) <= tolerance;
+        }
+        try {
+            new KllSketch().quantile(0.5);
+            ok = false;
+        } catch (IllegalStateException e) {
+            // An empty sketch has no quantiles
+        }
+        System.out.println(ok ? "OK" : "FAILED");
+        return ok;
+    }
+
+    /**
+     * Distance from q to the normalized ranks value occupies in sorted.
+     */
+    private static double rankError(int[] sorted, int value, double q) {
+        int below = 0;
+        while (below < sorted.length && sorted[below] < value) below++;
+        int upTo = below;
+        while (upTo < sorted.length && sorted[upTo] == value) upTo++;
+        double rank = q * sorted.length;
+        return Math.max(0, Math.max(below - rank, rank - upTo)) / sorted.length;
+    }
+
     private boolean testClosestPair() {
         System.out.print("[closest] ");
         ClosestPair.Point[] pts = new ClosestPair.Point[] {
@@ -74,11 +290,314 @@ public class TestRunner {
 
         double found = new ClosestPair(new MetricsTracker()).findClosestDistance(pts);
         double expected = 1.0; // point (0,0) and (1,0)
-        boolean ok = Math.abs(found - expected) < 1e-6;
+        PairResult pair = new PrimitiveClosestPair(new MetricsTracker())
+            .find(new double[] {0, 1, 0, 2}, new double[] {0, 0, 2, 2});
+        boolean ok = Math.abs(found - expected) < 1e-6
+            && pair.distance == expected && pair.first == 0 && pair.second == 1;
+
+        // The parallel engine must agree bit for bit with the sequential one
+        double[] xs = new double[2000];
+        double[] ys = new double[2000];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextInt(500);
+            ys[i] = random.nextInt(500);
+        }
+        PairResult sequential = new PrimitiveClosestPair(new MetricsTracker()).find(xs, ys);
+        PairResult parallel = new ParallelClosestPair(new MetricsTracker(), 16).find(xs, ys);
+        PairResult grid = new GridClosestPair(new MetricsTracker()).find(xs, ys);
+        PairResult auto = new AutoClosestPair(new MetricsTracker()).find(xs, ys);
+        ok = ok && sequential.equals(parallel) && sequential.equals(grid) && sequential.equals(auto);
+
+        // The dynamic index starts from the same answer and follows updates
+        DynamicClosestPair dynamic = new DynamicClosestPair(new MetricsTracker());
+        dynamic.build(xs, ys);
+        ok = ok && sequential.equals(dynamic.closestPair());
+        int twin = dynamic.insert(xs[5], ys[5]);
+        ok = ok && dynamic.closestPair().equals(new PairResult(0.0, 5, twin));
+        dynamic.remove(twin);
+        ok = ok && sequential.equals(dynamic.closestPair());
+        try {
+            // A bad id late in a small batch must not leave the earlier removals applied
+            dynamic.applyBatch(new int[] {sequential.first, twin}, new double[0], new double[0]);
+            ok = false;
+        } catch (IllegalArgumentException e) {
+            ok = ok && dynamic.size() == xs.length && sequential.equals(dynamic.closestPair());
+        }
+
+        // A skewed lattice has sqrt(13) as its closest distance, whose square does not round-trip
+        double[] latticeXs = new double[8192];
+        double[] latticeYs = new double[8192];
+        for (int i = 0; i < latticeXs.length; i++) {
+            int a = i % 128, b = i / 128;
+            latticeXs[i] = 2 * a - 3 * b;
+            latticeYs[i] = 3 * a + 2 * b;
+        }
+        for (int i = latticeXs.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double x = latticeXs[i], y = latticeYs[i];
+            latticeXs[i] = latticeXs[j];
+            latticeYs[i] = latticeYs[j];
+            latticeXs[j] = x;
+            latticeYs[j] = y;
+        }
+        DynamicClosestPair lattice = new DynamicClosestPair(new MetricsTracker());
+        lattice.build(latticeXs, latticeYs);
+        ok = ok && new PrimitiveClosestPair(new MetricsTracker()).find(latticeXs, latticeYs).equals(lattice.closestPair());
+
+        // The k-d tree's closest pair and nearest neighbours must agree with it too
+        KdTree tree = new KdTree(new MetricsTracker());
+        tree.build(xs, ys);
+        KnnResult nearest = tree.allNearestNeighbours(1);
+        ok = ok && sequential.equals(tree.kClosestPairs(3).get(0))
+            && nearest.index(sequential.first, 0) >= 0
+            && nearest.distance(sequential.first, 0) == sequential.distance;
         System.out.println(ok ? "OK" : ("FAILED (got=" + found + ")"));
         return ok;
     }
 
+    private boolean testOffHeap() {
+        System.out.print("[offheap] ");
+        int[] arr = generateRandomArray(1000);
+        int[] sorted = Arrays.copyOf(arr, arr.length);
+        Arrays.sort(sorted);
+
+        IntBuffer buffer = ByteBuffer.allocateDirect(arr.length * Integer.BYTES)
+            .order(ByteOrder.nativeOrder()).asIntBuffer();
+        buffer.put(arr).flip();
+        int median = new OffHeapSelect(new MetricsTracker()).select(buffer, arr.length / 2);
+        new OffHeapMergeSort(new MetricsTracker()).sort(buffer);
+
+        boolean ok = median == sorted[arr.length / 2 - 1];
+        for (int i = 0; i < sorted.length && ok; i++) ok = buffer.get(i) == sorted[i];
+        System.out.println(ok ? "OK" : "FAILED");
+        return ok;
+    }
+
+    private boolean testExternalSort() {
+        System.out.print("[extsort] ");
+        // A 64 KB budget sorts 8192 ints per run, so this spills more than
+        // 128 runs and needs an intermediate merge pass
+        int[] ints = new int[8192 * 130 + 77];
+        for (int i = 0; i < ints.length; i++) ints[i] = random.nextInt();
+        long[] longs = new long[4096 * 3 + 1];
+        for (int i = 0; i < longs.length; i++) longs[i] = random.nextLong();
+
+        Path input = null, output = null;
+        try {
+            input = Files.createTempFile("dnc-test-", ".bin");
+            output = Files.createTempFile("dnc-test-", ".bin");
+            ExternalSort sorter = new ExternalSort(new MetricsTracker(), 64 * 1024);
+
+            ByteBuffer bytes = ByteBuffer.allocate(ints.length * Integer.BYTES);
+            bytes.asIntBuffer().put(ints);
+            Files.write(input, bytes.array());
+            int runs = sorter.sort(input, output, ExternalSort.Width.INT);
+            int[] sortedInts = new int[ints.length];
+            ByteBuffer.wrap(Files.readAllBytes(output)).asIntBuffer().get(sortedInts);
+            Arrays.sort(ints);
+
+            bytes = ByteBuffer.allocate(longs.length * Long.BYTES);
+            bytes.asLongBuffer().put(longs);
+            Files.write(input, bytes.array());
+            sorter.sort(input, output, ExternalSort.Width.LONG);
+            long[] sortedLongs = new long[longs.length];
+            ByteBuffer.wrap(Files.readAllBytes(output)).asLongBuffer().get(sortedLongs);
+            Arrays.sort(longs);
+
+            boolean ok = runs > 128 && Arrays.equals(ints, sortedInts) && Arrays.equals(longs, sortedLongs);
+            System.out.println(ok ? "OK" : "FAILED (runs=" + runs + ")");
+            return ok;
+        } catch (IOException e) {
+            System.out.println("FAILED (" + e.getMessage() + ")");
+            return false;
+        } finally {
+            try {
+                if (input != null) Files.deleteIfExists(input);
+                if (output != null) Files.deleteIfExists(output);
+            } catch (IOException ignored) {
+                // Left for the system to clean up
+            }
+        }
+    }
+
+    private boolean testResultSinks() {
+        System.out.print("[sinks]   ");
+        // Batches of 7 rows against blocks of 10 put the boundaries out of step,
+        // and the names grow with the row so later blocks define new dictionary ids
+        String[] algorithms = {"merge", "quick", "intro", "radix", "vector"};
+        String[] distributions = {"random", "sorted", "few-unique"};
+        int rows = 1003;
+        ResultBatch expected = new ResultBatch(rows);
+        for (int i = 0; i < rows; i++) {
+            expected.add(algorithms[Math.min(i / 200, algorithms.length - 1)], distributions[i % distributions.length],
+                1000 + i, 1 + i % 4, i % 5, random.nextLong(), i % 30, random.nextLong(), random.nextLong());
+        }
+
+        Path file = null;
+        try {
+            file = Files.createTempFile("dnc-test-", ".dncr");
+            try (ResultSink sink = new AsyncResultSink(new ColumnarResultWriter(file, 10), 7, 3)) {
+                for (int i = 0; i < rows; i++) {
+                    sink.write(expected.algorithm(i), expected.distribution(i), expected.size(i), expected.threads(i),
+                        expected.run(i), expected.timeNanos(i), expected.maxDepth(i), expected.comparisons(i),
+                        expected.allocations(i));
+                }
+            }
+            ResultBatch replayed = new ResultBatch(rows + 1);
+            ColumnarResultWriter.replay(file, new ResultSink() {
+                @Override
+                public void write(String algorithm, String distribution, int size, int threads, int run,
+                                  long timeNanos, int maxDepth, long comparisons, long allocations) {
+                    replayed.add(algorithm, distribution, size, threads, run, timeNanos, maxDepth, comparisons, allocations);
+                }
+
+                @Override
+                public void close() {
+                }
+            });
+
+            boolean ok = replayed.size() == rows;
+            for (int i = 0; i < rows && ok; i++) {
+                ok = expected.algorithm(i).equals(replayed.algorithm(i))
+                    && expected.distribution(i).equals(replayed.distribution(i))
+                    && expected.size(i) == replayed.size(i) && expected.threads(i) == replayed.threads(i)
+                    && expected.run(i) == replayed.run(i) && expected.timeNanos(i) == replayed.timeNanos(i)
+                    && expected.maxDepth(i) == replayed.maxDepth(i)
+                    && expected.comparisons(i) == replayed.comparisons(i) && expected.allocations(i) == replayed.allocations(i);
+            }
+            System.out.println(ok ? "OK" : "FAILED (replayed " + replayed.size() + " of " + rows + " rows)");
+            return ok;
+        } catch (IOException e) {
+            System.out.println("FAILED (" + e.getMessage() + ")");
+            return false;
+        } finally {
+            try {
+                if (file != null) Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Left for the system to clean up
+            }
+        }
+    }
+
+    private boolean testService() {
+        System.out.print("[service] ");
+        int[] small = generateRandomArray(100);
+        int[] large = generateRandomArray(5000);
+        int[] smallSorted = Arrays.copyOf(small, small.length);
+        int[] largeSorted = Arrays.copyOf(large, large.length);
+        Arrays.sort(smallSorted);
+        Arrays.sort(largeSorted);
+        double[] xs = new double[500];
+        double[] ys = new double[500];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextDouble();
+            ys[i] = random.nextDouble();
+        }
+        PairResult pair = new PrimitiveClosestPair(new MetricsTracker()).find(xs, ys);
+
+        ServiceConfig config = new ServiceConfig();
+        config.set("address", "localhost:0");
+        config.set("workers", "2");
+        config.set("report", "0");
+        // Op codes and statuses as laid out in service.Protocol
+        final byte sort = 1, select = 2, closest = 3, okStatus = 0, errorStatus = 2;
+        try (JobServer server = new JobServer(config)) {
+            server.start();
+            try (SocketChannel channel = SocketChannel.open(server.getAddress())) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                // Ids 0 and 1 are sorts below and above the batching limit, 2 a select,
+                // 3 a closest pair and 4 a select with a rank outside the input
+                for (int[] values : new int[][] {small, large}) {
+                    out.writeByte(sort);
+                    out.writeInt(values == small ? 0 : 1);
+                    out.writeInt(values.length);
+                    for (int v : values) out.writeInt(v);
+                }
+                for (int id : new int[] {2, 4}) {
+                    out.writeByte(select);
+                    out.writeInt(id);
+                    out.writeInt(id == 2 ? 2500 : 0);
+                    out.writeInt(large.length);
+                    for (int v : large) out.writeInt(v);
+                }
+                out.writeByte(closest);
+                out.writeInt(3);
+                out.writeInt(xs.length);
+                for (double x : xs) out.writeDouble(x);
+                for (double y : ys) out.writeDouble(y);
+                out.flush();
+
+                // Responses may come back in any order
+                boolean ok = true;
+                boolean[] seen = new boolean[5];
+                for (int r = 0; r < seen.length; r++) {
+                    int id = in.readInt();
+                    byte status = in.readByte();
+                    if (id < 0 || id >= seen.length || seen[id]) return serviceFailed("unexpected id " + id);
+                    seen[id] = true;
+                    if (id == 4) {
+                        in.readUTF();
+                        ok = ok && status == errorStatus;
+                        continue;
+                    }
+                    if (status != okStatus) return serviceFailed("status " + status + " for id " + id);
+                    if (id <= 1) {
+                        int[] sorted = new int[in.readInt()];
+                        for (int i = 0; i < sorted.length; i++) sorted[i] = in.readInt();
+                        ok = ok && Arrays.equals(sorted, id == 0 ? smallSorted : largeSorted);
+                    } else if (id == 2) {
+                        ok = ok && in.readInt() == largeSorted[2499];
+                    } else {
+                        ok = ok && pair.equals(new PairResult(in.readDouble(), in.readInt(), in.readInt()));
+                    }
+                }
+                // Failures are counted before the ERROR goes out; completions only after their reply
+                ok = ok && server.stats().getFailed() == 1;
+                System.out.println(ok ? "OK" : "FAILED");
+                return ok;
+            }
+        } catch (IOException e) {
+            return serviceFailed(e.getMessage());
+        }
+    }
+
+    private static boolean serviceFailed(String reason) {
+        System.out.println("FAILED (" + reason + ")");
+        return false;
+    }
+
+    private boolean testProfiling() {
+        System.out.print("[jfr]     ");
+        int interval = Profiling.getDetailInterval();
+        Path file = null;
+        try (Recording recording = new Recording()) {
+            file = Files.createTempFile("dnc-test-", ".jfr");
+            Profiling.setDetailInterval(1);
+            recording.start();
+            new IntroSort(NoOpMetrics.INSTANCE).sort(generateRandomArray(5000));
+            new MergeSort(NoOpMetrics.INSTANCE).sort(generateRandomArray(5000));
+            recording.stop();
+            recording.dump(file);
+
+            JfrSummary summary = JfrSummary.read(file);
+            boolean ok = summary.getPartitionCount("IntroSort") > 0 && summary.getMergeCount("MergeSort") > 0
+                && summary.getMergeCount("IntroSort") == 0 && summary.getPartitionCount("MergeSort") == 0;
+            System.out.println(ok ? "OK" : "FAILED");
+            return ok;
+        } catch (IOException e) {
+            System.out.println("FAILED (" + e.getMessage() + ")");
+            return false;
+        } finally {
+            Profiling.setDetailInterval(interval);
+            try {
+                if (file != null) Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Left for the system to clean up
+            }
+        }
+    }
+
     private int[] generateRandomArray(int size) {
         int[] arr = new int[size];
         for (int i = 0; i < size; i++) arr[i] = random.nextInt(size * 10 + 1);
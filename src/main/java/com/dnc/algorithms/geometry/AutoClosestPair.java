@@ -0,0 +1,94 @@
+package com.dnc.algorithms.geometry;
+
+import java.util.Arrays;
+
+import com.dnc.algorithms.metrics.Metrics;
+
+/**
+ * Front door that routes a closest pair query to the grid engine when the
+ * points are spread fairly evenly over their bounding box, and to divide and
+ * conquer (fork/join when the input is large and cores are available) when a
+ * sample shows the points bunched into a few places, where grid cells sized
+ * for the dense regions would be far too many. Each decision is recorded with
+ * {@link Metrics#recordDispatch(String, long)}.
+ */
+public class AutoClosestPair implements ClosestPairEngine {
+    public enum Engine { DIVIDE_AND_CONQUER, PARALLEL, GRID }
+
+    private static final int GRID_MIN = 512;
+    private static final int SAMPLE_SIZE = 1024;
+    private static final int SAMPLE_BINS = 32;
+    // A uniform sample fills about 63% of the bins; clustered input fills a few
+    private static final double MIN_OCCUPANCY = 0.25;
+    private final Metrics metrics;
+    private final PrimitiveClosestPair divideAndConquer;
+    private final ParallelClosestPair parallel;
+    private final GridClosestPair grid;
+    private final boolean multicore;
+    private final boolean[] occupied = new boolean[SAMPLE_BINS * SAMPLE_BINS];
+
+    public AutoClosestPair(Metrics metrics) {
+        this.metrics = metrics;
+        this.divideAndConquer = new PrimitiveClosestPair(metrics);
+        this.parallel = new ParallelClosestPair(metrics);
+        this.grid = new GridClosestPair(metrics);
+        this.multicore = Runtime.getRuntime().availableProcessors() > 1;
+    }
+
+    @Override
+    public PairResult find(double[] xs, double[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("xs and ys differ in length: " + xs.length + " vs " + ys.length);
+        }
+        Engine engine = choose(xs, ys);
+        metrics.recordDispatch(engine.name(), xs.length);
+        switch (engine) {
+            case GRID:
+                return grid.find(xs, ys);
+            case PARALLEL:
+                return parallel.find(xs, ys);
+            default:
+                return divideAndConquer.find(xs, ys);
+        }
+    }
+
+    /**
+     * Picks an engine from the size and the share of a coarse grid over the
+     * sample's bounding box that the sampled points land in.
+     */
+    public Engine choose(double[] xs, double[] ys) {
+        int n = xs.length;
+        if (n < GRID_MIN) return Engine.DIVIDE_AND_CONQUER;
+
+        int samples = Math.min(n, SAMPLE_SIZE);
+        int stride = n / samples;
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int s = 0; s < samples; s++) {
+            int i = s * stride;
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        double scaleX = SAMPLE_BINS / Math.max(maxX - minX, Double.MIN_NORMAL);
+        double scaleY = SAMPLE_BINS / Math.max(maxY - minY, Double.MIN_NORMAL);
+        Arrays.fill(occupied, false);
+        int filled = 0;
+        for (int s = 0; s < samples; s++) {
+            int i = s * stride;
+            int bx = Math.min(SAMPLE_BINS - 1, (int) ((xs[i] - minX) * scaleX));
+            int by = Math.min(SAMPLE_BINS - 1, (int) ((ys[i] - minY) * scaleY));
+            int bin = by * SAMPLE_BINS + bx;
+            if (!occupied[bin]) {
+                occupied[bin] = true;
+                filled++;
+            }
+        }
+
+        if (filled >= MIN_OCCUPANCY * Math.min(samples, occupied.length)) return Engine.GRID;
+        if (multicore && n > ParallelClosestPair.DEFAULT_THRESHOLD) return Engine.PARALLEL;
+        return Engine.DIVIDE_AND_CONQUER;
+    }
+}
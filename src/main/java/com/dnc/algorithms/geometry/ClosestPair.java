@@ -1,16 +1,32 @@
 package com.dnc.algorithms.geometry;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-
-import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.util.ScratchArena;
 
+/**
+ * Closest distance over {@link Point} objects. The coordinates are copied
+ * into arrays borrowed from a {@link ScratchArena} and handed to
+ * {@link PrimitiveClosestPair}, which draws its own scratch from the same
+ * arena, so repeated calls do not allocate per level or per call. The result
+ * is the same distance the classic recursion over points computes, since the
+ * square root is monotonic and correctly rounded.
+ */
 public class ClosestPair {
-    private final MetricsTracker metrics;
+    private final Metrics metrics;
+    private final ScratchArena arena;
+    private final PrimitiveClosestPair engine;
+    
+    public ClosestPair(Metrics metrics) {
+        this(metrics, null);
+    }
     
-    public ClosestPair(MetricsTracker metrics) {
+    /**
+     * Draws all scratch from arena; null uses the calling thread's arena.
+     */
+    public ClosestPair(Metrics metrics, ScratchArena arena) {
         this.metrics = metrics;
+        this.arena = arena;
+        this.engine = new PrimitiveClosestPair(metrics, arena);
     }
     
     public static class Point {
@@ -26,82 +42,26 @@ public class ClosestPair {
         }
     }
     
+    /**
+     * Returns the smallest distance between two of the points, or
+     * {@link Double#MAX_VALUE} for fewer than two points.
+     */
     public double findClosestDistance(Point[] points) {
-        Point[] pointsByX = Arrays.copyOf(points, points.length);
-        Arrays.sort(pointsByX, (a, b) -> Double.compare(a.x, b.x));
-        
-        Point[] pointsByY = Arrays.copyOf(points, points.length);
-        Arrays.sort(pointsByY, (a, b) -> Double.compare(a.y, b.y));
-        
-        metrics.incrementAllocations(points.length * 2);
-        return findClosestDistance(pointsByX, pointsByY, 0, points.length - 1);
-    }
-    
-    private double findClosestDistance(Point[] pointsByX, Point[] pointsByY, int left, int right) {
-        metrics.enterRecursion();
-        
-        int n = right - left + 1;
-        if (n <= 3) {
-            metrics.exitRecursion();
-            return bruteForce(pointsByX, left, right);
-        }
-        
-        int mid = left + (right - left) / 2;
-        Point midPoint = pointsByX[mid];
-        
-        // Split pointsByY into left and right halves
-        Point[] leftPointsY = new Point[mid - left + 1];
-        Point[] rightPointsY = new Point[right - mid];
-        int leftIdx = 0, rightIdx = 0;
+        int n = points.length;
+        if (n < 2) return Double.MAX_VALUE;
         
-        for (Point p : pointsByY) {
-            if (p.x <= midPoint.x) {
-                leftPointsY[leftIdx++] = p;
-            } else {
-                rightPointsY[rightIdx++] = p;
-            }
+        ScratchArena scratch = ScratchArena.orLocal(arena);
+        double[] xs = scratch.borrowDoubles(n, metrics);
+        double[] ys = scratch.borrowDoubles(n, metrics);
+        for (int i = 0; i < n; i++) {
+            xs[i] = points[i].x;
+            ys[i] = points[i].y;
         }
-        
-        metrics.incrementAllocations(leftPointsY.length + rightPointsY.length);
-        
-        double leftMin = findClosestDistance(pointsByX, leftPointsY, left, mid);
-        double rightMin = findClosestDistance(pointsByX, rightPointsY, mid + 1, right);
-        double minDistance = Math.min(leftMin, rightMin);
-        
-        // Check strip
-        List<Point> strip = new ArrayList<>();
-        for (Point p : pointsByY) {
-            if (Math.abs(p.x - midPoint.x) < minDistance) {
-                strip.add(p);
-            }
-        }
-        
-        double stripMin = checkStrip(strip, minDistance);
-        minDistance = Math.min(minDistance, stripMin);
-        
-        metrics.exitRecursion();
-        return minDistance;
-    }
-    
-    private double bruteForce(Point[] points, int left, int right) {
-        double minDistance = Double.MAX_VALUE;
-        for (int i = left; i <= right; i++) {
-            for (int j = i + 1; j <= right; j++) {
-                double dist = points[i].distanceTo(points[j]);
-                minDistance = Math.min(minDistance, dist);
-            }
-        }
-        return minDistance;
-    }
-    
-    private double checkStrip(List<Point> strip, double minDistance) {
-        double min = minDistance;
-        for (int i = 0; i < strip.size(); i++) {
-            for (int j = i + 1; j < strip.size() && (strip.get(j).y - strip.get(i).y) < min; j++) {
-                double dist = strip.get(i).distanceTo(strip.get(j));
-                min = Math.min(min, dist);
-            }
+        try {
+            return engine.find(xs, ys, n).distance;
+        } finally {
+            scratch.release(xs);
+            scratch.release(ys);
         }
-        return min;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.dnc.algorithms.geometry;
+
+/**
+ * Common front for the closest pair engines. Every engine returns the same
+ * answer for the same input: the minimum distance and, among pairs at that
+ * distance, the one with the smallest (first, second) indices.
+ */
+public interface ClosestPairEngine {
+    PairResult find(double[] xs, double[] ys);
+
+    /**
+     * Convenience overload for callers holding {@link ClosestPair.Point} objects.
+     */
+    default PairResult find(ClosestPair.Point[] points) {
+        double[] xs = new double[points.length];
+        double[] ys = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            xs[i] = points[i].x;
+            ys[i] = points[i].y;
+        }
+        return find(xs, ys);
+    }
+}
@@ -0,0 +1,547 @@
+package com.dnc.algorithms.geometry;
+
+import java.util.Arrays;
+
+import com.dnc.algorithms.metrics.Metrics;
+
+/**
+ * Closest pair of a point set under insertions and deletions. Points live in
+ * a hash grid of square cells; every point remembers its nearest neighbour
+ * within one cell side s, and an indexed min-heap over those neighbour
+ * distances yields the closest pair in O(1). An update only touches the 3x3
+ * cells around the point, so it costs O(log n) for the heap plus the number
+ * of nearby points.
+ *
+ * <p>{@link #build(double[], double[])} seeds the structure with the divide
+ * and conquer engine and picks s from the seed distance and a sampled
+ * estimate of the typical neighbour spacing, so cells hold a few points even
+ * in dense clusters. The grid is rebuilt from scratch when no pair lies
+ * within s any more, and after as many updates as there are points, which
+ * keeps rebuilds at amortised O(log n) per update.
+ *
+ * <p>Ids are the indices of the seed points and the values returned by
+ * {@link #insert(double, double)}; the id of a removed point may be handed
+ * out again by a later insert. Ties are broken as in the static engines.
+ */
+public class DynamicClosestPair {
+    private static final int MIN_REBUILD_INTERVAL = 1024;
+    private static final int SPACING_SAMPLE = 1024;
+    // Widens the cells a little so rounding in the cell index cannot split a pair at exactly s
+    private static final double CELL_MARGIN = 1.0 + 0x1p-20;
+    private final Metrics metrics;
+    private final PrimitiveClosestPair seedEngine;
+    // Per id: coordinates, grid links, nearest neighbour within s and heap position
+    private double[] px = new double[0];
+    private double[] py = new double[0];
+    private int[] slotOf = new int[0];
+    private int[] next = new int[0];
+    private int[] prev = new int[0];
+    private int[] nn = new int[0];
+    private double[] nnD2 = new double[0];
+    private int[] heapPos = new int[0];
+    private boolean[] alive = new boolean[0];
+    private int[] free = new int[0];
+    private int freeCount;
+    private int idLimit;
+    private int size;
+    // Open-addressed cell table; a used slot keeps its cell even after the cell empties
+    private long[] cellX = new long[0];
+    private long[] cellY = new long[0];
+    private int[] head = new int[0];
+    private boolean[] used = new boolean[0];
+    private int usedCells;
+    private int mask;
+    private int[] heap = new int[0];
+    private int heapSize;
+    private double s;
+    private double scale;
+    // Answer of the seed engine at the last rebuild, in ids
+    private PairResult seedPair = new PairResult(Double.POSITIVE_INFINITY, -1, -1);
+    private long updatesSinceBuild;
+    private int rebuilds;
+
+    public DynamicClosestPair(Metrics metrics) {
+        this.metrics = metrics;
+        this.seedEngine = new PrimitiveClosestPair(metrics);
+        reindex(new double[0], new double[0], null);
+    }
+
+    /**
+     * Replaces the contents with the given points; point i gets id i.
+     */
+    public void build(double[] xs, double[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("xs and ys differ in length: " + xs.length + " vs " + ys.length);
+        }
+        int n = xs.length;
+        ensureIdCapacity(n);
+        System.arraycopy(xs, 0, px, 0, n);
+        System.arraycopy(ys, 0, py, 0, n);
+        Arrays.fill(alive, 0, n, true);
+        Arrays.fill(alive, n, alive.length, false);
+        idLimit = n;
+        size = n;
+        freeCount = 0;
+        reindex(xs, ys, null);
+    }
+
+    public int insert(double x, double y) {
+        int id;
+        if (freeCount > 0) {
+            id = free[--freeCount];
+        } else {
+            ensureIdCapacity(idLimit + 1);
+            id = idLimit++;
+        }
+        px[id] = x;
+        py[id] = y;
+        nn[id] = -1;
+        nnD2[id] = Double.POSITIVE_INFINITY;
+        heapPos[id] = -1;
+        link(id);
+        alive[id] = true;
+        size++;
+        attach(id);
+        afterUpdate();
+        return id;
+    }
+
+    public void remove(int id) {
+        if (id < 0 || id >= idLimit || !alive[id]) {
+            throw new IllegalArgumentException("no point with id " + id);
+        }
+        alive[id] = false;
+        size--;
+        unlink(id);
+        heapRemove(id);
+        nn[id] = -1;
+        free[freeCount++] = id;
+        detach(id);
+        afterUpdate();
+    }
+
+    /**
+     * Removes the given ids, then inserts the given points, and returns the
+     * ids of the inserted points. A batch touching at least a quarter of the
+     * set is applied by rebuilding once instead of point by point. The ids
+     * are all checked first, so a batch that fails changes nothing.
+     */
+    public int[] applyBatch(int[] removeIds, double[] insertXs, double[] insertYs) {
+        if (insertXs.length != insertYs.length) {
+            throw new IllegalArgumentException("insertXs and insertYs differ in length: "
+                + insertXs.length + " vs " + insertYs.length);
+        }
+        checkRemovable(removeIds);
+        int[] ids = new int[insertXs.length];
+        if (4L * (removeIds.length + insertXs.length) < size) {
+            for (int id : removeIds) remove(id);
+            for (int i = 0; i < ids.length; i++) ids[i] = insert(insertXs[i], insertYs[i]);
+            return ids;
+        }
+
+        // The grid and heap are rebuilt below, so only the ids need updating
+        for (int id : removeIds) {
+            alive[id] = false;
+            free[freeCount++] = id;
+        }
+        size -= removeIds.length;
+        for (int i = 0; i < ids.length; i++) {
+            int id;
+            if (freeCount > 0) {
+                id = free[--freeCount];
+            } else {
+                ensureIdCapacity(idLimit + 1);
+                id = idLimit++;
+            }
+            px[id] = insertXs[i];
+            py[id] = insertYs[i];
+            alive[id] = true;
+            size++;
+            ids[i] = id;
+        }
+        rebuild();
+        return ids;
+    }
+
+    /**
+     * Throws unless every id names a live point and none repeats; marks
+     * the ids dead while checking and leaves them as they were.
+     */
+    private void checkRemovable(int[] removeIds) {
+        for (int i = 0; i < removeIds.length; i++) {
+            int id = removeIds[i];
+            if (id < 0 || id >= idLimit || !alive[id]) {
+                while (--i >= 0) alive[removeIds[i]] = true;
+                throw new IllegalArgumentException("no point with id " + id);
+            }
+            alive[id] = false;
+        }
+        for (int id : removeIds) alive[id] = true;
+    }
+
+    /**
+     * Current closest pair, with ids in place of input indices.
+     */
+    public PairResult closestPair() {
+        if (size < 2) return new PairResult(Double.POSITIVE_INFINITY, -1, -1);
+        if (heapSize == 0) {
+            rebuild();
+            if (heapSize == 0) return seedPair;
+        }
+        int top = heap[0];
+        return new PairResult(Math.sqrt(nnD2[top]), Math.min(top, nn[top]), Math.max(top, nn[top]));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getCellSize() {
+        return s;
+    }
+
+    public int getRebuildCount() {
+        return rebuilds;
+    }
+
+    private void afterUpdate() {
+        if (++updatesSinceBuild > Math.max(size, MIN_REBUILD_INTERVAL)) rebuild();
+    }
+
+    private void rebuild() {
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        int[] ids = new int[size];
+        int m = 0;
+        for (int id = 0; id < idLimit; id++) {
+            if (alive[id]) {
+                xs[m] = px[id];
+                ys[m] = py[id];
+                ids[m++] = id;
+            }
+        }
+        metrics.incrementAllocations(3L * size);
+        rebuilds++;
+        reindex(xs, ys, ids);
+    }
+
+    /**
+     * Chooses the cell size for the live points (whose coordinates are also
+     * passed compactly in xs, ys, with point i having id ids[i], or id i when
+     * ids is null) and rebuilds the grid and the heap.
+     */
+    private void reindex(double[] xs, double[] ys, int[] ids) {
+        PairResult seed = seedEngine.find(xs, ys);
+        seedPair = ids == null || seed.first < 0 ? seed
+            : new PairResult(seed.distance, ids[seed.first], ids[seed.second]);
+        double delta = seed.distance;
+        // Squaring the rounded root can land just below the pair's own d2, so keep s strictly above it
+        s = Math.max(delta > 0 ? Math.nextUp(delta) * CELL_MARGIN : delta, 2 * typicalSpacing(xs, ys));
+        if (!(s > 0)) {
+            // Only duplicates so far: fall back to the spacing of a uniform spread
+            double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < xs.length; i++) {
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+            s = Math.max(maxX - minX, maxY - minY) / Math.sqrt(xs.length);
+        }
+        if (!(s > 0 && s < Double.POSITIVE_INFINITY)) s = 1.0;
+        scale = 1.0 / (s * CELL_MARGIN);
+        updatesSinceBuild = 0;
+
+        clearTable(tableSizeFor(size));
+        for (int id = 0; id < idLimit; id++) {
+            nn[id] = -1;
+            heapPos[id] = -1;
+            if (alive[id]) place(id);
+        }
+
+        heapSize = 0;
+        for (int id = 0; id < idLimit; id++) {
+            if (alive[id]) {
+                nearest(id);
+                if (nn[id] >= 0) {
+                    heapPos[id] = heapSize;
+                    heap[heapSize++] = id;
+                }
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) siftDown(i);
+    }
+
+    /**
+     * Median nearest neighbour distance of an evenly spaced sample, scaled by
+     * sqrt(sample / n) to the full set. Density is local, so this tracks the
+     * spacing inside clusters rather than over the bounding box.
+     */
+    private double typicalSpacing(double[] xs, double[] ys) {
+        int n = xs.length;
+        int m = Math.min(n, SPACING_SAMPLE);
+        if (m < 2) return 0;
+        int stride = n / m;
+        double[] nearest = new double[m];
+        for (int a = 0; a < m; a++) {
+            double best = Double.POSITIVE_INFINITY;
+            double x = xs[a * stride], y = ys[a * stride];
+            for (int b = 0; b < m; b++) {
+                if (a == b) continue;
+                double dx = xs[b * stride] - x, dy = ys[b * stride] - y;
+                best = Math.min(best, dx * dx + dy * dy);
+            }
+            nearest[a] = best;
+        }
+        Arrays.sort(nearest);
+        return Math.sqrt(nearest[m / 2]) * Math.sqrt((double) m / n);
+    }
+
+    /**
+     * Gives a new point its nearest neighbour and offers it as a closer
+     * neighbour to every point within s.
+     */
+    private void attach(int id) {
+        double limit = s * s;
+        long cx = cellOf(px[id]), cy = cellOf(py[id]);
+        for (long x = cx - 1; x <= cx + 1; x++) {
+            for (long y = cy - 1; y <= cy + 1; y++) {
+                int slot = find(x, y);
+                if (slot < 0) continue;
+                for (int q = head[slot]; q >= 0; q = next[q]) {
+                    if (q == id) continue;
+                    double d2 = distance2(id, q);
+                    if (d2 > limit) continue;
+                    if (closer(d2, id, q, nnD2[id], id, nn[id])) {
+                        nnD2[id] = d2;
+                        nn[id] = q;
+                    }
+                    if (closer(d2, q, id, nnD2[q], q, nn[q])) {
+                        nnD2[q] = d2;
+                        nn[q] = id;
+                        heapUpdate(q);
+                    }
+                }
+            }
+        }
+        if (nn[id] >= 0) heapUpdate(id);
+    }
+
+    /**
+     * Finds new neighbours for the points around a removed point that had it
+     * as their nearest neighbour.
+     */
+    private void detach(int id) {
+        long cx = cellOf(px[id]), cy = cellOf(py[id]);
+        for (long x = cx - 1; x <= cx + 1; x++) {
+            for (long y = cy - 1; y <= cy + 1; y++) {
+                int slot = find(x, y);
+                if (slot < 0) continue;
+                for (int q = head[slot]; q >= 0; q = next[q]) {
+                    if (nn[q] != id) continue;
+                    nearest(q);
+                    if (nn[q] >= 0) {
+                        heapUpdate(q);
+                    } else {
+                        heapRemove(q);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes nn[id] from the 3x3 cells around it.
+     */
+    private void nearest(int id) {
+        double limit = s * s;
+        nn[id] = -1;
+        nnD2[id] = Double.POSITIVE_INFINITY;
+        long cx = cellOf(px[id]), cy = cellOf(py[id]);
+        for (long x = cx - 1; x <= cx + 1; x++) {
+            for (long y = cy - 1; y <= cy + 1; y++) {
+                int slot = find(x, y);
+                if (slot < 0) continue;
+                for (int q = head[slot]; q >= 0; q = next[q]) {
+                    if (q == id) continue;
+                    double d2 = distance2(id, q);
+                    if (d2 <= limit && closer(d2, id, q, nnD2[id], id, nn[id])) {
+                        nnD2[id] = d2;
+                        nn[id] = q;
+                    }
+                }
+            }
+        }
+    }
+
+    private double distance2(int a, int b) {
+        double dx = px[a] - px[b];
+        double dy = py[a] - py[b];
+        metrics.incrementComparisons();
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Orders pairs by distance, then by (smaller id, larger id), so the heap
+     * top is the pair the static engines would report. A missing pair (b2 < 0)
+     * loses to everything.
+     */
+    private static boolean closer(double d1, int a1, int b1, double d2, int a2, int b2) {
+        if (b2 < 0) return true;
+        if (d1 != d2) return d1 < d2;
+        int first1 = Math.min(a1, b1), first2 = Math.min(a2, b2);
+        if (first1 != first2) return first1 < first2;
+        return Math.max(a1, b1) < Math.max(a2, b2);
+    }
+
+    private boolean heapLess(int i, int j) {
+        int a = heap[i], b = heap[j];
+        return closer(nnD2[a], a, nn[a], nnD2[b], b, nn[b]);
+    }
+
+    private void heapUpdate(int id) {
+        int i = heapPos[id];
+        if (i < 0) {
+            i = heapSize++;
+            heap[i] = id;
+            heapPos[id] = i;
+        }
+        siftUp(i);
+        siftDown(heapPos[id]);
+    }
+
+    private void heapRemove(int id) {
+        int i = heapPos[id];
+        if (i < 0) return;
+        heapPos[id] = -1;
+        int last = heap[--heapSize];
+        if (i == heapSize) return;
+        heap[i] = last;
+        heapPos[last] = i;
+        siftUp(i);
+        siftDown(heapPos[last]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!heapLess(i, parent)) break;
+            swapHeap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapLess(child + 1, child)) child++;
+            if (!heapLess(child, i)) break;
+            swapHeap(i, child);
+            i = child;
+        }
+    }
+
+    private void swapHeap(int i, int j) {
+        int a = heap[i], b = heap[j];
+        heap[i] = b;
+        heap[j] = a;
+        heapPos[b] = i;
+        heapPos[a] = j;
+    }
+
+    private long cellOf(double v) {
+        return (long) Math.floor(v * scale);
+    }
+
+    /**
+     * Adds a point that is not yet marked alive to its cell. Cells emptied by
+     * removals stay in the table, so when it fills up it is cleared (and grown
+     * if needed) and the live points are relinked.
+     */
+    private void link(int id) {
+        if (2 * (usedCells + 1) > head.length) {
+            clearTable(Math.max(head.length, tableSizeFor(size + 1)));
+            for (int q = 0; q < idLimit; q++) {
+                if (alive[q]) place(q);
+            }
+        }
+        place(id);
+    }
+
+    private void place(int id) {
+        long cx = cellOf(px[id]), cy = cellOf(py[id]);
+        int slot = slot(cx, cy);
+        if (!used[slot]) {
+            used[slot] = true;
+            cellX[slot] = cx;
+            cellY[slot] = cy;
+            head[slot] = -1;
+            usedCells++;
+        }
+        slotOf[id] = slot;
+        prev[id] = -1;
+        next[id] = head[slot];
+        if (head[slot] >= 0) prev[head[slot]] = id;
+        head[slot] = id;
+    }
+
+    private void unlink(int id) {
+        if (prev[id] >= 0) {
+            next[prev[id]] = next[id];
+        } else {
+            head[slotOf[id]] = next[id];
+        }
+        if (next[id] >= 0) prev[next[id]] = prev[id];
+    }
+
+    private static int tableSizeFor(int points) {
+        return Integer.highestOneBit(Math.max(16, 4 * points) - 1) << 1;
+    }
+
+    private void clearTable(int tableSize) {
+        if (head.length != tableSize) {
+            cellX = new long[tableSize];
+            cellY = new long[tableSize];
+            head = new int[tableSize];
+            used = new boolean[tableSize];
+            metrics.incrementAllocations(3L * tableSize);
+        } else {
+            Arrays.fill(used, false);
+        }
+        mask = tableSize - 1;
+        usedCells = 0;
+    }
+
+    private int slot(long cx, long cy) {
+        long h = cx * 0x9E3779B97F4A7C15L + cy * 0xC2B2AE3D27D4EB4FL;
+        int s = (int) (h ^ (h >>> 32)) & mask;
+        while (used[s] && (cellX[s] != cx || cellY[s] != cy)) {
+            s = (s + 1) & mask;
+        }
+        return s;
+    }
+
+    private int find(long cx, long cy) {
+        int s = slot(cx, cy);
+        return used[s] ? s : -1;
+    }
+
+    private void ensureIdCapacity(int n) {
+        if (px.length >= n) return;
+        int capacity = Math.max(n, px.length + (px.length >> 1));
+        px = Arrays.copyOf(px, capacity);
+        py = Arrays.copyOf(py, capacity);
+        slotOf = Arrays.copyOf(slotOf, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        nn = Arrays.copyOf(nn, capacity);
+        nnD2 = Arrays.copyOf(nnD2, capacity);
+        heapPos = Arrays.copyOf(heapPos, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        free = Arrays.copyOf(free, capacity);
+        heap = Arrays.copyOf(heap, capacity);
+        metrics.incrementAllocations(11L * capacity);
+    }
+}
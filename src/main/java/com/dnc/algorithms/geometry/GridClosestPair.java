@@ -0,0 +1,262 @@
+package com.dnc.algorithms.geometry;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.profiling.InvocationEvent;
+import com.dnc.algorithms.profiling.Profiling;
+
+/**
+ * Randomized grid closest pair after Rabin: the closest pair of a random
+ * sample of n^(2/3) points gives an upper bound delta on the answer, the
+ * points are hashed into square cells of side delta, and only pairs in the
+ * same or adjacent cells are compared. Expected time is O(n) for any input.
+ *
+ * <p>Points are bucketed by cell with a counting sort into contiguous
+ * structure-of-arrays ranges, so the pair scan walks memory in order. Every
+ * pair within delta is examined, so the answer and its tie-break match
+ * {@link PrimitiveClosestPair}. Inputs the grid cannot represent safely (a
+ * zero sample distance, or a spread of more than 2^26 cells per axis) and
+ * runs that exceed the work budget fall back to the divide and conquer
+ * engine; each fallback is recorded as a {@code GRID_FALLBACK} dispatch.
+ */
+public class GridClosestPair implements ClosestPairEngine {
+    private static final int SMALL_INPUT = 64;
+    private static final double MAX_CELLS_PER_AXIS = 1 << 26;
+    // Widens the cells a little so rounding in the cell index cannot split a pair at exactly delta
+    private static final double CELL_MARGIN = 1.0 + 0x1p-20;
+    private static final int WORK_FACTOR = 64;
+    private final Metrics metrics;
+    private final Random random;
+    private final PrimitiveClosestPair fallback;
+    // Open-addressed cell table: coordinates, point counts and bucket starts per slot
+    private long[] cellX = new long[0];
+    private long[] cellY = new long[0];
+    private int[] cellCount = new int[0];
+    private int[] cellStart = new int[0];
+    // Per-point slot, then the points regrouped by cell
+    private int[] slotOf = new int[0];
+    private double[] gx = new double[0];
+    private double[] gy = new double[0];
+    private int[] gid = new int[0];
+    private double[] sx = new double[0];
+    private double[] sy = new double[0];
+    private int mask;
+    private double bestD2;
+    private int bestFirst;
+    private int bestSecond;
+
+    public GridClosestPair(Metrics metrics) {
+        this(metrics, new Random());
+    }
+
+    public GridClosestPair(Metrics metrics, Random random) {
+        this.metrics = metrics;
+        this.random = random;
+        this.fallback = new PrimitiveClosestPair(metrics);
+    }
+
+    @Override
+    public PairResult find(double[] xs, double[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("xs and ys differ in length: " + xs.length + " vs " + ys.length);
+        }
+        InvocationEvent event = Profiling.invocation();
+        PairResult result = search(xs, ys, xs.length);
+        if (event != null) event.record("GridClosestPair", "find", xs.length);
+        return result;
+    }
+
+    private PairResult search(double[] xs, double[] ys, int n) {
+        if (n <= SMALL_INPUT) return fallback.find(xs, ys);
+
+        ensureCapacity(n);
+        double delta = sampleDistance(xs, ys, n);
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        double cell = delta * CELL_MARGIN;
+        // Written so that NaN spreads and a zero delta both fail the check
+        if (!(delta > 0 && (maxX - minX) / cell < MAX_CELLS_PER_AXIS && (maxY - minY) / cell < MAX_CELLS_PER_AXIS)) {
+            return fallBack(xs, ys, n);
+        }
+
+        bucket(xs, ys, n, minX, minY, 1.0 / cell);
+        bestD2 = delta * delta;
+        bestFirst = -1;
+        bestSecond = -1;
+        if (!scan((long) WORK_FACTOR * n) || bestFirst < 0) {
+            return fallBack(xs, ys, n);
+        }
+        return new PairResult(Math.sqrt(bestD2), bestFirst, bestSecond);
+    }
+
+    private PairResult fallBack(double[] xs, double[] ys, int n) {
+        metrics.recordDispatch("GRID_FALLBACK", n);
+        return fallback.find(xs, ys);
+    }
+
+    /**
+     * Closest pair distance of a uniform sample of about n^(2/3) distinct points,
+     * drawn with a partial Fisher-Yates shuffle over the slot array.
+     */
+    private double sampleDistance(double[] xs, double[] ys, int n) {
+        int m = Math.max(2, (int) Math.ceil(Math.pow(n, 2.0 / 3.0)));
+        int[] order = slotOf;
+        for (int i = 0; i < n; i++) order[i] = i;
+        for (int i = 0; i < m; i++) {
+            int j = i + random.nextInt(n - i);
+            int chosen = order[j];
+            order[j] = order[i];
+            order[i] = chosen;
+            sx[i] = xs[chosen];
+            sy[i] = ys[chosen];
+        }
+        return fallback.find(Arrays.copyOf(sx, m), Arrays.copyOf(sy, m)).distance;
+    }
+
+    /**
+     * Assigns each point a cell slot, then counting-sorts the points into
+     * gx/gy/gid so every cell is the contiguous range cellStart[s]..+cellCount[s].
+     * Indices within a cell stay ascending.
+     */
+    private void bucket(double[] xs, double[] ys, int n, double minX, double minY, double scale) {
+        int tableSize = Integer.highestOneBit(2 * n - 1) << 1;
+        mask = tableSize - 1;
+        Arrays.fill(cellCount, 0, tableSize, 0);
+
+        for (int i = 0; i < n; i++) {
+            long cx = (long) ((xs[i] - minX) * scale);
+            long cy = (long) ((ys[i] - minY) * scale);
+            int slot = slot(cx, cy);
+            if (cellCount[slot] == 0) {
+                cellX[slot] = cx;
+                cellY[slot] = cy;
+            }
+            cellCount[slot]++;
+            slotOf[i] = slot;
+        }
+
+        int offset = 0;
+        for (int s = 0; s < tableSize; s++) {
+            cellStart[s] = offset;
+            offset += cellCount[s];
+        }
+        for (int i = 0; i < n; i++) {
+            int at = cellStart[slotOf[i]]++;
+            gx[at] = xs[i];
+            gy[at] = ys[i];
+            gid[at] = i;
+        }
+        // Scattering advanced each start to its cell's end; step back to the beginning
+        for (int s = 0; s < tableSize; s++) {
+            cellStart[s] -= cellCount[s];
+        }
+    }
+
+    /**
+     * Compares every pair within a cell and between each cell and its four
+     * forward neighbours, so each adjacent cell pair is visited once. Returns
+     * false if more than budget pairs would be compared.
+     */
+    private boolean scan(long budget) {
+        long work = 0;
+        for (int s = 0; s <= mask; s++) {
+            int count = cellCount[s];
+            if (count == 0) continue;
+            int from = cellStart[s], to = from + count;
+            long cx = cellX[s], cy = cellY[s];
+
+            work += (long) count * (count - 1) / 2;
+            if (work > budget) return false;
+            for (int a = from; a < to; a++) {
+                for (int b = a + 1; b < to; b++) {
+                    compare(a, b);
+                }
+            }
+
+            work += compareCells(from, to, cx + 1, cy);
+            work += compareCells(from, to, cx - 1, cy + 1);
+            work += compareCells(from, to, cx, cy + 1);
+            work += compareCells(from, to, cx + 1, cy + 1);
+            if (work > budget) return false;
+        }
+        return true;
+    }
+
+    private long compareCells(int from, int to, long cx, long cy) {
+        int s = find(cx, cy);
+        if (s < 0) return 0;
+        int otherFrom = cellStart[s], otherTo = otherFrom + cellCount[s];
+        for (int a = from; a < to; a++) {
+            for (int b = otherFrom; b < otherTo; b++) {
+                compare(a, b);
+            }
+        }
+        return (long) (to - from) * (otherTo - otherFrom);
+    }
+
+    private void compare(int a, int b) {
+        double dx = gx[a] - gx[b];
+        double dy = gy[a] - gy[b];
+        double d2 = dx * dx + dy * dy;
+        metrics.incrementComparisons();
+        if (d2 > bestD2) return;
+
+        int first = Math.min(gid[a], gid[b]), second = Math.max(gid[a], gid[b]);
+        if (d2 < bestD2 || bestFirst < 0 || first < bestFirst
+                || (first == bestFirst && second < bestSecond)) {
+            bestD2 = d2;
+            bestFirst = first;
+            bestSecond = second;
+        }
+    }
+
+    /**
+     * Slot holding cell (cx, cy), or the empty slot where it belongs.
+     */
+    private int slot(long cx, long cy) {
+        int s = hash(cx, cy);
+        while (cellCount[s] != 0 && (cellX[s] != cx || cellY[s] != cy)) {
+            s = (s + 1) & mask;
+        }
+        return s;
+    }
+
+    private int find(long cx, long cy) {
+        int s = slot(cx, cy);
+        return cellCount[s] == 0 ? -1 : s;
+    }
+
+    private int hash(long cx, long cy) {
+        long h = cx * 0x9E3779B97F4A7C15L + cy * 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void ensureCapacity(int n) {
+        int tableSize = Integer.highestOneBit(2 * n - 1) << 1;
+        if (cellCount.length < tableSize) {
+            cellX = new long[tableSize];
+            cellY = new long[tableSize];
+            cellCount = new int[tableSize];
+            cellStart = new int[tableSize];
+            metrics.incrementAllocations(4L * tableSize);
+        }
+        if (gx.length < n) {
+            int capacity = Math.max(n, gx.length + (gx.length >> 1));
+            slotOf = new int[capacity];
+            gx = new double[capacity];
+            gy = new double[capacity];
+            gid = new int[capacity];
+            sx = new double[capacity];
+            sy = new double[capacity];
+            metrics.incrementAllocations(6L * capacity);
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.dnc.algorithms.geometry;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.simd.Kernels;
+
+/**
+ * Static 2-d tree for k-nearest-neighbour, all-nearest-neighbours and
+ * k-closest-pairs queries. It is built with the presort scheme of the
+ * classic closest-pair recursion: the points are sorted by x and by y once,
+ * and each level splits both orders stably around the median
+ * of the current axis, so no level sorts again. Construction is O(n log n).
+ *
+ * <p>The tree is implicit: points sit in tree order in structure-of-arrays
+ * form, node [lo, hi) splits at mid = (lo + hi) / 2 on x at even depths and
+ * y at odd ones, and the split coordinate is kept at position mid. Batches
+ * of queries run in parallel chunks on a ForkJoinPool. Neighbours at equal
+ * distance are ranked by index, so results do not depend on the schedule.
+ */
+public class KdTree {
+    private static final int LEAF_SIZE = 8;
+    private static final int QUERY_CHUNK = 1024;
+    private static final int INITIAL_PAIR_ROW = 8;
+    // Leaf distances come from the distance kernel, which matches the scalar arithmetic exactly
+    private static final Kernels KERNELS = Kernels.best();
+    private final Metrics metrics;
+    private final ForkJoinPool pool;
+    // Points in tree order, their input indices, and the split coordinate of the node with that mid
+    private double[] tx = new double[0];
+    private double[] ty = new double[0];
+    private int[] tid = new int[0];
+    private double[] split = new double[0];
+    // Tree position of each input index
+    private int[] position = new int[0];
+    private int n;
+
+    public KdTree(Metrics metrics) {
+        this(metrics, ForkJoinPool.commonPool());
+    }
+
+    public KdTree(Metrics metrics, ForkJoinPool pool) {
+        this.metrics = metrics;
+        this.pool = pool;
+    }
+
+    public void build(ClosestPair.Point[] points) {
+        double[] xs = new double[points.length];
+        double[] ys = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            xs[i] = points[i].x;
+            ys[i] = points[i].y;
+        }
+        build(xs, ys);
+    }
+
+    public void build(double[] xs, double[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("xs and ys differ in length: " + xs.length + " vs " + ys.length);
+        }
+        n = xs.length;
+        int[] byX = new int[n];
+        int[] byY = new int[n];
+        int[] scratch = new int[n];
+        boolean[] lower = new boolean[n];
+        tx = new double[n];
+        ty = new double[n];
+        tid = new int[n];
+        split = new double[n];
+        position = new int[n];
+        metrics.incrementAllocations(8L * n);
+
+        for (int i = 0; i < n; i++) {
+            byX[i] = i;
+            byY[i] = i;
+        }
+        sortIndices(byX, xs, scratch);
+        sortIndices(byY, ys, scratch);
+        build(xs, ys, byX, byY, scratch, lower, 0, n, 0);
+        for (int i = 0; i < n; i++) position[tid[i]] = i;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Splits [lo, hi) around the median of the axis that primary is sorted by,
+     * carrying the other order along with a stable partition.
+     */
+    private void build(double[] xs, double[] ys, int[] primary, int[] secondary, int[] scratch,
+            boolean[] lower, int lo, int hi, int depth) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                int id = primary[i];
+                tx[i] = xs[id];
+                ty[i] = ys[id];
+                tid[i] = id;
+            }
+            return;
+        }
+        metrics.enterRecursion();
+
+        int mid = (lo + hi) >>> 1;
+        double[] axis = (depth & 1) == 0 ? xs : ys;
+        split[mid] = axis[primary[mid]];
+        for (int i = lo; i < hi; i++) lower[primary[i]] = i < mid;
+
+        int left = lo, right = mid;
+        for (int i = lo; i < hi; i++) {
+            int id = secondary[i];
+            if (lower[id]) {
+                scratch[left++] = id;
+            } else {
+                scratch[right++] = id;
+            }
+        }
+        System.arraycopy(scratch, lo, secondary, lo, hi - lo);
+
+        // Children split on the other axis, whose order is now secondary
+        build(xs, ys, secondary, primary, scratch, lower, lo, mid, depth + 1);
+        build(xs, ys, secondary, primary, scratch, lower, mid, hi, depth + 1);
+        metrics.exitRecursion();
+    }
+
+    /**
+     * The k nearest indexed points to each query point.
+     */
+    public KnnResult knn(double[] qx, double[] qy, int k) {
+        if (qx.length != qy.length) {
+            throw new IllegalArgumentException("qx and qy differ in length: " + qx.length + " vs " + qy.length);
+        }
+        return run(qx, qy, null, null, k);
+    }
+
+    /**
+     * The k nearest other points to every indexed point, by input index.
+     */
+    public KnnResult allNearestNeighbours(int k) {
+        // Querying in tree order keeps consecutive searches on the same paths
+        return neighboursOf(Arrays.copyOf(tid, n), k, true);
+    }
+
+    /**
+     * The k nearest other points to each of the given indexed points, in
+     * rows by input index if byIndex is set and in the given order otherwise.
+     */
+    private KnnResult neighboursOf(int[] points, int k, boolean byIndex) {
+        double[] qx = new double[points.length];
+        double[] qy = new double[points.length];
+        for (int q = 0; q < points.length; q++) {
+            int at = position[points[q]];
+            qx[q] = tx[at];
+            qy[q] = ty[at];
+        }
+        return run(qx, qy, points, byIndex ? points : null, k);
+    }
+
+    /**
+     * The k closest pairs of indexed points. If (a, b) with a < b is among
+     * them then b is among the nearest neighbours of a that rank before the
+     * k-th pair, so each point contributes the pairs from a short neighbour
+     * row and only points whose whole row still ranks before the current k-th
+     * pair are queried again, with twice the row length. A bounded heap keeps
+     * the best k candidates.
+     */
+    public PairList kClosestPairs(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative: " + k);
+        }
+        long maxPairs = (long) n * (n - 1) / 2;
+        int count = (int) Math.min(k, maxPairs);
+        int[] first = new int[count];
+        int[] second = new int[count];
+        double[] dist = new double[count];
+        if (count == 0) return new PairList(first, second, dist);
+
+        int[] points = Arrays.copyOf(tid, n);
+        int pending = n;
+        int seen = 0;
+        int rowK = Math.min(n - 1, Math.min(count, INITIAL_PAIR_ROW));
+        int size = 0;
+        while (pending > 0) {
+            KnnResult rows = neighboursOf(Arrays.copyOf(points, pending), rowK, false);
+            for (int q = 0; q < pending; q++) {
+                int a = points[q];
+                // Entries before seen were offered by the previous, shorter row
+                for (int r = seen; r < rowK; r++) {
+                    int b = rows.index(q, r);
+                    if (b < a) continue;
+                    double d = rows.distance(q, r);
+                    if (size < count) {
+                        first[size] = a;
+                        second[size] = b;
+                        dist[size] = d;
+                        siftUpPair(first, second, dist, size++);
+                    } else if (pairLess(d, a, b, dist[0], first[0], second[0])) {
+                        first[0] = a;
+                        second[0] = b;
+                        dist[0] = d;
+                        siftDownPair(first, second, dist, 0, size);
+                    }
+                }
+            }
+            if (rowK == n - 1) break;
+
+            // Keep the points whose last neighbour still ranks before the k-th pair
+            int kept = 0;
+            for (int q = 0; q < pending; q++) {
+                int a = points[q], b = rows.index(q, rowK - 1);
+                double d = rows.distance(q, rowK - 1);
+                if (size < count || pairLess(d, Math.min(a, b), Math.max(a, b), dist[0], first[0], second[0])) {
+                    points[kept++] = a;
+                }
+            }
+            pending = kept;
+            seen = rowK;
+            rowK = (int) Math.min(n - 1, 2L * rowK);
+        }
+
+        // Pop the max-heap from the back to leave the pairs in ascending order
+        for (int end = size - 1; end > 0; end--) {
+            swapPair(first, second, dist, 0, end);
+            siftDownPair(first, second, dist, 0, end);
+        }
+        return new PairList(first, second, dist);
+    }
+
+    private KnnResult run(double[] qx, double[] qy, int[] skip, int[] rowOf, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative: " + k);
+        }
+        int m = qx.length;
+        int cells;
+        try {
+            cells = Math.multiplyExact(m, k);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("too many neighbours to hold in one array: " + m + " queries x k=" + k);
+        }
+        int[] indices = new int[cells];
+        double[] distances = new double[cells];
+        metrics.incrementAllocations(2L * cells);
+        if (k == 0 || m == 0) return new KnnResult(k, indices, distances);
+
+        QueryTask task = new QueryTask(qx, qy, skip, rowOf, k, indices, distances, 0, m);
+        if (m <= QUERY_CHUNK) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        metrics.merge(task.local);
+        return new KnnResult(k, indices, distances);
+    }
+
+    private final class QueryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient double[] qx;
+        private final transient double[] qy;
+        private final transient int[] skip;
+        private final transient int[] rowOf;
+        private final int k;
+        private final transient int[] indices;
+        private final transient double[] distances;
+        private final int from;
+        private final int to;
+        private final transient Metrics local = metrics.fork();
+
+        QueryTask(double[] qx, double[] qy, int[] skip, int[] rowOf, int k, int[] indices, double[] distances, int from, int to) {
+            this.qx = qx;
+            this.qy = qy;
+            this.skip = skip;
+            this.rowOf = rowOf;
+            this.k = k;
+            this.indices = indices;
+            this.distances = distances;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > QUERY_CHUNK) {
+                int mid = (from + to) >>> 1;
+                QueryTask lower = new QueryTask(qx, qy, skip, rowOf, k, indices, distances, from, mid);
+                QueryTask upper = new QueryTask(qx, qy, skip, rowOf, k, indices, distances, mid, to);
+                invokeAll(lower, upper);
+                local.merge(lower.local);
+                local.merge(upper.local);
+                return;
+            }
+
+            Search search = new Search(k, local);
+            for (int q = from; q < to; q++) {
+                search.run(qx[q], qy[q], skip == null ? -1 : skip[q]);
+                search.drain(indices, distances, (rowOf == null ? q : rowOf[q]) * k);
+            }
+        }
+    }
+
+    /**
+     * One thread's search state: a bounded max-heap of the best k so far,
+     * ordered by squared distance and then by index.
+     */
+    private final class Search {
+        private final int k;
+        private final Metrics local;
+        private final double[] heapD2;
+        private final int[] heapId;
+        private final double[] leafD2 = new double[LEAF_SIZE];
+        private int size;
+        private double x;
+        private double y;
+        private int skip;
+
+        Search(int k, Metrics local) {
+            this.k = k;
+            this.local = local;
+            this.heapD2 = new double[k];
+            this.heapId = new int[k];
+        }
+
+        void run(double x, double y, int skip) {
+            this.x = x;
+            this.y = y;
+            this.skip = skip;
+            size = 0;
+            visit(0, n, 0);
+        }
+
+        private void visit(int lo, int hi, int depth) {
+            if (hi - lo <= LEAF_SIZE) {
+                KERNELS.squaredDistances(tx, ty, lo, hi, x, y, leafD2, 0);
+                local.incrementComparisons(hi - lo);
+                for (int i = lo; i < hi; i++) {
+                    if (tid[i] != skip) offer(leafD2[i - lo], tid[i]);
+                }
+                return;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            double diff = ((depth & 1) == 0 ? x : y) - split[mid];
+            // Points equal to the split value can sit on either side, so ties visit both
+            if (diff < 0) {
+                visit(lo, mid, depth + 1);
+                if (size < k || diff * diff <= heapD2[0]) visit(mid, hi, depth + 1);
+            } else {
+                visit(mid, hi, depth + 1);
+                if (size < k || diff * diff <= heapD2[0]) visit(lo, mid, depth + 1);
+            }
+        }
+
+        private void offer(double d2, int id) {
+            if (size < k) {
+                heapD2[size] = d2;
+                heapId[size] = id;
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!worse(i, parent)) break;
+                    swap(i, parent);
+                    i = parent;
+                }
+            } else if (d2 < heapD2[0] || (d2 == heapD2[0] && id < heapId[0])) {
+                heapD2[0] = d2;
+                heapId[0] = id;
+                siftDown(0, size);
+            }
+        }
+
+        /**
+         * Empties the heap into a result row, nearest first, padding short rows.
+         */
+        void drain(int[] indices, double[] distances, int offset) {
+            for (int i = size; i < k; i++) {
+                indices[offset + i] = -1;
+                distances[offset + i] = Double.POSITIVE_INFINITY;
+            }
+            for (int end = size - 1; end >= 0; end--) {
+                indices[offset + end] = heapId[0];
+                distances[offset + end] = Math.sqrt(heapD2[0]);
+                swap(0, end);
+                siftDown(0, end);
+            }
+        }
+
+        private void siftDown(int i, int limit) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= limit) break;
+                if (child + 1 < limit && worse(child + 1, child)) child++;
+                if (!worse(child, i)) break;
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private boolean worse(int i, int j) {
+            return heapD2[i] > heapD2[j] || (heapD2[i] == heapD2[j] && heapId[i] > heapId[j]);
+        }
+
+        private void swap(int i, int j) {
+            double d = heapD2[i];
+            heapD2[i] = heapD2[j];
+            heapD2[j] = d;
+            int id = heapId[i];
+            heapId[i] = heapId[j];
+            heapId[j] = id;
+        }
+    }
+
+    /**
+     * Pair order for kClosestPairs: true if the first pair ranks before the second.
+     */
+    private static boolean pairLess(double d1, int first1, int second1, double d2, int first2, int second2) {
+        if (d1 != d2) return d1 < d2;
+        if (first1 != first2) return first1 < first2;
+        return second1 < second2;
+    }
+
+    private static void siftUpPair(int[] first, int[] second, double[] d, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!pairLess(d[parent], first[parent], second[parent], d[i], first[i], second[i])) break;
+            swapPair(first, second, d, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDownPair(int[] first, int[] second, double[] d, int i, int limit) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= limit) break;
+            if (child + 1 < limit && pairLess(d[child], first[child], second[child],
+                    d[child + 1], first[child + 1], second[child + 1])) {
+                child++;
+            }
+            if (!pairLess(d[i], first[i], second[i], d[child], first[child], second[child])) break;
+            swapPair(first, second, d, i, child);
+            i = child;
+        }
+    }
+
+    private static void swapPair(int[] first, int[] second, double[] d, int i, int j) {
+        int f = first[i];
+        first[i] = first[j];
+        first[j] = f;
+        int s = second[i];
+        second[i] = second[j];
+        second[j] = s;
+        double t = d[i];
+        d[i] = d[j];
+        d[j] = t;
+    }
+
+    /**
+     * Stable bottom-up merge sort of indices by key, so equal keys keep
+     * ascending index order.
+     */
+    private void sortIndices(int[] idx, double[] key, int[] scratch) {
+        int len = idx.length;
+        int[] src = idx, dst = scratch;
+        for (int width = 1; width < len; width <<= 1) {
+            for (int lo = 0; lo < len; lo += width << 1) {
+                int mid = Math.min(lo + width, len), hi = Math.min(lo + (width << 1), len);
+                int i = lo, j = mid, out = lo;
+                while (i < mid && j < hi) {
+                    metrics.incrementComparisons();
+                    dst[out++] = key[src[j]] < key[src[i]] ? src[j++] : src[i++];
+                }
+                while (i < mid) dst[out++] = src[i++];
+                while (j < hi) dst[out++] = src[j++];
+            }
+            int[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != idx) System.arraycopy(src, 0, idx, 0, len);
+    }
+}
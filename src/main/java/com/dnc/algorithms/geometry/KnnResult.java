@@ -0,0 +1,31 @@
+package com.dnc.algorithms.geometry;
+
+/**
+ * Answers to a batch of k-nearest-neighbour queries, row-major: the
+ * neighbours of query q are {@code indices[q * k .. q * k + k)}, nearest first,
+ * with their distances at the same positions. Rows with fewer than k
+ * neighbours are padded with index -1 and an infinite distance.
+ */
+public final class KnnResult {
+    public final int k;
+    public final int[] indices;
+    public final double[] distances;
+
+    public KnnResult(int k, int[] indices, double[] distances) {
+        this.k = k;
+        this.indices = indices;
+        this.distances = distances;
+    }
+
+    public int queries() {
+        return k == 0 ? 0 : indices.length / k;
+    }
+
+    public int index(int query, int rank) {
+        return indices[query * k + rank];
+    }
+
+    public double distance(int query, int rank) {
+        return distances[query * k + rank];
+    }
+}
@@ -0,0 +1,26 @@
+package com.dnc.algorithms.geometry;
+
+/**
+ * A ranked list of point pairs as parallel arrays: pair i joins points
+ * {@code first[i] < second[i]} at {@code distances[i]}, ordered by distance
+ * and then by (first, second) as in {@link PairResult}.
+ */
+public final class PairList {
+    public final int[] first;
+    public final int[] second;
+    public final double[] distances;
+
+    public PairList(int[] first, int[] second, double[] distances) {
+        this.first = first;
+        this.second = second;
+        this.distances = distances;
+    }
+
+    public int size() {
+        return first.length;
+    }
+
+    public PairResult get(int i) {
+        return new PairResult(distances[i], first[i], second[i]);
+    }
+}
@@ -0,0 +1,36 @@
+package com.dnc.algorithms.geometry;
+
+/**
+ * Closest pair answer: the distance and the indices of the two points in the
+ * caller's input arrays, with first < second. Inputs with fewer than two
+ * points give an infinite distance and indices of -1.
+ */
+public final class PairResult {
+    public final double distance;
+    public final int first;
+    public final int second;
+
+    public PairResult(double distance, int first, int second) {
+        this.distance = distance;
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PairResult)) return false;
+        PairResult other = (PairResult) o;
+        return Double.compare(distance, other.distance) == 0 && first == other.first && second == other.second;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Double.hashCode(distance) + first) + second;
+    }
+
+    @Override
+    public String toString() {
+        return "PairResult[distance=" + distance + ", first=" + first + ", second=" + second + "]";
+    }
+}
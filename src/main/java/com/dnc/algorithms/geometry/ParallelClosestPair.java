@@ -0,0 +1,194 @@
+package com.dnc.algorithms.geometry;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.profiling.InvocationEvent;
+import com.dnc.algorithms.profiling.Profiling;
+import com.dnc.algorithms.profiling.StripEvent;
+
+/**
+ * Fork/join mode of {@link PrimitiveClosestPair}. The x presort and the two
+ * recursive halves run as parallel tasks down to a size threshold, and strips
+ * of the top levels are checked in parallel chunks. Workers prune against a
+ * shared best distance but keep their own best pair, and the pairs are
+ * combined with the sequential engine's tie-break. Because strip bounds are
+ * inclusive, every pair at the minimum distance is examined in both modes,
+ * so the result is bit-identical to the sequential engine.
+ */
+public class ParallelClosestPair implements ClosestPairEngine {
+    public static final int DEFAULT_THRESHOLD = 1 << 15;
+    private static final int STRIP_CHUNK = 4096;
+    private final Metrics metrics;
+    private final int threshold;
+    private final ForkJoinPool pool;
+    private final PrimitiveClosestPair engine;
+
+    public ParallelClosestPair(Metrics metrics) {
+        this(metrics, DEFAULT_THRESHOLD);
+    }
+
+    public ParallelClosestPair(Metrics metrics, int threshold) {
+        this(metrics, threshold, ForkJoinPool.commonPool());
+    }
+
+    public ParallelClosestPair(Metrics metrics, int threshold, ForkJoinPool pool) {
+        if (threshold < 4) {
+            throw new IllegalArgumentException("threshold must be at least 4: " + threshold);
+        }
+        this.metrics = metrics;
+        this.threshold = threshold;
+        this.pool = pool;
+        this.engine = new PrimitiveClosestPair(metrics);
+    }
+
+    @Override
+    public PairResult find(double[] xs, double[] ys) {
+        if (xs.length <= threshold) {
+            return engine.find(xs, ys);
+        }
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("xs and ys differ in length: " + xs.length + " vs " + ys.length);
+        }
+
+        InvocationEvent event = Profiling.invocation();
+        int n = xs.length;
+        engine.resetBest();
+        engine.load(xs, ys, n);
+        AtomicLong sharedBest = new AtomicLong(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+        try {
+            PresortTask presort = new PresortTask(0, n, sharedBest);
+            pool.invoke(presort);
+            metrics.merge(presort.local);
+            if (!engine.findDuplicates(n)) {
+                SolveTask root = new SolveTask(0, n, 0, sharedBest);
+                pool.invoke(root);
+                metrics.merge(root.local);
+                engine.absorb(root.worker);
+            }
+            return engine.result();
+        } finally {
+            engine.releaseScratch();
+            if (event != null) event.record("ParallelClosestPair", "find", n);
+        }
+    }
+
+    private final class PresortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int lo;
+        private final int hi;
+        private final transient AtomicLong sharedBest;
+        private final transient Metrics local = metrics.fork();
+
+        PresortTask(int lo, int hi, AtomicLong sharedBest) {
+            this.lo = lo;
+            this.hi = hi;
+            this.sharedBest = sharedBest;
+        }
+
+        @Override
+        protected void compute() {
+            PrimitiveClosestPair worker = new PrimitiveClosestPair(local, engine, sharedBest, 0);
+            if (hi - lo <= threshold) {
+                worker.sortByX(lo, hi);
+                return;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            PresortTask lower = new PresortTask(lo, mid, sharedBest);
+            PresortTask upper = new PresortTask(mid, hi, sharedBest);
+            invokeAll(lower, upper);
+            local.merge(lower.local);
+            local.merge(upper.local);
+            worker.mergeByX(lo, mid, hi);
+        }
+    }
+
+    private final class SolveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int lo;
+        private final int hi;
+        private final int depth;
+        private final transient AtomicLong sharedBest;
+        private final transient Metrics local = metrics.fork();
+        final transient PrimitiveClosestPair worker;
+
+        SolveTask(int lo, int hi, int depth, AtomicLong sharedBest) {
+            this.lo = lo;
+            this.hi = hi;
+            this.depth = depth;
+            this.sharedBest = sharedBest;
+            this.worker = new PrimitiveClosestPair(local, engine, sharedBest, depth);
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= threshold) {
+                worker.solve(lo, hi);
+                return;
+            }
+
+            local.enterRecursion();
+            int mid = (lo + hi) >>> 1;
+            double midX = engine.px[mid];
+            SolveTask lower = new SolveTask(lo, mid, depth + 1, sharedBest);
+            SolveTask upper = new SolveTask(mid, hi, depth + 1, sharedBest);
+            invokeAll(lower, upper);
+            local.merge(lower.local);
+            local.merge(upper.local);
+            worker.absorb(lower.worker);
+            worker.absorb(upper.worker);
+
+            worker.mergeByY(lo, mid, hi);
+            StripEvent event = Profiling.strip();
+            int size = worker.collectStrip(lo, hi, midX);
+            long compared = 0;
+            if (size <= STRIP_CHUNK) {
+                compared = worker.checkStripRange(lo, size, 0, size);
+            } else {
+                int chunks = (size + STRIP_CHUNK - 1) / STRIP_CHUNK;
+                StripTask[] tasks = new StripTask[chunks];
+                for (int c = 0; c < chunks; c++) {
+                    tasks[c] = new StripTask(lo, size, c * STRIP_CHUNK, Math.min(size, (c + 1) * STRIP_CHUNK), sharedBest);
+                }
+                invokeAll(tasks);
+                for (StripTask task : tasks) {
+                    local.merge(task.local);
+                    worker.absorb(task.worker);
+                    compared += task.compared;
+                }
+            }
+            if (event != null) event.record("ParallelClosestPair", depth, hi - lo, size, compared);
+            local.exitRecursion();
+        }
+    }
+
+    /**
+     * Checks strip entries [from, to) of one level against their successors.
+     */
+    private final class StripTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int base;
+        private final int size;
+        private final int from;
+        private final int to;
+        private final transient Metrics local = metrics.fork();
+        final transient PrimitiveClosestPair worker;
+        long compared;
+
+        StripTask(int base, int size, int from, int to, AtomicLong sharedBest) {
+            this.base = base;
+            this.size = size;
+            this.from = from;
+            this.to = to;
+            this.worker = new PrimitiveClosestPair(local, engine, sharedBest, 0);
+        }
+
+        @Override
+        protected void compute() {
+            compared = worker.checkStripRange(base, size, from, to);
+        }
+    }
+}
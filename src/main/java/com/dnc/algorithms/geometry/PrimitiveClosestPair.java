@@ -0,0 +1,382 @@
+package com.dnc.algorithms.geometry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.profiling.InvocationEvent;
+import com.dnc.algorithms.profiling.Profiling;
+import com.dnc.algorithms.profiling.StripEvent;
+import com.dnc.algorithms.util.ScratchArena;
+
+/**
+ * Structure-of-arrays closest pair over {@code double[] xs, double[] ys}.
+ * Points are sorted by x once; the recursion then merge-sorts each range by
+ * y on the way back up, so no level allocates or rescans the whole input.
+ * The scratch arrays are borrowed from a {@link ScratchArena} for the
+ * duration of a call, so repeated calls do not allocate. Distances are
+ * compared squared and a single sqrt is taken at the end.
+ *
+ * <p>When several pairs share the minimum distance, the pair with the
+ * smallest (first, second) indices is returned. Exact duplicates are
+ * detected during the presort, so heavily duplicated input stays O(n log n).
+ */
+public class PrimitiveClosestPair implements ClosestPairEngine {
+    private static final int BRUTE_FORCE_MAX = 3;
+    private static final double[] NO_DOUBLES = new double[0];
+    private static final int[] NO_INTS = new int[0];
+    private final Metrics metrics;
+    private final ScratchArena arena;
+    private ScratchArena scratch;
+    // Points in x order; each range is re-sorted by y once its recursion returns
+    double[] px = NO_DOUBLES;
+    double[] py = NO_DOUBLES;
+    int[] pid = NO_INTS;
+    // Merge and strip scratch, indexed by the same positions as the range they serve
+    double[] tx = NO_DOUBLES;
+    double[] ty = NO_DOUBLES;
+    int[] tid = NO_INTS;
+    int[] strip = NO_INTS;
+    private double bestD2;
+    private int bestFirst;
+    private int bestSecond;
+    private final String engineName; // Engine reported by strip events
+    private int depth; // Recursion depth reported by strip events
+    // Best squared distance published by all workers of a parallel run, as raw long bits
+    private final AtomicLong sharedBest;
+
+    public PrimitiveClosestPair(Metrics metrics) {
+        this(metrics, (ScratchArena) null);
+    }
+
+    /**
+     * Draws the scratch arrays from arena; null uses the calling thread's arena.
+     */
+    public PrimitiveClosestPair(Metrics metrics, ScratchArena arena) {
+        this.metrics = metrics;
+        this.arena = arena;
+        this.sharedBest = null;
+        this.engineName = "PrimitiveClosestPair";
+    }
+
+    /**
+     * Worker view for parallel runs: shares the owner's arrays but keeps its
+     * own metrics and best pair, and prunes against the shared best. Its
+     * strip events are reported for {@link ParallelClosestPair}, counting
+     * depth on from the given one.
+     */
+    PrimitiveClosestPair(Metrics metrics, PrimitiveClosestPair owner, AtomicLong sharedBest, int depth) {
+        this.metrics = metrics;
+        this.arena = null;
+        this.sharedBest = sharedBest;
+        this.engineName = "ParallelClosestPair";
+        this.depth = depth;
+        this.px = owner.px;
+        this.py = owner.py;
+        this.pid = owner.pid;
+        this.tx = owner.tx;
+        this.ty = owner.ty;
+        this.tid = owner.tid;
+        this.strip = owner.strip;
+        resetBest();
+    }
+
+    @Override
+    public PairResult find(double[] xs, double[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("xs and ys differ in length: " + xs.length + " vs " + ys.length);
+        }
+        return find(xs, ys, xs.length);
+    }
+
+    /**
+     * Closest pair among the first n points, for callers whose coordinates
+     * sit in longer scratch arrays.
+     */
+    PairResult find(double[] xs, double[] ys, int n) {
+        resetBest();
+        if (n < 2) return new PairResult(Double.POSITIVE_INFINITY, -1, -1);
+
+        InvocationEvent event = Profiling.invocation();
+        load(xs, ys, n);
+        try {
+            sortByX(0, n);
+            if (!findDuplicates(n)) {
+                solve(0, n);
+            }
+            return result();
+        } finally {
+            releaseScratch();
+            if (event != null) event.record("PrimitiveClosestPair", "find", n);
+        }
+    }
+
+    PairResult result() {
+        return new PairResult(Math.sqrt(bestD2), bestFirst, bestSecond);
+    }
+
+    void resetBest() {
+        bestD2 = Double.POSITIVE_INFINITY;
+        bestFirst = -1;
+        bestSecond = -1;
+    }
+
+    void load(double[] xs, double[] ys, int n) {
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            px[i] = xs[i];
+            py[i] = ys[i];
+            pid[i] = i;
+        }
+    }
+
+    /**
+     * Sorts [from, to) by x, then y, then index with a bottom-up merge sort
+     * over the scratch arrays.
+     */
+    void sortByX(int from, int to) {
+        for (int width = 1; width < to - from; width <<= 1) {
+            for (int lo = from; lo < to - width; lo += width << 1) {
+                int mid = lo + width;
+                int hi = Math.min(lo + (width << 1), to);
+                mergeByX(lo, mid, hi);
+            }
+        }
+    }
+
+    void mergeByX(int lo, int mid, int hi) {
+        if (!lessByX(mid, mid - 1)) return; // already in order
+
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            int from = lessByX(j, i) ? j++ : i++;
+            tx[k] = px[from];
+            ty[k] = py[from];
+            tid[k++] = pid[from];
+        }
+        while (i < mid) {
+            tx[k] = px[i];
+            ty[k] = py[i];
+            tid[k++] = pid[i++];
+        }
+        while (j < hi) {
+            tx[k] = px[j];
+            ty[k] = py[j];
+            tid[k++] = pid[j++];
+        }
+        System.arraycopy(tx, lo, px, lo, hi - lo);
+        System.arraycopy(ty, lo, py, lo, hi - lo);
+        System.arraycopy(tid, lo, pid, lo, hi - lo);
+    }
+
+    private boolean lessByX(int a, int b) {
+        metrics.incrementComparisons();
+        if (px[a] != px[b]) return px[a] < px[b];
+        if (py[a] != py[b]) return py[a] < py[b];
+        return pid[a] < pid[b];
+    }
+
+    /**
+     * Exact duplicates sit next to each other after the presort. If there are
+     * any the answer is distance zero and the smallest index pair among them.
+     */
+    boolean findDuplicates(int n) {
+        for (int i = 0; i + 1 < n; ) {
+            int j = i + 1;
+            while (j < n && px[j] == px[i] && py[j] == py[i]) j++;
+            if (j - i > 1) {
+                // Indices within a group are ascending because of the presort tie-break
+                consider(0.0, pid[i], pid[i + 1]);
+            }
+            i = j;
+        }
+        return bestD2 == 0.0;
+    }
+
+    /**
+     * Solves [lo, hi), which is sorted by x on entry and by y on exit.
+     */
+    void solve(int lo, int hi) {
+        metrics.enterRecursion();
+
+        if (hi - lo <= BRUTE_FORCE_MAX) {
+            bruteForce(lo, hi);
+            sortByY(lo, hi);
+            metrics.exitRecursion();
+            return;
+        }
+
+        int mid = (lo + hi) >>> 1;
+        double midX = px[mid];
+        depth++;
+        solve(lo, mid);
+        solve(mid, hi);
+        depth--;
+        mergeByY(lo, mid, hi);
+        checkStrip(lo, hi, midX);
+
+        metrics.exitRecursion();
+    }
+
+    void bruteForce(int lo, int hi) {
+        for (int i = lo; i < hi; i++) {
+            for (int j = i + 1; j < hi; j++) {
+                double dx = px[i] - px[j];
+                double dy = py[i] - py[j];
+                metrics.incrementComparisons();
+                consider(dx * dx + dy * dy, pid[i], pid[j]);
+            }
+        }
+    }
+
+    void sortByY(int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            double x = px[i], y = py[i];
+            int id = pid[i];
+            int j = i - 1;
+            while (j >= lo && py[j] > y) {
+                px[j + 1] = px[j];
+                py[j + 1] = py[j];
+                pid[j + 1] = pid[j];
+                j--;
+            }
+            px[j + 1] = x;
+            py[j + 1] = y;
+            pid[j + 1] = id;
+        }
+    }
+
+    void mergeByY(int lo, int mid, int hi) {
+        if (py[mid - 1] <= py[mid]) return; // already in order
+
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            int from = py[j] < py[i] ? j++ : i++;
+            tx[k] = px[from];
+            ty[k] = py[from];
+            tid[k++] = pid[from];
+        }
+        while (i < mid) {
+            tx[k] = px[i];
+            ty[k] = py[i];
+            tid[k++] = pid[i++];
+        }
+        // A leftover upper run is already in place
+        System.arraycopy(tx, lo, px, lo, k - lo);
+        System.arraycopy(ty, lo, py, lo, k - lo);
+        System.arraycopy(tid, lo, pid, lo, k - lo);
+    }
+
+    /**
+     * Checks pairs straddling the dividing line. Bounds are inclusive so every
+     * pair at exactly the current best distance is seen, which keeps the
+     * tie-break independent of evaluation order.
+     */
+    void checkStrip(int lo, int hi, double midX) {
+        StripEvent event = Profiling.strip();
+        int size = collectStrip(lo, hi, midX);
+        long compared = checkStripRange(lo, size, 0, hi - lo);
+        if (event != null) event.record(engineName, depth, hi - lo, size, compared);
+    }
+
+    /**
+     * Stores the positions of [lo, hi) within the current best distance of
+     * the dividing line at strip[lo..] and returns how many there are.
+     */
+    int collectStrip(int lo, int hi, double midX) {
+        double best = currentBest();
+        int size = 0;
+        for (int i = lo; i < hi; i++) {
+            double dx = px[i] - midX;
+            if (dx * dx <= best) strip[lo + size++] = i;
+        }
+        return size;
+    }
+
+    /**
+     * Compares strip entries [from, to) against their successors in y order
+     * and returns the number of pairs compared.
+     */
+    long checkStripRange(int base, int size, int from, int to) {
+        long compared = 0;
+        to = Math.min(to, size);
+        for (int a = from; a < to; a++) {
+            int i = strip[base + a];
+            for (int b = a + 1; b < size; b++) {
+                int j = strip[base + b];
+                double dy = py[j] - py[i];
+                if (dy * dy > currentBest()) break;
+                double dx = px[j] - px[i];
+                metrics.incrementComparisons();
+                compared++;
+                consider(dx * dx + dy * dy, pid[i], pid[j]);
+            }
+        }
+        return compared;
+    }
+
+    double currentBest() {
+        if (sharedBest == null) return bestD2;
+        return Math.min(bestD2, Double.longBitsToDouble(sharedBest.get()));
+    }
+
+    /**
+     * Folds a worker's best pair into this one.
+     */
+    void absorb(PrimitiveClosestPair worker) {
+        if (worker.bestFirst >= 0) consider(worker.bestD2, worker.bestFirst, worker.bestSecond);
+    }
+
+    /**
+     * Keeps the candidate if it is closer, or equally close with smaller indices.
+     */
+    void consider(double d2, int a, int b) {
+        int first = Math.min(a, b), second = Math.max(a, b);
+        if (d2 < bestD2 || (d2 == bestD2 && (first < bestFirst
+                || (first == bestFirst && second < bestSecond)))) {
+            bestD2 = d2;
+            bestFirst = first;
+            bestSecond = second;
+            if (sharedBest != null) publish(d2);
+        }
+    }
+
+    private void publish(double d2) {
+        // Non-negative doubles order the same way as their raw bits
+        long bits = Double.doubleToRawLongBits(d2);
+        long current = sharedBest.get();
+        while (bits < current && !sharedBest.compareAndSet(current, bits)) {
+            current = sharedBest.get();
+        }
+    }
+
+    private void ensureCapacity(int n) {
+        if (px.length >= n) return;
+        releaseScratch();
+        scratch = ScratchArena.orLocal(arena);
+        px = scratch.borrowDoubles(n, metrics);
+        py = scratch.borrowDoubles(n, metrics);
+        pid = scratch.borrowInts(n, metrics);
+        tx = scratch.borrowDoubles(n, metrics);
+        ty = scratch.borrowDoubles(n, metrics);
+        tid = scratch.borrowInts(n, metrics);
+        strip = scratch.borrowInts(n, metrics);
+    }
+
+    /**
+     * Returns the scratch arrays to the arena they came from. Worker views
+     * never own them.
+     */
+    void releaseScratch() {
+        if (scratch == null) return;
+        scratch.release(px);
+        scratch.release(py);
+        scratch.release(pid);
+        scratch.release(tx);
+        scratch.release(ty);
+        scratch.release(tid);
+        scratch.release(strip);
+        px = py = tx = ty = NO_DOUBLES;
+        pid = tid = strip = NO_INTS;
+        scratch = null;
+    }
+}
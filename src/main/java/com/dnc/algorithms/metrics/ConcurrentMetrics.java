@@ -0,0 +1,136 @@
+package com.dnc.algorithms.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe counters on {@link LongAdder}s, which stripe updates across
+ * cells so that workers do not contend on one cache line. Forks share the
+ * counters of the tracker they came from, so merging them adds nothing
+ * twice; only recursion depth is kept per fork, since it only has meaning
+ * along one task's call chain. The counters may be updated from any thread,
+ * but a single fork should track the depth of only one thread at a time.
+ */
+public class ConcurrentMetrics implements Metrics {
+    private final LongAdder comparisons;
+    private final LongAdder allocations;
+    private final Map<String, LongAdder> dispatches;
+    private final Map<String, LongAdder> dispatchedElements;
+    private int recursionDepth;
+    private int maxRecursionDepth;
+
+    public ConcurrentMetrics() {
+        this.comparisons = new LongAdder();
+        this.allocations = new LongAdder();
+        this.dispatches = new ConcurrentHashMap<>();
+        this.dispatchedElements = new ConcurrentHashMap<>();
+    }
+
+    private ConcurrentMetrics(ConcurrentMetrics parent) {
+        this.comparisons = parent.comparisons;
+        this.allocations = parent.allocations;
+        this.dispatches = parent.dispatches;
+        this.dispatchedElements = parent.dispatchedElements;
+    }
+
+    @Override
+    public void incrementComparisons() {
+        comparisons.increment();
+    }
+
+    @Override
+    public void incrementComparisons(long count) {
+        comparisons.add(count);
+    }
+
+    @Override
+    public void incrementAllocations(long count) {
+        allocations.add(count);
+    }
+
+    @Override
+    public void enterRecursion() {
+        recursionDepth++;
+        maxRecursionDepth = Math.max(maxRecursionDepth, recursionDepth);
+    }
+
+    @Override
+    public void exitRecursion() {
+        recursionDepth--;
+    }
+
+    @Override
+    public void recordDispatch(String engine, long elements) {
+        dispatches.computeIfAbsent(engine, e -> new LongAdder()).increment();
+        dispatchedElements.computeIfAbsent(engine, e -> new LongAdder()).add(elements);
+    }
+
+    /**
+     * A view sharing this tracker's counters, with its own depth.
+     */
+    @Override
+    public ConcurrentMetrics fork() {
+        return new ConcurrentMetrics(this);
+    }
+
+    @Override
+    public void merge(Metrics child) {
+        if (child instanceof ConcurrentMetrics other && other.comparisons == comparisons) {
+            maxRecursionDepth = Math.max(maxRecursionDepth, recursionDepth + other.maxRecursionDepth);
+            return;
+        }
+        comparisons.add(child.getComparisons());
+        allocations.add(child.getAllocations());
+        maxRecursionDepth = Math.max(maxRecursionDepth, recursionDepth + child.getMaxRecursionDepth());
+        child.getDispatchCounts().forEach((engine, count) -> dispatches.computeIfAbsent(engine, e -> new LongAdder()).add(count));
+        child.getDispatchedElements().forEach((engine, count) -> dispatchedElements.computeIfAbsent(engine, e -> new LongAdder()).add(count));
+    }
+
+    /**
+     * Clears the shared counters and this view's depth. Not atomic with
+     * respect to concurrent updates.
+     */
+    @Override
+    public void reset() {
+        comparisons.reset();
+        allocations.reset();
+        dispatches.clear();
+        dispatchedElements.clear();
+        recursionDepth = 0;
+        maxRecursionDepth = 0;
+    }
+
+    @Override
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+
+    @Override
+    public long getAllocations() {
+        return allocations.sum();
+    }
+
+    @Override
+    public int getMaxRecursionDepth() {
+        return maxRecursionDepth;
+    }
+
+    @Override
+    public Map<String, Long> getDispatchCounts() {
+        return snapshot(dispatches);
+    }
+
+    @Override
+    public Map<String, Long> getDispatchedElements() {
+        return snapshot(dispatchedElements);
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counts) {
+        Map<String, Long> copy = new TreeMap<>();
+        counts.forEach((engine, count) -> copy.put(engine, count.sum()));
+        return Collections.unmodifiableMap(copy);
+    }
+}
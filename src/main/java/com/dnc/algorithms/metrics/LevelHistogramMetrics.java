@@ -0,0 +1,107 @@
+package com.dnc.algorithms.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A {@link MetricsTracker} that also splits comparisons, allocations and
+ * calls by recursion level, to show where a divide-and-conquer engine
+ * spends its work: a balanced recursion does about the same work on every
+ * level, while a degenerate pivot shows up as a long tail of levels.
+ *
+ * <p>Level 0 is work done outside any recursion; a call that enters at
+ * depth d is counted at level d, as is the work it does before recursing.
+ * Forks record from level 0 and are shifted by the depth at the merge.
+ */
+public class LevelHistogramMetrics extends MetricsTracker {
+    private static final int INITIAL_LEVELS = 64;
+    private long[] comparisonsByLevel = new long[INITIAL_LEVELS];
+    private long[] allocationsByLevel = new long[INITIAL_LEVELS];
+    private long[] callsByLevel = new long[INITIAL_LEVELS];
+    private int levels = 1;
+
+    @Override
+    public void incrementComparisons() {
+        super.incrementComparisons();
+        comparisonsByLevel[level()]++;
+    }
+
+    @Override
+    public void incrementComparisons(long count) {
+        super.incrementComparisons(count);
+        comparisonsByLevel[level()] += count;
+    }
+
+    @Override
+    public void incrementAllocations(long count) {
+        super.incrementAllocations(count);
+        allocationsByLevel[level()] += count;
+    }
+
+    @Override
+    public void enterRecursion() {
+        super.enterRecursion();
+        callsByLevel[level()]++;
+    }
+
+    @Override
+    public LevelHistogramMetrics fork() {
+        return new LevelHistogramMetrics();
+    }
+
+    @Override
+    public void merge(Metrics other) {
+        int base = getRecursionDepth();
+        super.merge(other);
+        if (other instanceof LevelHistogramMetrics child) {
+            for (int l = 0; l < child.levels; l++) {
+                ensureLevel(base + l);
+                comparisonsByLevel[base + l] += child.comparisonsByLevel[l];
+                allocationsByLevel[base + l] += child.allocationsByLevel[l];
+                callsByLevel[base + l] += child.callsByLevel[l];
+            }
+        } else {
+            ensureLevel(base);
+            comparisonsByLevel[base] += other.getComparisons();
+            allocationsByLevel[base] += other.getAllocations();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        Arrays.fill(comparisonsByLevel, 0);
+        Arrays.fill(allocationsByLevel, 0);
+        Arrays.fill(callsByLevel, 0);
+        levels = 1;
+    }
+
+    /** Comparisons counted at each level, from level 0 to the deepest one reached. */
+    public long[] getComparisonsByLevel() {
+        return Arrays.copyOf(comparisonsByLevel, levels);
+    }
+
+    public long[] getAllocationsByLevel() {
+        return Arrays.copyOf(allocationsByLevel, levels);
+    }
+
+    /** Recursive calls entered at each level. */
+    public long[] getCallsByLevel() {
+        return Arrays.copyOf(callsByLevel, levels);
+    }
+
+    private int level() {
+        int level = Math.max(0, getRecursionDepth());
+        ensureLevel(level);
+        return level;
+    }
+
+    private void ensureLevel(int level) {
+        if (level >= comparisonsByLevel.length) {
+            int capacity = Math.max(comparisonsByLevel.length * 2, level + 1);
+            comparisonsByLevel = Arrays.copyOf(comparisonsByLevel, capacity);
+            allocationsByLevel = Arrays.copyOf(allocationsByLevel, capacity);
+            callsByLevel = Arrays.copyOf(callsByLevel, capacity);
+        }
+        levels = Math.max(levels, level + 1);
+    }
+}
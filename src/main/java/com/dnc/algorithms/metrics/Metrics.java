@@ -0,0 +1,63 @@
+package com.dnc.algorithms.metrics;
+
+import java.util.Map;
+
+/**
+ * Cost counters that the engines report into. Pick an implementation by
+ * what the caller needs:
+ * <ul>
+ *   <li>{@link MetricsTracker}: plain fields, for one thread at a time;</li>
+ *   <li>{@link NoOpMetrics}: counts nothing. With no other implementation at
+ *   a call site the JIT inlines the empty methods and the counting
+ *   disappears from the hot loops;</li>
+ *   <li>{@link ConcurrentMetrics}: LongAdder counters that any number of
+ *   threads may update;</li>
+ *   <li>{@link LevelHistogramMetrics}: totals plus comparisons, allocations
+ *   and calls per recursion level.</li>
+ * </ul>
+ *
+ * <p>Parallel engines give every task its own {@link #fork()} and
+ * {@link #merge(Metrics) merge} it back once the task has joined, so a
+ * tracker that is not thread-safe is never shared between workers.
+ */
+public interface Metrics {
+    void incrementComparisons();
+
+    void incrementComparisons(long count);
+
+    void incrementAllocations(long count);
+
+    void enterRecursion();
+
+    void exitRecursion();
+
+    /**
+     * Records one call routed to engine with the given number of elements.
+     */
+    void recordDispatch(String engine, long elements);
+
+    /**
+     * A tracker for a child task, to be folded back with {@link #merge}.
+     * Depths recorded by the child are relative to the depth at the merge.
+     */
+    Metrics fork();
+
+    /**
+     * Folds the counters of a tracker returned by {@link #fork()} into this one.
+     */
+    void merge(Metrics child);
+
+    void reset();
+
+    long getComparisons();
+
+    long getAllocations();
+
+    int getMaxRecursionDepth();
+
+    /** Number of calls routed to each engine by a dispatcher such as AdaptiveSort. */
+    Map<String, Long> getDispatchCounts();
+
+    /** Total number of elements routed to each engine by a dispatcher. */
+    Map<String, Long> getDispatchedElements();
+}
@@ -1,27 +1,99 @@
 package com.dnc.algorithms.metrics;
 
-public class MetricsTracker {
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class MetricsTracker implements Metrics {
     private long comparisons;
     private long allocations;
     private int recursionDepth;
     private int maxRecursionDepth;
+    private final Map<String, Long> dispatches = new TreeMap<>();
+    private final Map<String, Long> dispatchedElements = new TreeMap<>();
     
+    @Override
     public void incrementComparisons() { comparisons++; }
+    @Override
+    public void incrementComparisons(long count) { comparisons += count; }
+    @Override
     public void incrementAllocations(long count) { allocations += count; }
+    @Override
     public void enterRecursion() { 
         recursionDepth++; 
         maxRecursionDepth = Math.max(maxRecursionDepth, recursionDepth);
     }
+    @Override
     public void exitRecursion() { recursionDepth--; }
+    @Override
+    public void recordDispatch(String engine, long elements) {
+        dispatches.merge(engine, 1L, Long::sum);
+        dispatchedElements.merge(engine, elements, Long::sum);
+    }
     
+    @Override
     public void reset() {
         comparisons = 0;
         allocations = 0;
         recursionDepth = 0;
         maxRecursionDepth = 0;
+        dispatches.clear();
+        dispatchedElements.clear();
+    }
+
+    /**
+     * A fresh tracker for a child task.
+     */
+    @Override
+    public MetricsTracker fork() {
+        return new MetricsTracker();
+    }
+
+    /**
+     * Folds the counters of a tracker filled by a child task into this one.
+     * Depths recorded by the child are taken relative to the current depth.
+     */
+    @Override
+    public void merge(Metrics other) {
+        comparisons += other.getComparisons();
+        allocations += other.getAllocations();
+        maxRecursionDepth = Math.max(maxRecursionDepth, recursionDepth + other.getMaxRecursionDepth());
+        Map<String, Long> otherDispatches = other.getDispatchCounts();
+        if (!otherDispatches.isEmpty()) {
+            otherDispatches.forEach((engine, count) -> dispatches.merge(engine, count, Long::sum));
+            other.getDispatchedElements().forEach((engine, count) -> dispatchedElements.merge(engine, count, Long::sum));
+        }
+    }
+
+    @Override
+    public long getComparisons() {
+        return comparisons;
     }
 
+    @Override
+    public long getAllocations() {
+        return allocations;
+    }
+
+    @Override
     public int getMaxRecursionDepth() {
         return maxRecursionDepth;
     }
+
+    /** Current nesting depth; 0 outside any recursion. */
+    int getRecursionDepth() {
+        return recursionDepth;
+    }
+
+    /** Number of calls routed to each engine by a dispatcher such as AdaptiveSort. */
+    @Override
+    public Map<String, Long> getDispatchCounts() {
+        return Collections.unmodifiableMap(dispatches);
+    }
+
+    /** Total number of elements routed to each engine by a dispatcher. */
+    @Override
+    public Map<String, Long> getDispatchedElements() {
+        return Collections.unmodifiableMap(dispatchedElements);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.dnc.algorithms.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Counts nothing, for production calls that do not read the metrics.
+ * Every method is empty, so once the JIT sees only this implementation at a
+ * call site the calls are inlined away; the getters return zero.
+ */
+public final class NoOpMetrics implements Metrics {
+    public static final NoOpMetrics INSTANCE = new NoOpMetrics();
+
+    private NoOpMetrics() {}
+
+    @Override
+    public void incrementComparisons() {}
+
+    @Override
+    public void incrementComparisons(long count) {}
+
+    @Override
+    public void incrementAllocations(long count) {}
+
+    @Override
+    public void enterRecursion() {}
+
+    @Override
+    public void exitRecursion() {}
+
+    @Override
+    public void recordDispatch(String engine, long elements) {}
+
+    @Override
+    public NoOpMetrics fork() {
+        return this;
+    }
+
+    @Override
+    public void merge(Metrics child) {}
+
+    @Override
+    public void reset() {}
+
+    @Override
+    public long getComparisons() {
+        return 0;
+    }
+
+    @Override
+    public long getAllocations() {
+        return 0;
+    }
+
+    @Override
+    public int getMaxRecursionDepth() {
+        return 0;
+    }
+
+    @Override
+    public Map<String, Long> getDispatchCounts() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Map<String, Long> getDispatchedElements() {
+        return Collections.emptyMap();
+    }
+}
@@ -0,0 +1,31 @@
+package com.dnc.algorithms.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.dnc.algorithms.Invocation")
+@Label("D&C Invocation")
+@Category("Divide and Conquer")
+@Description("One sort, select or closest-pair call")
+@StackTrace(false)
+public class InvocationEvent extends Event {
+    @Label("Engine")
+    public String engine;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Size")
+    public int size;
+
+    public void record(String engineName, String operationName, int inputSize) {
+        engine = engineName;
+        operation = operationName;
+        size = inputSize;
+        commit();
+    }
+}
@@ -0,0 +1,180 @@
+package com.dnc.algorithms.profiling;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarises the engine events of a JFR recording: time per engine call,
+ * and per engine and recursion depth the time spent in partitions, merges
+ * and strip checks, with a histogram of how evenly each partition or merge
+ * split its range. Split ratios run from 0 (all keys on one side) to 0.5
+ * (an even split) and fall into buckets a tenth wide.
+ */
+public class JfrSummary {
+    static final String INVOCATION = "com.dnc.algorithms.Invocation";
+    static final String PARTITION = "com.dnc.algorithms.Partition";
+    static final String MERGE = "com.dnc.algorithms.Merge";
+    static final String STRIP = "com.dnc.algorithms.Strip";
+    private static final int BUCKETS = 5;
+
+    private final Map<String, Stats> invocations = new TreeMap<>();
+    private final Map<String, Map<Integer, Stats>> partitions = new TreeMap<>();
+    private final Map<String, Map<Integer, Stats>> merges = new TreeMap<>();
+    private final Map<String, Map<Integer, Stats>> strips = new TreeMap<>();
+    private long events;
+
+    /**
+     * Per-level aggregate of one kind of event.
+     */
+    private static final class Stats {
+        long count;
+        long totalNanos;
+        long maxNanos;
+        long elements;
+        long stripPoints;
+        long comparisons;
+        double ratioSum;
+        final long[] ratioBuckets = new long[BUCKETS];
+
+        void add(RecordedEvent event, long size) {
+            long nanos = event.getDuration().toNanos();
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            elements += size;
+        }
+
+        void addRatio(double ratio) {
+            ratioSum += ratio;
+            ratioBuckets[Math.min(BUCKETS - 1, Math.max(0, (int) (ratio * 2 * BUCKETS)))]++;
+        }
+    }
+
+    public static JfrSummary read(Path recording) throws IOException {
+        JfrSummary summary = new JfrSummary();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) summary.add(file.readEvent());
+        }
+        return summary;
+    }
+
+    /** Number of engine events read. */
+    public long getEventCount() {
+        return events;
+    }
+
+    /** Partition events recorded for an engine, over all depths. */
+    public long getPartitionCount(String engine) {
+        return count(partitions, engine);
+    }
+
+    /** Merge events recorded for an engine, over all depths. */
+    public long getMergeCount(String engine) {
+        return count(merges, engine);
+    }
+
+    /** Strip events recorded for an engine, over all depths. */
+    public long getStripCount(String engine) {
+        return count(strips, engine);
+    }
+
+    private static long count(Map<String, Map<Integer, Stats>> byEngine, String engine) {
+        long total = 0;
+        for (Stats stats : byEngine.getOrDefault(engine, Map.of()).values()) total += stats.count;
+        return total;
+    }
+
+    void add(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case INVOCATION:
+                invocations.computeIfAbsent(event.getString("engine") + "." + event.getString("operation"),
+                    k -> new Stats()).add(event, event.getInt("size"));
+                break;
+            case PARTITION: {
+                Stats stats = level(partitions, event);
+                stats.add(event, event.getInt("size"));
+                stats.addRatio(event.getDouble("splitRatio"));
+                break;
+            }
+            case MERGE: {
+                int left = event.getInt("leftSize"), right = event.getInt("rightSize");
+                Stats stats = level(merges, event);
+                stats.add(event, (long) left + right);
+                stats.addRatio(left + right > 0 ? (double) Math.min(left, right) / (left + right) : 0.0);
+                break;
+            }
+            case STRIP: {
+                Stats stats = level(strips, event);
+                stats.add(event, event.getInt("rangeSize"));
+                stats.stripPoints += event.getInt("stripSize");
+                stats.comparisons += event.getLong("comparisons");
+                break;
+            }
+            default:
+                return;
+        }
+        events++;
+    }
+
+    private static Stats level(Map<String, Map<Integer, Stats>> byEngine, RecordedEvent event) {
+        return byEngine.computeIfAbsent(event.getString("engine"), k -> new TreeMap<>())
+            .computeIfAbsent(event.getInt("depth"), k -> new Stats());
+    }
+
+    public void print(PrintStream out) {
+        if (events == 0) {
+            out.println("No divide-and-conquer events in the recording.");
+            return;
+        }
+
+        if (!invocations.isEmpty()) {
+            out.println("Invocations");
+            out.printf(Locale.ROOT, "  %-36s %10s %12s %10s %10s %14s%n",
+                "engine", "count", "total ms", "mean ms", "max ms", "mean size");
+            invocations.forEach((name, s) -> out.printf(Locale.ROOT, "  %-36s %,10d %12.3f %10.4f %10.3f %,14d%n",
+                name, s.count, millis(s.totalNanos), millis(s.totalNanos) / s.count, millis(s.maxNanos),
+                s.elements / s.count));
+            out.println();
+        }
+        printSplits(out, "Partitions", partitions);
+        printSplits(out, "Merges", merges);
+
+        strips.forEach((engine, levels) -> {
+            out.println("Strip checks: " + engine);
+            out.printf(Locale.ROOT, "  %5s %10s %12s %12s %12s %14s%n",
+                "depth", "count", "total ms", "mean range", "mean strip", "mean compares");
+            levels.forEach((depth, s) -> out.printf(Locale.ROOT, "  %5d %,10d %12.3f %,12d %12.1f %14.3f%n",
+                depth, s.count, millis(s.totalNanos), s.elements / s.count, (double) s.stripPoints / s.count,
+                (double) s.comparisons / s.count));
+            out.println();
+        });
+    }
+
+    private static void printSplits(PrintStream out, String title, Map<String, Map<Integer, Stats>> byEngine) {
+        byEngine.forEach((engine, levels) -> {
+            out.println(title + ": " + engine);
+            out.printf(Locale.ROOT, "  %5s %10s %12s %12s %10s   %9s %9s %9s %9s %9s%n",
+                "depth", "count", "total ms", "mean size", "mean split", "0-.1", ".1-.2", ".2-.3", ".3-.4", ".4-.5");
+            levels.forEach((depth, s) -> {
+                out.printf(Locale.ROOT, "  %5d %,10d %12.3f %,12d %10.3f  ",
+                    depth, s.count, millis(s.totalNanos), s.elements / s.count, s.ratioSum / s.count);
+                for (long bucket : s.ratioBuckets) {
+                    out.printf(Locale.ROOT, " %8.1f%%", 100.0 * bucket / s.count);
+                }
+                out.println();
+            });
+            out.println();
+        });
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
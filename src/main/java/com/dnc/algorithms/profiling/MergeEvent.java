@@ -0,0 +1,35 @@
+package com.dnc.algorithms.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.dnc.algorithms.Merge")
+@Label("D&C Merge")
+@Category("Divide and Conquer")
+@Description("One merge of two sorted runs")
+@StackTrace(false)
+public class MergeEvent extends Event {
+    @Label("Engine")
+    public String engine;
+
+    @Label("Depth")
+    public int depth;
+
+    @Label("Left Size")
+    public int leftSize;
+
+    @Label("Right Size")
+    public int rightSize;
+
+    public void record(String engineName, int level, int left, int right) {
+        engine = engineName;
+        depth = level;
+        leftSize = left;
+        rightSize = right;
+        commit();
+    }
+}
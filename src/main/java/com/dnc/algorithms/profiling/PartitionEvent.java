@@ -0,0 +1,47 @@
+package com.dnc.algorithms.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.dnc.algorithms.Partition")
+@Label("D&C Partition")
+@Category("Divide and Conquer")
+@Description("One partition step of a quicksort or selection engine")
+@StackTrace(false)
+public class PartitionEvent extends Event {
+    @Label("Engine")
+    public String engine;
+
+    @Label("Depth")
+    @Description("Recursion depth, or step number for iterative engines")
+    public int depth;
+
+    @Label("Size")
+    public int size;
+
+    @Label("Lower")
+    @Description("Keys left below the pivot")
+    public int lower;
+
+    @Label("Upper")
+    @Description("Keys left above the pivot")
+    public int upper;
+
+    @Label("Split Ratio")
+    @Description("Smaller side over the range size: 0.5 is an even split, 0 a degenerate one")
+    public double splitRatio;
+
+    public void record(String engineName, int level, int rangeSize, int lowerSize, int upperSize) {
+        engine = engineName;
+        depth = level;
+        size = rangeSize;
+        lower = lowerSize;
+        upper = upperSize;
+        splitRatio = rangeSize > 0 ? (double) Math.min(lowerSize, upperSize) / rangeSize : 0.0;
+        commit();
+    }
+}
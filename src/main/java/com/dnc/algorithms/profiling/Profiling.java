@@ -0,0 +1,128 @@
+package com.dnc.algorithms.profiling;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Entry point for the engines' JFR events. Each factory method returns a
+ * begun event, or null when no recording is running or the call is not
+ * sampled, so an engine pays one volatile read per potential event while
+ * nothing records:
+ *
+ * <pre>
+ * PartitionEvent event = Profiling.partition();
+ * ... partition ...
+ * if (event != null) event.record("IntroSort", depth, size, lower, upper);
+ * </pre>
+ *
+ * Invocation events are kept one in {@code dnc.profiling.invocationInterval}
+ * (default 1, every call); partition, merge and strip events one in
+ * {@code dnc.profiling.detailInterval} (default 64). Both are system
+ * properties and can be changed at run time. The sampling counters are
+ * shared and updated without synchronisation, so under contention the
+ * interval is approximate. JFR's own per-event settings, such as a
+ * threshold on invocation duration, apply on top.
+ */
+public final class Profiling {
+    private static final Set<Recording> RUNNING = ConcurrentHashMap.newKeySet();
+    private static volatile boolean active;
+    private static volatile int invocationInterval = Math.max(1, Integer.getInteger("dnc.profiling.invocationInterval", 1));
+    private static volatile int detailInterval = Math.max(1, Integer.getInteger("dnc.profiling.detailInterval", 64));
+    private static int invocationTick;
+    private static int detailTick;
+
+    static {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                for (Recording recording : recorder.getRecordings()) track(recording);
+            }
+
+            @Override
+            public void recordingStateChanged(Recording recording) {
+                track(recording);
+            }
+        });
+    }
+
+    private Profiling() {}
+
+    public static void setInvocationInterval(int interval) {
+        invocationInterval = checkInterval(interval);
+    }
+
+    public static void setDetailInterval(int interval) {
+        detailInterval = checkInterval(interval);
+    }
+
+    public static int getDetailInterval() {
+        return detailInterval;
+    }
+
+    /** True while at least one JFR recording is running. */
+    public static boolean isActive() {
+        return active;
+    }
+
+    public static InvocationEvent invocation() {
+        if (!active || !sampleInvocation()) return null;
+        InvocationEvent event = new InvocationEvent();
+        return begin(event) ? event : null;
+    }
+
+    public static PartitionEvent partition() {
+        if (!active || !sampleDetail()) return null;
+        PartitionEvent event = new PartitionEvent();
+        return begin(event) ? event : null;
+    }
+
+    public static MergeEvent merge() {
+        if (!active || !sampleDetail()) return null;
+        MergeEvent event = new MergeEvent();
+        return begin(event) ? event : null;
+    }
+
+    public static StripEvent strip() {
+        if (!active || !sampleDetail()) return null;
+        StripEvent event = new StripEvent();
+        return begin(event) ? event : null;
+    }
+
+    private static boolean begin(Event event) {
+        if (!event.isEnabled()) return false;
+        event.begin();
+        return true;
+    }
+
+    private static boolean sampleInvocation() {
+        if (++invocationTick < invocationInterval) return false;
+        invocationTick = 0;
+        return true;
+    }
+
+    private static boolean sampleDetail() {
+        if (++detailTick < detailInterval) return false;
+        detailTick = 0;
+        return true;
+    }
+
+    private static void track(Recording recording) {
+        if (recording.getState() == RecordingState.RUNNING) {
+            RUNNING.add(recording);
+        } else {
+            RUNNING.remove(recording);
+        }
+        active = !RUNNING.isEmpty();
+    }
+
+    private static int checkInterval(int interval) {
+        if (interval < 1) throw new IllegalArgumentException("Sampling interval must be positive: " + interval);
+        return interval;
+    }
+}
@@ -0,0 +1,41 @@
+package com.dnc.algorithms.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.dnc.algorithms.Strip")
+@Label("D&C Strip Check")
+@Category("Divide and Conquer")
+@Description("The strip check across the dividing line of one closest-pair range")
+@StackTrace(false)
+public class StripEvent extends Event {
+    @Label("Engine")
+    public String engine;
+
+    @Label("Depth")
+    public int depth;
+
+    @Label("Range Size")
+    public int rangeSize;
+
+    @Label("Strip Size")
+    @Description("Points within the current best distance of the dividing line")
+    public int stripSize;
+
+    @Label("Comparisons")
+    @Description("Pairs whose distance was computed")
+    public long comparisons;
+
+    public void record(String engineName, int level, int range, int strip, long compared) {
+        engine = engineName;
+        depth = level;
+        rangeSize = range;
+        stripSize = strip;
+        comparisons = compared;
+        commit();
+    }
+}
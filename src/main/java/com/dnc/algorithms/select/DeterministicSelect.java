@@ -1,71 +1,199 @@
 package com.dnc.algorithms.select;
 
-import com.dnc.algorithms.metrics.MetricsTracker;
+import java.util.Arrays;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.profiling.InvocationEvent;
+import com.dnc.algorithms.profiling.PartitionEvent;
+import com.dnc.algorithms.profiling.Profiling;
 import com.dnc.algorithms.util.ArrayUtils;
+import com.dnc.algorithms.util.ScratchArena;
 
 public class DeterministicSelect {
-    private final MetricsTracker metrics;
-    
-    public DeterministicSelect(MetricsTracker metrics) {
+    private final Metrics metrics;
+    // Bounds of the equal-to-pivot block left by the last partition: [lessEnd, greaterStart)
+    private int lessEnd;
+    private int greaterStart;
+    private int depth; // Recursion depth reported by partition events
+
+    public DeterministicSelect(Metrics metrics) {
         this.metrics = metrics;
     }
-    
+
     public int select(int[] arr, int k) {
-        return select(arr, 0, arr.length - 1, k);
+        if (k < 1 || k > arr.length) {
+            throw new IllegalArgumentException("k out of range: " + k);
+        }
+        InvocationEvent event = Profiling.invocation();
+        int value = arr[selectIndex(arr, 0, arr.length - 1, k - 1)];
+        if (event != null) event.record("DeterministicSelect", "select", arr.length);
+        return value;
     }
-    
-    private int select(int[] arr, int left, int right, int k) {
+
+    /**
+     * Computes several order statistics in one recursive partitioning pass.
+     * Each sub-range is only partitioned further for the ranks that fall
+     * inside it, so m ranks cost close to O(n log m) instead of m full
+     * selections. ks are 1-based and may be in any order or repeat; the
+     * result is aligned with ks.
+     */
+    public int[] selectMany(int[] arr, int[] ks) {
+        for (int k : ks) {
+            if (k < 1 || k > arr.length) {
+                throw new IllegalArgumentException("k out of range: " + k);
+            }
+        }
+        InvocationEvent event = Profiling.invocation();
+        ScratchArena scratch = ScratchArena.local();
+        int[] targets = scratch.borrowInts(ks.length, metrics);
+        for (int i = 0; i < ks.length; i++) targets[i] = ks[i] - 1;
+        Arrays.sort(targets, 0, ks.length);
+
+        selectMany(arr, 0, arr.length - 1, targets, 0, ks.length);
+        scratch.release(targets);
+
+        int[] result = new int[ks.length];
+        for (int i = 0; i < ks.length; i++) {
+            result[i] = arr[ks[i] - 1];
+        }
+        if (event != null) event.record("DeterministicSelect", "selectMany", arr.length);
+        return result;
+    }
+
+    /**
+     * Settles every rank in targets[from..to) (sorted, 0-based, absolute)
+     * inside arr[left..right].
+     */
+    private void selectMany(int[] arr, int left, int right, int[] targets, int from, int to) {
         metrics.enterRecursion();
-        
-        if (left == right) {
-            metrics.exitRecursion();
-            return arr[left];
+
+        while (from < to && left < right) {
+            if (to - from == 1) {
+                depth++;
+                selectIndex(arr, left, right, targets[from]);
+                depth--;
+                break;
+            }
+
+            depth++;
+            int pivotIndex = medianOfMedians(arr, left, right);
+            depth--;
+            PartitionEvent event = Profiling.partition();
+            partition(arr, left, right, pivotIndex);
+            int lower = lessEnd, upper = greaterStart;
+            if (event != null) event.record("DeterministicSelect", depth, right - left + 1, lower - left, right - upper + 1);
+
+            // Ranks inside [lower, upper) are settled by the partition itself
+            int splitLow = lowerBound(targets, from, to, lower);
+            int splitHigh = lowerBound(targets, splitLow, to, upper);
+
+            depth++;
+            selectMany(arr, left, lower - 1, targets, from, splitLow);
+            depth--;
+            left = upper;
+            from = splitHigh;
         }
-        
-        int pivotIndex = partitionWithMoM(arr, left, right);
-        int pivotRank = pivotIndex - left + 1;
-        
-        if (k == pivotRank) {
-            metrics.exitRecursion();
-            return arr[pivotIndex];
-        } else if (k < pivotRank) {
-            metrics.exitRecursion();
-            return select(arr, left, pivotIndex - 1, k);
-        } else {
-            metrics.exitRecursion();
-            return select(arr, pivotIndex + 1, right, k - pivotRank);
+
+        metrics.exitRecursion();
+    }
+
+    private static int lowerBound(int[] a, int from, int to, int key) {
+        while (from < to) {
+            int m = (from + to) >>> 1;
+            if (a[m] < key) {
+                from = m + 1;
+            } else {
+                to = m;
+            }
         }
+        return from;
     }
-    
-    private int partitionWithMoM(int[] arr, int left, int right) {
-        int median = findMedianOfMedians(arr, left, right);
-        int medianIndex = findIndex(arr, left, right, median);
-        ArrayUtils.swap(arr, medianIndex, right);
-        
-        return partition(arr, left, right);
+
+    /**
+     * Moves the element of rank target (0-based, absolute) into position target
+     * and returns that index. Works in place and allocates nothing: the outer
+     * loop narrows the range iteratively and only the median-of-medians step
+     * recurses, on a range a fifth of the size.
+     */
+    int selectIndex(int[] arr, int left, int right, int target) {
+        metrics.enterRecursion();
+
+        while (left < right) {
+            depth++;
+            int pivotIndex = medianOfMedians(arr, left, right);
+            depth--;
+            PartitionEvent event = Profiling.partition();
+            partition(arr, left, right, pivotIndex);
+            if (event != null) event.record("DeterministicSelect", depth, right - left + 1, lessEnd - left, right - greaterStart + 1);
+
+            if (target < lessEnd) {
+                right = lessEnd - 1;
+            } else if (target >= greaterStart) {
+                left = greaterStart;
+            } else {
+                break;
+            }
+        }
+
+        metrics.exitRecursion();
+        return target;
     }
-    
-    private int findMedianOfMedians(int[] arr, int left, int right) {
+
+    /**
+     * Returns the index of the median of the group medians of arr[left..right].
+     * Group medians are swapped to the front of the range, so no copy is made.
+     */
+    int medianOfMedians(int[] arr, int left, int right) {
         int n = right - left + 1;
         if (n <= 5) {
-            return findMedian(arr, left, right);
+            insertionSort(arr, left, right);
+            return left + (n - 1) / 2;
         }
-        
+
         int numGroups = (n + 4) / 5;
-        int[] medians = new int[numGroups];
-        
         for (int i = 0; i < numGroups; i++) {
             int groupLeft = left + i * 5;
             int groupRight = Math.min(groupLeft + 4, right);
-            medians[i] = findMedian(arr, groupLeft, groupRight);
+            insertionSort(arr, groupLeft, groupRight);
+            ArrayUtils.swap(arr, left + i, groupLeft + (groupRight - groupLeft) / 2);
         }
-        
-        metrics.incrementAllocations(numGroups);
-        return select(medians, 0, numGroups - 1, numGroups / 2);
+
+        return selectIndex(arr, left, left + numGroups - 1, left + (numGroups - 1) / 2);
+    }
+
+    /**
+     * 3-way partition of arr[left..right] around arr[pivotIndex]. Afterwards
+     * {@link #lessEnd()} and {@link #greaterStart()} bound the keys equal to the pivot.
+     */
+    void partition(int[] arr, int left, int right, int pivotIndex) {
+        int pivot = arr[pivotIndex];
+        int lt = left, i = left, gt = right;
+
+        while (i <= gt) {
+            int v = arr[i];
+            metrics.incrementComparisons();
+            if (v < pivot) {
+                ArrayUtils.swap(arr, lt++, i++);
+            } else if (v > pivot) {
+                ArrayUtils.swap(arr, i, gt--);
+            } else {
+                i++;
+            }
+        }
+
+        lessEnd = lt;
+        greaterStart = gt + 1;
     }
-    
-    private int findMedian(int[] arr, int left, int right) {
-        // Simple insertion sort for small arrays
+
+    int lessEnd() {
+        return lessEnd;
+    }
+
+    int greaterStart() {
+        return greaterStart;
+    }
+
+    private void insertionSort(int[] arr, int left, int right) {
         for (int i = left + 1; i <= right; i++) {
             int key = arr[i];
             int j = i - 1;
@@ -77,29 +205,5 @@ public class DeterministicSelect {
             metrics.incrementComparisons();
             arr[j + 1] = key;
         }
-        return arr[left + (right - left) / 2];
-    }
-    
-    private int partition(int[] arr, int left, int right) {
-        int pivot = arr[right];
-        int i = left - 1;
-        
-        for (int j = left; j < right; j++) {
-            metrics.incrementComparisons();
-            if (arr[j] <= pivot) {
-                i++;
-                ArrayUtils.swap(arr, i, j);
-            }
-        }
-        
-        ArrayUtils.swap(arr, i + 1, right);
-        return i + 1;
-    }
-    
-    private int findIndex(int[] arr, int left, int right, int value) {
-        for (int i = left; i <= right; i++) {
-            if (arr[i] == value) return i;
-        }
-        return -1;
     }
-}
\ No newline at end of file
+}
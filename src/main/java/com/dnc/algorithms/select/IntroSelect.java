@@ -0,0 +1,122 @@
+package com.dnc.algorithms.select;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.profiling.InvocationEvent;
+import com.dnc.algorithms.profiling.PartitionEvent;
+import com.dnc.algorithms.profiling.Profiling;
+
+/**
+ * Quickselect with a median-of-3 (ninther on large ranges) pivot that falls
+ * back to {@link DeterministicSelect}'s median-of-medians once partitions stay
+ * unbalanced. A step is unbalanced when the surviving range keeps more than
+ * three quarters of the previous one; after {@link #MAX_UNBALANCED_STEPS} such
+ * steps in a row the remaining range is handed over, which keeps the worst
+ * case linear while benign input only pays for cheap pivots.
+ */
+public class IntroSelect {
+    static final int MAX_UNBALANCED_STEPS = 2;
+    private static final int INSERTION_CUTOFF = 16;
+    private static final int NINTHER_THRESHOLD = 128;
+    private final Metrics metrics;
+    private final DeterministicSelect fallback;
+
+    public IntroSelect(Metrics metrics) {
+        this.metrics = metrics;
+        this.fallback = new DeterministicSelect(metrics);
+    }
+
+    public int select(int[] arr, int k) {
+        if (k < 1 || k > arr.length) {
+            throw new IllegalArgumentException("k out of range: " + k);
+        }
+        InvocationEvent event = Profiling.invocation();
+        int value = arr[selectIndex(arr, 0, arr.length - 1, k - 1)];
+        if (event != null) event.record("IntroSelect", "select", arr.length);
+        return value;
+    }
+
+    /**
+     * Moves the element of rank target (0-based, absolute) into position target
+     * and returns that index. Partition events report the step number as their
+     * depth.
+     */
+    int selectIndex(int[] arr, int left, int right, int target) {
+        metrics.enterRecursion();
+        int unbalanced = 0;
+        int step = 0;
+
+        while (right - left >= INSERTION_CUTOFF) {
+            if (unbalanced >= MAX_UNBALANCED_STEPS) {
+                fallback.selectIndex(arr, left, right, target);
+                metrics.exitRecursion();
+                return target;
+            }
+
+            int size = right - left + 1;
+            PartitionEvent event = Profiling.partition();
+            fallback.partition(arr, left, right, choosePivot(arr, left, right));
+            int lessEnd = fallback.lessEnd();
+            int greaterStart = fallback.greaterStart();
+            if (event != null) event.record("IntroSelect", step, size, lessEnd - left, right - greaterStart + 1);
+            step++;
+
+            if (target < lessEnd) {
+                right = lessEnd - 1;
+            } else if (target >= greaterStart) {
+                left = greaterStart;
+            } else {
+                metrics.exitRecursion();
+                return target;
+            }
+
+            if (4L * (right - left + 1) > 3L * size) {
+                unbalanced++;
+            } else {
+                unbalanced = 0;
+            }
+        }
+
+        insertionSort(arr, left, right);
+        metrics.exitRecursion();
+        return target;
+    }
+
+    int choosePivot(int[] arr, int left, int right) {
+        int n = right - left + 1;
+        int mid = left + n / 2;
+        if (n < NINTHER_THRESHOLD) {
+            return median3(arr, left, mid, right);
+        }
+
+        int eps = n / 8;
+        int m1 = median3(arr, left, left + eps, left + 2 * eps);
+        int m2 = median3(arr, mid - eps, mid, mid + eps);
+        int m3 = median3(arr, right - 2 * eps, right - eps, right);
+        return median3(arr, m1, m2, m3);
+    }
+
+    private int median3(int[] arr, int a, int b, int c) {
+        metrics.incrementComparisons();
+        metrics.incrementComparisons();
+        if (arr[a] < arr[b]) {
+            if (arr[b] < arr[c]) return b;
+            return arr[a] < arr[c] ? c : a;
+        }
+        if (arr[c] < arr[b]) return b;
+        return arr[c] < arr[a] ? c : a;
+    }
+
+    private void insertionSort(int[] arr, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int key = arr[i];
+            int j = i - 1;
+            while (j >= left && arr[j] > key) {
+                metrics.incrementComparisons();
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            metrics.incrementComparisons();
+            arr[j + 1] = key;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.dnc.algorithms.select;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+import com.dnc.algorithms.metrics.Metrics;
+
+/**
+ * Median-of-medians selection over the remaining elements of an int or long
+ * buffer. Works entirely in place: group medians are swapped to the front of
+ * the range instead of being copied out, and partitioning is 3-way so runs of
+ * equal keys are settled in one pass. Like {@link DeterministicSelect}, the
+ * contents of the range are reordered and k is 1-based.
+ */
+public class OffHeapSelect {
+    private final Metrics metrics;
+    private int lessEnd;
+    private int greaterStart;
+
+    public OffHeapSelect(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public int select(IntBuffer buf, int k) {
+        IntBuffer data = buf.slice();
+        if (k < 1 || k > data.capacity()) {
+            throw new IllegalArgumentException("k out of range: " + k);
+        }
+        return data.get(selectIndex(data, 0, data.capacity() - 1, k - 1));
+    }
+
+    public long select(LongBuffer buf, int k) {
+        LongBuffer data = buf.slice();
+        if (k < 1 || k > data.capacity()) {
+            throw new IllegalArgumentException("k out of range: " + k);
+        }
+        return data.get(selectIndex(data, 0, data.capacity() - 1, k - 1));
+    }
+
+    /**
+     * Moves the element of rank target (0-based, absolute) into position target
+     * and returns that index.
+     */
+    private int selectIndex(IntBuffer data, int left, int right, int target) {
+        metrics.enterRecursion();
+        while (left < right) {
+            int pivotIndex = medianOfMedians(data, left, right);
+            partition(data, left, right, pivotIndex);
+            if (target < lessEnd) {
+                right = lessEnd - 1;
+            } else if (target >= greaterStart) {
+                left = greaterStart;
+            } else {
+                break;
+            }
+        }
+        metrics.exitRecursion();
+        return target;
+    }
+
+    private int medianOfMedians(IntBuffer data, int left, int right) {
+        int n = right - left + 1;
+        if (n <= 5) {
+            insertionSort(data, left, right);
+            return left + (n - 1) / 2;
+        }
+
+        int numGroups = (n + 4) / 5;
+        for (int i = 0; i < numGroups; i++) {
+            int groupLeft = left + i * 5;
+            int groupRight = Math.min(groupLeft + 4, right);
+            insertionSort(data, groupLeft, groupRight);
+            swap(data, left + i, groupLeft + (groupRight - groupLeft) / 2);
+        }
+
+        return selectIndex(data, left, left + numGroups - 1, left + (numGroups - 1) / 2);
+    }
+
+    private void partition(IntBuffer data, int left, int right, int pivotIndex) {
+        int pivot = data.get(pivotIndex);
+        int lt = left, i = left, gt = right;
+        while (i <= gt) {
+            int v = data.get(i);
+            metrics.incrementComparisons();
+            if (v < pivot) {
+                swap(data, lt++, i++);
+            } else if (v > pivot) {
+                swap(data, i, gt--);
+            } else {
+                i++;
+            }
+        }
+        lessEnd = lt;
+        greaterStart = gt + 1;
+    }
+
+    private void insertionSort(IntBuffer data, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int key = data.get(i);
+            int j = i - 1;
+            while (j >= left && data.get(j) > key) {
+                metrics.incrementComparisons();
+                data.put(j + 1, data.get(j));
+                j--;
+            }
+            metrics.incrementComparisons();
+            data.put(j + 1, key);
+        }
+    }
+
+    private static void swap(IntBuffer data, int i, int j) {
+        int temp = data.get(i);
+        data.put(i, data.get(j));
+        data.put(j, temp);
+    }
+
+    private int selectIndex(LongBuffer data, int left, int right, int target) {
+        metrics.enterRecursion();
+        while (left < right) {
+            int pivotIndex = medianOfMedians(data, left, right);
+            partition(data, left, right, pivotIndex);
+            if (target < lessEnd) {
+                right = lessEnd - 1;
+            } else if (target >= greaterStart) {
+                left = greaterStart;
+            } else {
+                break;
+            }
+        }
+        metrics.exitRecursion();
+        return target;
+    }
+
+    private int medianOfMedians(LongBuffer data, int left, int right) {
+        int n = right - left + 1;
+        if (n <= 5) {
+            insertionSort(data, left, right);
+            return left + (n - 1) / 2;
+        }
+
+        int numGroups = (n + 4) / 5;
+        for (int i = 0; i < numGroups; i++) {
+            int groupLeft = left + i * 5;
+            int groupRight = Math.min(groupLeft + 4, right);
+            insertionSort(data, groupLeft, groupRight);
+            swap(data, left + i, groupLeft + (groupRight - groupLeft) / 2);
+        }
+
+        return selectIndex(data, left, left + numGroups - 1, left + (numGroups - 1) / 2);
+    }
+
+    private void partition(LongBuffer data, int left, int right, int pivotIndex) {
+        long pivot = data.get(pivotIndex);
+        int lt = left, i = left, gt = right;
+        while (i <= gt) {
+            long v = data.get(i);
+            metrics.incrementComparisons();
+            if (v < pivot) {
+                swap(data, lt++, i++);
+            } else if (v > pivot) {
+                swap(data, i, gt--);
+            } else {
+                i++;
+            }
+        }
+        lessEnd = lt;
+        greaterStart = gt + 1;
+    }
+
+    private void insertionSort(LongBuffer data, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            long key = data.get(i);
+            int j = i - 1;
+            while (j >= left && data.get(j) > key) {
+                metrics.incrementComparisons();
+                data.put(j + 1, data.get(j));
+                j--;
+            }
+            metrics.incrementComparisons();
+            data.put(j + 1, key);
+        }
+    }
+
+    private static void swap(LongBuffer data, int i, int j) {
+        long temp = data.get(i);
+        data.put(i, data.get(j));
+        data.put(j, temp);
+    }
+}
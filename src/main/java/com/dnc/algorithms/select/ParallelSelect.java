@@ -0,0 +1,260 @@
+package com.dnc.algorithms.select;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.profiling.InvocationEvent;
+import com.dnc.algorithms.profiling.PartitionEvent;
+import com.dnc.algorithms.profiling.Profiling;
+import com.dnc.algorithms.util.ScratchArena;
+
+/**
+ * Median-of-medians selection for very large arrays. Group medians are
+ * computed by fork/join workers, and each partition pass splits the range
+ * into chunks that count their less/equal/greater keys in parallel, turn the
+ * counts into per-chunk offsets with a prefix sum and scatter into a second
+ * buffer, which is copied back over the range. Ranges at or below the
+ * threshold finish in {@link DeterministicSelect}. As with the sequential
+ * engine the input array is reordered into a permutation of itself with the
+ * selected value at index k - 1; k is 1-based.
+ * Partition events report the pass number as their depth.
+ */
+public class ParallelSelect {
+    public static final int DEFAULT_THRESHOLD = 1 << 16;
+    private static final int CHUNKS_PER_WORKER = 4;
+    private final Metrics metrics;
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    public ParallelSelect(Metrics metrics) {
+        this(metrics, DEFAULT_THRESHOLD);
+    }
+
+    public ParallelSelect(Metrics metrics, int threshold) {
+        this(metrics, threshold, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSelect(Metrics metrics, int threshold, ForkJoinPool pool) {
+        if (threshold < 5) {
+            throw new IllegalArgumentException("threshold must be at least 5: " + threshold);
+        }
+        this.metrics = metrics;
+        this.threshold = threshold;
+        this.pool = pool;
+    }
+
+    public int select(int[] arr, int k) {
+        if (k < 1 || k > arr.length) {
+            throw new IllegalArgumentException("k out of range: " + k);
+        }
+        InvocationEvent event = Profiling.invocation();
+        int value = selectValue(arr, k);
+        if (event != null) event.record("ParallelSelect", "select", arr.length);
+        return value;
+    }
+
+    private int selectValue(int[] arr, int k) {
+        if (arr.length <= threshold) {
+            DeterministicSelect sequential = new DeterministicSelect(metrics);
+            return arr[sequential.selectIndex(arr, 0, arr.length - 1, k - 1)];
+        }
+
+        metrics.enterRecursion();
+        ScratchArena scratch = ScratchArena.local();
+        int[] buffer = scratch.borrowInts(arr.length, metrics);
+
+        // The live range is arr[offset..offset+size) and target is relative to it
+        int offset = 0, size = arr.length, target = k - 1;
+        int step = 0;
+        try {
+            while (size > threshold) {
+                int pivot = pivotValue(arr, offset, size);
+                PartitionEvent event = Profiling.partition();
+                long counts = partition(arr, buffer, offset, size, pivot);
+                // Copy the range back so arr stays a permutation outside the live range too
+                System.arraycopy(buffer, offset, arr, offset, size);
+                metrics.incrementAllocations(size);
+                int less = (int) (counts >>> 32);
+                int equal = (int) counts;
+                if (event != null) event.record("ParallelSelect", step, size, less, size - less - equal);
+
+                if (target >= less && target < less + equal) {
+                    return pivot;
+                }
+                if (target < less) {
+                    size = less;
+                } else {
+                    offset += less + equal;
+                    target -= less + equal;
+                    size -= less + equal;
+                }
+                step++;
+            }
+
+            DeterministicSelect sequential = new DeterministicSelect(metrics);
+            int index = sequential.selectIndex(arr, offset, offset + size - 1, offset + target);
+            return arr[index];
+        } finally {
+            scratch.release(buffer);
+            metrics.exitRecursion();
+        }
+    }
+
+    /**
+     * Sorts every group of five in place, collects the group medians in
+     * parallel and selects their median.
+     */
+    private int pivotValue(int[] src, int offset, int size) {
+        int numGroups = (size + 4) / 5;
+        int[] medians = new int[numGroups];
+        metrics.incrementAllocations(numGroups);
+
+        int chunks = chunkCount(numGroups);
+        int groupsPerChunk = (numGroups + chunks - 1) / chunks;
+        Metrics[] locals = newLocals(chunks);
+        pool.invoke(new ChunkAction(0, chunks, chunk -> {
+            int from = chunk * groupsPerChunk;
+            int to = Math.min(numGroups, from + groupsPerChunk);
+            Metrics local = locals[chunk];
+            for (int g = from; g < to; g++) {
+                int groupLeft = offset + g * 5;
+                int groupRight = Math.min(groupLeft + 4, offset + size - 1);
+                insertionSort(src, groupLeft, groupRight, local);
+                medians[g] = src[groupLeft + (groupRight - groupLeft) / 2];
+            }
+        }));
+        mergeLocals(locals);
+
+        return selectValue(medians, (numGroups + 1) / 2);
+    }
+
+    /**
+     * Scatters src[offset..offset+size) into dst at the same offset as
+     * less / equal / greater blocks and returns the less and equal counts
+     * packed as (less << 32) | equal.
+     */
+    private long partition(int[] src, int[] dst, int offset, int size, int pivot) {
+        int chunks = chunkCount(size);
+        int chunkSize = (size + chunks - 1) / chunks;
+        int[] lessCounts = new int[chunks];
+        int[] equalCounts = new int[chunks];
+        Metrics[] locals = newLocals(chunks);
+
+        pool.invoke(new ChunkAction(0, chunks, chunk -> {
+            int from = offset + chunk * chunkSize;
+            int to = Math.min(offset + size, from + chunkSize);
+            Metrics local = locals[chunk];
+            int less = 0, equal = 0;
+            for (int i = from; i < to; i++) {
+                int v = src[i];
+                local.incrementComparisons();
+                if (v < pivot) {
+                    less++;
+                } else if (v == pivot) {
+                    equal++;
+                }
+            }
+            lessCounts[chunk] = less;
+            equalCounts[chunk] = equal;
+        }));
+
+        // Exclusive prefix sums give each chunk its write offsets in the three blocks
+        int totalLess = 0, totalEqual = 0;
+        for (int c = 0; c < chunks; c++) {
+            totalLess += lessCounts[c];
+            totalEqual += equalCounts[c];
+        }
+        int[] lessStart = new int[chunks];
+        int[] equalStart = new int[chunks];
+        int[] greaterStart = new int[chunks];
+        int lessPos = offset, equalPos = offset + totalLess, greaterPos = offset + totalLess + totalEqual;
+        for (int c = 0; c < chunks; c++) {
+            int chunkLen = Math.max(0, Math.min(size, (c + 1) * chunkSize) - c * chunkSize);
+            lessStart[c] = lessPos;
+            equalStart[c] = equalPos;
+            greaterStart[c] = greaterPos;
+            lessPos += lessCounts[c];
+            equalPos += equalCounts[c];
+            greaterPos += chunkLen - lessCounts[c] - equalCounts[c];
+        }
+
+        pool.invoke(new ChunkAction(0, chunks, chunk -> {
+            int from = offset + chunk * chunkSize;
+            int to = Math.min(offset + size, from + chunkSize);
+            int l = lessStart[chunk], e = equalStart[chunk], g = greaterStart[chunk];
+            for (int i = from; i < to; i++) {
+                int v = src[i];
+                if (v < pivot) {
+                    dst[l++] = v;
+                } else if (v == pivot) {
+                    dst[e++] = v;
+                } else {
+                    dst[g++] = v;
+                }
+            }
+        }));
+        mergeLocals(locals);
+
+        return ((long) totalLess << 32) | totalEqual;
+    }
+
+    private int chunkCount(int items) {
+        int chunks = pool.getParallelism() * CHUNKS_PER_WORKER;
+        return Math.max(1, Math.min(chunks, items / 1024));
+    }
+
+    private Metrics[] newLocals(int count) {
+        Metrics[] locals = new Metrics[count];
+        for (int i = 0; i < count; i++) locals[i] = metrics.fork();
+        return locals;
+    }
+
+    private void mergeLocals(Metrics[] locals) {
+        for (Metrics local : locals) metrics.merge(local);
+    }
+
+    private static void insertionSort(int[] arr, int left, int right, Metrics local) {
+        for (int i = left + 1; i <= right; i++) {
+            int key = arr[i];
+            int j = i - 1;
+            while (j >= left && arr[j] > key) {
+                local.incrementComparisons();
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            local.incrementComparisons();
+            arr[j + 1] = key;
+        }
+    }
+
+    private interface ChunkOp {
+        void apply(int chunk);
+    }
+
+    /**
+     * Runs op over chunk indices [from, to), splitting the index range in halves.
+     */
+    private static final class ChunkAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final transient ChunkOp op;
+
+        ChunkAction(int from, int to, ChunkOp op) {
+            this.from = from;
+            this.to = to;
+            this.op = op;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                op.apply(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkAction(from, mid, op), new ChunkAction(mid, to, op));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.dnc.algorithms.select;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.simd.Kernels;
+import com.dnc.algorithms.util.ScratchArena;
+
+/**
+ * {@link IntroSelect} with the partition step moved onto the
+ * {@link Kernels}: each step partitions the live range into a scratch buffer
+ * with the compress-store kernel and copies it back, and ranges of one block
+ * are finished with the block sorting network. Pivot choice and the
+ * median-of-medians fallback after unbalanced steps are IntroSelect's. The
+ * kernels do not count comparisons, so a partition is charged one per key.
+ * The partition buffer is borrowed from a {@link ScratchArena} per call.
+ */
+public class VectorSelect {
+    private final Metrics metrics;
+    private final Kernels kernels;
+    private final IntroSelect pivots;
+    private final DeterministicSelect fallback;
+    private final ScratchArena arena;
+    private int[] buffer;
+
+    public VectorSelect(Metrics metrics) {
+        this(metrics, Kernels.best());
+    }
+
+    public VectorSelect(Metrics metrics, Kernels kernels) {
+        this(metrics, kernels, null);
+    }
+
+    /**
+     * Draws the partition buffer from arena; null uses the calling thread's arena.
+     */
+    public VectorSelect(Metrics metrics, Kernels kernels, ScratchArena arena) {
+        this.metrics = metrics;
+        this.kernels = kernels;
+        this.arena = arena;
+        this.pivots = new IntroSelect(metrics);
+        this.fallback = new DeterministicSelect(metrics);
+    }
+
+    public int select(int[] arr, int k) {
+        if (k < 1 || k > arr.length) {
+            throw new IllegalArgumentException("k out of range: " + k);
+        }
+        ScratchArena scratch = ScratchArena.orLocal(arena);
+        buffer = scratch.borrowInts(arr.length, metrics);
+        try {
+            return arr[selectIndex(arr, 0, arr.length - 1, k - 1)];
+        } finally {
+            scratch.release(buffer);
+            buffer = null;
+        }
+    }
+
+    /**
+     * Moves the element of rank target (0-based, absolute) into position target
+     * and returns that index.
+     */
+    int selectIndex(int[] arr, int left, int right, int target) {
+        metrics.enterRecursion();
+        int unbalanced = 0;
+
+        while (right - left + 1 > kernels.blockSize()) {
+            if (unbalanced >= IntroSelect.MAX_UNBALANCED_STEPS) {
+                fallback.selectIndex(arr, left, right, target);
+                metrics.exitRecursion();
+                return target;
+            }
+
+            int size = right - left + 1;
+            int pivot = arr[pivots.choosePivot(arr, left, right)];
+            long parts = kernels.partition(arr, left, right + 1, pivot, buffer);
+            System.arraycopy(buffer, left, arr, left, size);
+            metrics.incrementComparisons(size);
+            int lessEnd = left + Kernels.lessCount(parts);
+            int greaterStart = right + 1 - Kernels.greaterCount(parts);
+
+            if (target < lessEnd) {
+                right = lessEnd - 1;
+            } else if (target >= greaterStart) {
+                left = greaterStart;
+            } else {
+                metrics.exitRecursion();
+                return target;
+            }
+
+            if (4L * (right - left + 1) > 3L * size) {
+                unbalanced++;
+            } else {
+                unbalanced = 0;
+            }
+        }
+
+        kernels.sortBlock(arr, left, right + 1);
+        metrics.exitRecursion();
+        return target;
+    }
+
+    public String kernelName() {
+        return kernels.name();
+    }
+}
@@ -0,0 +1,164 @@
+package com.dnc.algorithms.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.dnc.algorithms.geometry.PairResult;
+
+/**
+ * Server side of one client connection. A single thread reads requests;
+ * any thread may send a response, and sends are serialised on the
+ * connection. They hold a {@link ReentrantLock} rather than a monitor, so a
+ * virtual thread blocked writing to a slow client unmounts instead of
+ * pinning its carrier. A failed send closes the connection, which ends the reader,
+ * so workers never have to handle a client that went away.
+ */
+final class Connection implements Closeable {
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final ByteBuffer readScratch = Protocol.scratch();
+    private final ByteBuffer writeScratch = Protocol.scratch();
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private volatile boolean closed;
+
+    Connection(SocketChannel channel) throws IOException {
+        ServiceConfig.configure(channel);
+        this.channel = channel;
+        this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), Protocol.BUFFER_BYTES));
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), Protocol.BUFFER_BYTES));
+    }
+
+    /**
+     * Op code of the next request, or -1 once the client has closed its side.
+     */
+    int readOp() throws IOException {
+        return in.read();
+    }
+
+    int readId() throws IOException {
+        return in.readInt();
+    }
+
+    /**
+     * Reads the body of a job request, after its op and id.
+     */
+    Job readJob(JobType type, int id) throws IOException {
+        switch (type) {
+            case SORT:
+                return Job.sort(this, id, readInts());
+            case SELECT: {
+                int k = in.readInt();
+                return Job.select(this, id, k, readInts());
+            }
+            default: {
+                int n = Protocol.readCount(in);
+                double[] xs = new double[n];
+                double[] ys = new double[n];
+                Protocol.readDoubles(in, xs, n, readScratch);
+                Protocol.readDoubles(in, ys, n, readScratch);
+                return Job.closest(this, id, xs, ys);
+            }
+        }
+    }
+
+    private int[] readInts() throws IOException {
+        int n = Protocol.readCount(in);
+        int[] values = new int[n];
+        Protocol.readInts(in, values, n, readScratch);
+        return values;
+    }
+
+    void sendSorted(int id, int[] values, int from, int n) {
+        sendLock.lock();
+        try {
+            if (closed) return;
+            out.writeInt(id);
+            out.writeByte(Protocol.OK);
+            out.writeInt(n);
+            Protocol.writeInts(out, values, from, n, writeScratch);
+            out.flush();
+        } catch (IOException e) {
+            close();
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    void sendSelected(int id, int value) {
+        sendLock.lock();
+        try {
+            if (closed) return;
+            out.writeInt(id);
+            out.writeByte(Protocol.OK);
+            out.writeInt(value);
+            out.flush();
+        } catch (IOException e) {
+            close();
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    void sendPair(int id, PairResult pair) {
+        sendLock.lock();
+        try {
+            if (closed) return;
+            out.writeInt(id);
+            out.writeByte(Protocol.OK);
+            out.writeDouble(pair.distance);
+            out.writeInt(pair.first);
+            out.writeInt(pair.second);
+            out.flush();
+        } catch (IOException e) {
+            close();
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    void sendText(int id, String text) {
+        send(id, Protocol.OK, text);
+    }
+
+    void sendBusy(int id) {
+        send(id, Protocol.BUSY, null);
+    }
+
+    void sendError(int id, String message) {
+        send(id, Protocol.ERROR, message != null ? message : "error");
+    }
+
+    private void send(int id, byte status, String text) {
+        sendLock.lock();
+        try {
+            if (closed) return;
+            out.writeInt(id);
+            out.writeByte(status);
+            if (text != null) out.writeUTF(text);
+            out.flush();
+        } catch (IOException e) {
+            close();
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.dnc.algorithms.service;
+
+/**
+ * One decoded request, waiting in a job queue.
+ */
+final class Job {
+    final Connection connection;
+    final JobType type;
+    final int id;
+    final int k;
+    final int[] values;
+    final double[] xs;
+    final double[] ys;
+    // When the request was fully read, for the service latency
+    final long received;
+
+    private Job(Connection connection, JobType type, int id, int k, int[] values, double[] xs, double[] ys) {
+        this.connection = connection;
+        this.type = type;
+        this.id = id;
+        this.k = k;
+        this.values = values;
+        this.xs = xs;
+        this.ys = ys;
+        this.received = System.nanoTime();
+    }
+
+    static Job sort(Connection connection, int id, int[] values) {
+        return new Job(connection, JobType.SORT, id, 0, values, null, null);
+    }
+
+    static Job select(Connection connection, int id, int k, int[] values) {
+        return new Job(connection, JobType.SELECT, id, k, values, null, null);
+    }
+
+    static Job closest(Connection connection, int id, double[] xs, double[] ys) {
+        return new Job(connection, JobType.CLOSEST, id, 0, null, xs, ys);
+    }
+
+    /** Elements or points the job carries. */
+    int size() {
+        return values != null ? values.length : xs.length;
+    }
+}
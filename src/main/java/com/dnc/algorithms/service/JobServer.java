@@ -0,0 +1,273 @@
+package com.dnc.algorithms.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.dnc.algorithms.geometry.AutoClosestPair;
+import com.dnc.algorithms.metrics.NoOpMetrics;
+import com.dnc.algorithms.select.IntroSelect;
+import com.dnc.algorithms.sort.AdaptiveSort;
+import com.dnc.algorithms.sort.SegmentedSort;
+
+/**
+ * Long-running service for sort, select and closest pair jobs over a local
+ * TCP or Unix domain socket, so callers stop paying JVM startup and a cold
+ * JIT per request. The wire format is described in {@link Protocol}.
+ *
+ * <p>Every connection is read by a virtual thread of its own. Decoded jobs
+ * go into one of two bounded queues:
+ * <ul>
+ *   <li>sorts of at most {@link ServiceConfig#getSmallSortMax()} elements go
+ *   to the batchers, which drain up to {@link ServiceConfig#getBatchJobs()}
+ *   of them at a time into one flat array and sort them with a single
+ *   {@link SegmentedSort} call;</li>
+ *   <li>everything else goes to the workers, which run {@link AdaptiveSort},
+ *   {@link IntroSelect} and {@link AutoClosestPair}.</li>
+ * </ul>
+ * Workers and batchers are virtual threads too, each with its own engines,
+ * since the engines are not thread-safe. When a queue is full the reader
+ * blocks, which stops it reading and lets the socket push back on the
+ * client. If the queue stays full for {@link ServiceConfig#getAdmitMillis()}
+ * the job is answered with BUSY instead.
+ */
+public class JobServer implements Closeable {
+    private static final JobType[] TYPES = JobType.values();
+    private final ServiceConfig config;
+    private final ServerSocketChannel server;
+    private final SocketAddress address;
+    private final BlockingQueue<Job> jobs;
+    private final BlockingQueue<Job> smallSorts;
+    private final ExecutorService threads = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("dnc-service-", 0).factory());
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    // One per worker and batcher, merged for a stats snapshot
+    private final List<LatencyStats> latencies = new CopyOnWriteArrayList<>();
+    private final LongAdder[] completed = new LongAdder[TYPES.length];
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder elements = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedJobs = new LongAdder();
+    private final long started = System.nanoTime();
+    private volatile boolean closed;
+
+    /**
+     * Binds the configured address; {@link #start()} begins serving.
+     */
+    public JobServer(ServiceConfig config) throws IOException {
+        this.config = config;
+        this.server = config.bind();
+        this.address = server.getLocalAddress();
+        this.jobs = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.smallSorts = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        for (int t = 0; t < TYPES.length; t++) completed[t] = new LongAdder();
+    }
+
+    public void start() {
+        for (int i = 0; i < config.getWorkers(); i++) {
+            LatencyStats latency = new LatencyStats();
+            latencies.add(latency);
+            threads.execute(() -> work(latency));
+        }
+        if (config.getSmallSortMax() > 0) {
+            for (int i = 0; i < config.getBatchers(); i++) {
+                LatencyStats latency = new LatencyStats();
+                latencies.add(latency);
+                threads.execute(() -> batch(latency));
+            }
+        }
+        threads.execute(this::accept);
+    }
+
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    public ServiceStats stats() {
+        long[] counts = new long[TYPES.length];
+        for (int t = 0; t < TYPES.length; t++) counts[t] = completed[t].sum();
+        return new ServiceStats(System.nanoTime() - started, counts, rejected.sum(), failed.sum(), elements.sum(),
+            batches.sum(), batchedJobs.sum(), jobs.size() + smallSorts.size(), LatencyStats.merge(latencies));
+    }
+
+    /**
+     * Stops accepting, drops open connections and queued jobs, and stops the
+     * worker threads.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            server.close();
+            for (Connection connection : connections) connection.close();
+            threads.shutdownNow();
+            threads.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (address instanceof UnixDomainSocketAddress unix) {
+                Files.deleteIfExists(unix.getPath());
+            }
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (closed) return;
+                System.err.println("accept failed: " + e.getMessage());
+                continue;
+            }
+            threads.execute(() -> serve(channel));
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        Connection connection;
+        try {
+            connection = new Connection(channel);
+        } catch (IOException e) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Already gone
+            }
+            return;
+        }
+        connections.add(connection);
+        try {
+            int op;
+            while ((op = connection.readOp()) >= 0) {
+                int id = connection.readId();
+                if (op == Protocol.STATS) {
+                    connection.sendText(id, stats().format());
+                    continue;
+                }
+                JobType type = JobType.fromCode((byte) op);
+                if (type == null) throw new IOException("Unknown op code: " + op);
+                admit(connection.readJob(type, id));
+            }
+        } catch (IOException e) {
+            // Client went away or sent a malformed frame; either way the connection is done
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.remove(connection);
+            connection.close();
+        }
+    }
+
+    private void admit(Job job) throws InterruptedException {
+        boolean small = job.type == JobType.SORT && job.values.length <= config.getSmallSortMax();
+        BlockingQueue<Job> queue = small ? smallSorts : jobs;
+        if (!queue.offer(job, config.getAdmitMillis(), TimeUnit.MILLISECONDS)) {
+            rejected.increment();
+            job.connection.sendBusy(job.id);
+        }
+    }
+
+    private void work(LatencyStats latency) {
+        AdaptiveSort sorter = new AdaptiveSort(NoOpMetrics.INSTANCE);
+        IntroSelect selector = new IntroSelect(NoOpMetrics.INSTANCE);
+        AutoClosestPair closestPair = new AutoClosestPair(NoOpMetrics.INSTANCE);
+        try {
+            while (true) {
+                Job job = jobs.take();
+                try {
+                    switch (job.type) {
+                        case SORT:
+                            sorter.sort(job.values);
+                            job.connection.sendSorted(job.id, job.values, 0, job.values.length);
+                            break;
+                        case SELECT:
+                            job.connection.sendSelected(job.id, selector.select(job.values, job.k));
+                            break;
+                        default:
+                            job.connection.sendPair(job.id, closestPair.find(job.xs, job.ys));
+                            break;
+                    }
+                    finish(job, latency);
+                } catch (RuntimeException e) {
+                    // A bad argument, or a bug in an engine: either way only this job fails
+                    fail(job, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    private void batch(LatencyStats latency) {
+        SegmentedSort segmented = new SegmentedSort(NoOpMetrics.INSTANCE);
+        int batchJobs = config.getBatchJobs();
+        List<Job> batch = new ArrayList<>(batchJobs);
+        int[] data = new int[Math.max(1, config.getSmallSortMax())];
+        try {
+            while (true) {
+                batch.add(smallSorts.take());
+                smallSorts.drainTo(batch, batchJobs - 1);
+
+                int count = batch.size();
+                int[] offsets = new int[count + 1];
+                for (int i = 0; i < count; i++) offsets[i + 1] = offsets[i] + batch.get(i).values.length;
+                if (data.length < offsets[count]) data = new int[Math.max(offsets[count], 2 * data.length)];
+                for (int i = 0; i < count; i++) {
+                    int[] values = batch.get(i).values;
+                    System.arraycopy(values, 0, data, offsets[i], values.length);
+                }
+                try {
+                    segmented.sortSegments(data, offsets);
+                } catch (RuntimeException e) {
+                    for (Job job : batch) fail(job, e);
+                    batch.clear();
+                    continue;
+                }
+
+                for (int i = 0; i < count; i++) {
+                    Job job = batch.get(i);
+                    job.connection.sendSorted(job.id, data, offsets[i], offsets[i + 1] - offsets[i]);
+                    finish(job, latency);
+                }
+                batches.increment();
+                batchedJobs.add(count);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    private void fail(Job job, RuntimeException e) {
+        failed.increment();
+        job.connection.sendError(job.id, e.getMessage() != null ? e.getMessage() : e.toString());
+    }
+
+    private void finish(Job job, LatencyStats latency) {
+        latency.record(System.nanoTime() - job.received);
+        completed[job.type.ordinal()].increment();
+        elements.add(job.size());
+    }
+}
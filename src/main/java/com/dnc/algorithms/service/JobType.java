@@ -0,0 +1,34 @@
+package com.dnc.algorithms.service;
+
+import java.util.Locale;
+
+/**
+ * Kinds of job the service runs, by the label used in options.
+ */
+public enum JobType {
+    SORT,
+    SELECT,
+    CLOSEST;
+
+    private static final JobType[] VALUES = values();
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static JobType fromLabel(String label) {
+        for (JobType type : VALUES) {
+            if (type.label().equals(label)) return type;
+        }
+        throw new IllegalArgumentException("Unknown job type: " + label);
+    }
+
+    /** Request op code on the wire. */
+    byte code() {
+        return (byte) (ordinal() + 1);
+    }
+
+    static JobType fromCode(byte code) {
+        return code >= 1 && code <= VALUES.length ? VALUES[code - 1] : null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.dnc.algorithms.service;
+
+import java.util.Locale;
+
+import com.dnc.algorithms.select.KllSketch;
+
+/**
+ * Latency distribution kept as microseconds in a {@link KllSketch}, so it
+ * takes a few kilobytes however long the service runs, with count, mean and
+ * maximum kept exactly. Each recording thread should own one instance; the
+ * lock is then uncontended, and {@link #merge} folds the per-thread
+ * instances into a snapshot.
+ */
+public class LatencyStats {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_LABELS = {"p50", "p90", "p99", "p99.9"};
+    private final KllSketch sketch = new KllSketch();
+    private long count;
+    private long totalMicros;
+    private long maxMicros;
+
+    public synchronized void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        sketch.update((int) Math.min(Integer.MAX_VALUE, micros));
+        count++;
+        totalMicros += micros;
+        maxMicros = Math.max(maxMicros, micros);
+    }
+
+    /**
+     * A new instance holding everything recorded by parts.
+     */
+    public static LatencyStats merge(Iterable<LatencyStats> parts) {
+        LatencyStats merged = new LatencyStats();
+        for (LatencyStats part : parts) {
+            synchronized (part) {
+                merged.sketch.merge(part.sketch);
+                merged.count += part.count;
+                merged.totalMicros += part.totalMicros;
+                merged.maxMicros = Math.max(merged.maxMicros, part.maxMicros);
+            }
+        }
+        return merged;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /** Approximate latency of normalized rank q, in microseconds; 0 when empty. */
+    public synchronized long quantileMicros(double q) {
+        return count == 0 ? 0 : sketch.quantile(q);
+    }
+
+    public synchronized double getMeanMicros() {
+        return count == 0 ? 0.0 : (double) totalMicros / count;
+    }
+
+    public synchronized long getMaxMicros() {
+        return maxMicros;
+    }
+
+    /** One line such as "p50 120 us  p90 310 us  ...  max 2,450 us". */
+    public synchronized String format() {
+        if (count == 0) return "no samples";
+        StringBuilder line = new StringBuilder();
+        line.append(String.format(Locale.ROOT, "mean %,.0f us", getMeanMicros()));
+        for (int i = 0; i < QUANTILES.length; i++) {
+            line.append(String.format(Locale.ROOT, "  %s %,d us", QUANTILE_LABELS[i], sketch.quantile(QUANTILES[i])));
+        }
+        line.append(String.format(Locale.ROOT, "  max %,d us", maxMicros));
+        return line.toString();
+    }
+}
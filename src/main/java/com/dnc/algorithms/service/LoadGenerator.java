@@ -0,0 +1,344 @@
+package com.dnc.algorithms.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.dnc.algorithms.geometry.PrimitiveClosestPair;
+import com.dnc.algorithms.metrics.NoOpMetrics;
+import com.dnc.algorithms.util.InputGenerator;
+import com.dnc.algorithms.util.InputGenerator.Distribution;
+import com.dnc.algorithms.util.InputGenerator.PointLayout;
+
+/**
+ * Drives a {@link JobServer} on the same machine. Each connection keeps
+ * {@link ServiceConfig#getWindow()} requests in flight, drawn from the
+ * configured job mix, and measures the time from writing a request to
+ * reading its response.
+ *
+ * <p>Inputs come from a small pool generated up front, so the client spends
+ * its time on I/O rather than on random numbers, and every answer is
+ * checked against one computed locally: sorts must come back ordered,
+ * selections must match a full sort and closest pairs a local run.
+ */
+public class LoadGenerator {
+    private static final int POOL = 8;
+    private static final JobType[] TYPES = JobType.values();
+    private final ServiceConfig config;
+    private final int[][] sortInputs = new int[POOL][];
+    private final int[][] selectInputs = new int[POOL][];
+    private final int[] selectRanks = new int[POOL];
+    private final int[] selectAnswers = new int[POOL];
+    private final double[][] xs = new double[POOL][];
+    private final double[][] ys = new double[POOL][];
+    private final double[] distances = new double[POOL];
+    private final int totalWeight;
+
+    /**
+     * Results of one run, as seen by the client.
+     */
+    public static final class Report {
+        private final long elapsedNanos;
+        private final long[] completed;
+        private final long busy;
+        private final long errors;
+        private final long wrong;
+        private final LatencyStats latency;
+
+        Report(long elapsedNanos, long[] completed, long busy, long errors, long wrong, LatencyStats latency) {
+            this.elapsedNanos = elapsedNanos;
+            this.completed = completed;
+            this.busy = busy;
+            this.errors = errors;
+            this.wrong = wrong;
+            this.latency = latency;
+        }
+
+        public long getCompleted() {
+            long total = 0;
+            for (long c : completed) total += c;
+            return total;
+        }
+
+        public long getBusy() {
+            return busy;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /** Answers that did not match the locally computed one. */
+        public long getWrong() {
+            return wrong;
+        }
+
+        public LatencyStats getLatency() {
+            return latency;
+        }
+
+        public double getThroughput() {
+            return elapsedNanos > 0 ? getCompleted() * 1e9 / elapsedNanos : 0.0;
+        }
+
+        public String format() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format(Locale.ROOT, "%.1f s, %,d jobs (%,.0f/s)", elapsedNanos / 1e9,
+                getCompleted(), getThroughput()));
+            for (JobType type : TYPES) {
+                text.append(String.format(Locale.ROOT, ", %s %,d", type.label(), completed[type.ordinal()]));
+            }
+            text.append(String.format(Locale.ROOT, ", busy %,d, errors %,d, wrong %,d%n", busy, errors, wrong));
+            text.append("round trip ").append(latency.format());
+            return text.toString();
+        }
+    }
+
+    public LoadGenerator(ServiceConfig config) {
+        this.config = config;
+        int weight = 0;
+        for (JobType type : TYPES) weight += config.getWeight(type);
+        this.totalWeight = weight;
+
+        long seed = config.getSeed();
+        for (int p = 0; p < POOL; p++) {
+            sortInputs[p] = InputGenerator.ints(Distribution.RANDOM, config.getSize(JobType.SORT), seed + p);
+
+            int n = config.getSize(JobType.SELECT);
+            selectInputs[p] = InputGenerator.ints(Distribution.RANDOM, n, seed + POOL + p);
+            selectRanks[p] = 1 + new Random(seed + p).nextInt(n);
+            int[] sorted = selectInputs[p].clone();
+            Arrays.sort(sorted);
+            selectAnswers[p] = sorted[selectRanks[p] - 1];
+
+            int points = config.getSize(JobType.CLOSEST);
+            xs[p] = new double[points];
+            ys[p] = new double[points];
+            InputGenerator.points(PointLayout.UNIFORM, xs[p], ys[p], seed + 2 * POOL + p);
+            distances[p] = new PrimitiveClosestPair(NoOpMetrics.INSTANCE).find(xs[p], ys[p]).distance;
+        }
+    }
+
+    /**
+     * Runs the configured load for the configured duration, then waits for
+     * the requests still in flight.
+     */
+    public Report run() throws IOException, InterruptedException {
+        List<Client> clients = new ArrayList<>();
+        try {
+            for (int c = 0; c < config.getConnections(); c++) {
+                clients.add(new Client(config.connect(), new Random(config.getSeed() * 31 + c)));
+            }
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+            try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> running = new ArrayList<>();
+                for (Client client : clients) {
+                    running.add(threads.submit(() -> client.send(deadline)));
+                    running.add(threads.submit(client::receive));
+                }
+                for (Future<?> f : running) {
+                    try {
+                        f.get();
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof IOException io) throw io;
+                        throw new IOException("Load generator failed", cause);
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            long[] completed = new long[TYPES.length];
+            long busy = 0, errors = 0, wrong = 0;
+            List<LatencyStats> latencies = new ArrayList<>();
+            for (Client client : clients) {
+                for (int t = 0; t < TYPES.length; t++) completed[t] += client.completed[t];
+                busy += client.busy;
+                errors += client.errors;
+                wrong += client.wrong;
+                latencies.add(client.latency);
+            }
+            return new Report(elapsed, completed, busy, errors, wrong, LatencyStats.merge(latencies));
+        } finally {
+            for (Client client : clients) client.channel.close();
+        }
+    }
+
+    /**
+     * Asks the server for its own stats text.
+     */
+    public String serverStats() throws IOException {
+        try (SocketChannel channel = config.connect()) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            out.writeByte(Protocol.STATS);
+            out.writeInt(0);
+            out.flush();
+            in.readInt();
+            if (in.readByte() != Protocol.OK) throw new IOException("Server refused stats request");
+            return in.readUTF();
+        }
+    }
+
+    private JobType pick(Random random) {
+        int r = random.nextInt(totalWeight);
+        for (JobType type : TYPES) {
+            r -= config.getWeight(type);
+            if (r < 0) return type;
+        }
+        return JobType.SORT;
+    }
+
+    /**
+     * One connection: a sender and a receiver thread sharing a pool of
+     * request slots. A request id is its slot, so the receiver finds the
+     * send time and expected answer of any response, whatever its order.
+     */
+    private final class Client {
+        final SocketChannel channel;
+        final Random random;
+        final DataOutputStream out;
+        final DataInputStream in;
+        final ByteBuffer writeScratch = Protocol.scratch();
+        final ByteBuffer readScratch = Protocol.scratch();
+        final BlockingQueue<Integer> free;
+        final long[] sentAt;
+        final JobType[] sentType;
+        final int[] sentInput;
+        final LatencyStats latency = new LatencyStats();
+        int[] sorted = new int[0];
+        // Receiver-only counters, read after the receiver has finished
+        final long[] completed = new long[TYPES.length];
+        long busy;
+        long errors;
+        long wrong;
+        volatile boolean receiverDone;
+
+        Client(SocketChannel channel, Random random) throws IOException {
+            this.channel = channel;
+            this.random = random;
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), Protocol.BUFFER_BYTES));
+            this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), Protocol.BUFFER_BYTES));
+            int window = config.getWindow();
+            this.free = new ArrayBlockingQueue<>(window);
+            for (int slot = 0; slot < window; slot++) free.add(slot);
+            this.sentAt = new long[window];
+            this.sentType = new JobType[window];
+            this.sentInput = new int[window];
+        }
+
+        Void send(long deadline) throws IOException, InterruptedException {
+            while (System.nanoTime() < deadline && !receiverDone) {
+                Integer slot = free.poll(10, TimeUnit.MILLISECONDS);
+                if (slot == null) continue;
+                JobType type = pick(random);
+                int input = random.nextInt(POOL);
+                sentType[slot] = type;
+                sentInput[slot] = input;
+                sentAt[slot] = System.nanoTime();
+                out.writeByte(type.code());
+                out.writeInt(slot);
+                switch (type) {
+                    case SORT:
+                        out.writeInt(sortInputs[input].length);
+                        Protocol.writeInts(out, sortInputs[input], 0, sortInputs[input].length, writeScratch);
+                        break;
+                    case SELECT:
+                        out.writeInt(selectRanks[input]);
+                        out.writeInt(selectInputs[input].length);
+                        Protocol.writeInts(out, selectInputs[input], 0, selectInputs[input].length, writeScratch);
+                        break;
+                    default:
+                        out.writeInt(xs[input].length);
+                        Protocol.writeDoubles(out, xs[input], xs[input].length, writeScratch);
+                        Protocol.writeDoubles(out, ys[input], ys[input].length, writeScratch);
+                        break;
+                }
+                out.flush();
+            }
+            // Wait for every slot to come back, then let the server see the end
+            int returned = 0;
+            while (returned < config.getWindow() && !receiverDone) {
+                if (free.poll(10, TimeUnit.MILLISECONDS) != null) returned++;
+            }
+            if (!receiverDone) channel.shutdownOutput();
+            return null;
+        }
+
+        Void receive() throws IOException, InterruptedException {
+            try {
+                return receiveAll();
+            } finally {
+                receiverDone = true;
+            }
+        }
+
+        private Void receiveAll() throws IOException, InterruptedException {
+            while (true) {
+                int slot;
+                try {
+                    slot = in.readInt();
+                } catch (EOFException e) {
+                    return null;
+                }
+                if (slot < 0 || slot >= sentAt.length) throw new IOException("Response for unknown request " + slot);
+                byte status = in.readByte();
+                JobType type = sentType[slot];
+                int input = sentInput[slot];
+                if (status == Protocol.OK) {
+                    if (!readAnswer(type, input)) wrong++;
+                    latency.record(System.nanoTime() - sentAt[slot]);
+                    completed[type.ordinal()]++;
+                } else if (status == Protocol.BUSY) {
+                    busy++;
+                } else {
+                    in.readUTF();
+                    errors++;
+                }
+                free.put(slot);
+            }
+        }
+
+        private boolean readAnswer(JobType type, int input) throws IOException {
+            switch (type) {
+                case SORT: {
+                    int n = Protocol.readCount(in);
+                    if (sorted.length < n) sorted = new int[n];
+                    Protocol.readInts(in, sorted, n, readScratch);
+                    if (n != sortInputs[input].length) return false;
+                    for (int i = 1; i < n; i++) {
+                        if (sorted[i - 1] > sorted[i]) return false;
+                    }
+                    return true;
+                }
+                case SELECT:
+                    return in.readInt() == selectAnswers[input];
+                default: {
+                    double distance = in.readDouble();
+                    in.readInt();
+                    in.readInt();
+                    return distance == distances[input];
+                }
+            }
+        }
+    }
+}
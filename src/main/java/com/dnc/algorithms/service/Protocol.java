@@ -0,0 +1,91 @@
+package com.dnc.algorithms.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format shared by {@link JobServer} and {@link LoadGenerator}. All
+ * values are big-endian. A client may pipeline requests; responses carry
+ * the request id and can come back in any order.
+ *
+ * <pre>
+ * request:  byte op, int id, body
+ *   SORT     int n, int values[n]
+ *   SELECT   int k (1-based), int n, int values[n]
+ *   CLOSEST  int n, double xs[n], double ys[n]
+ *   STATS    no body
+ * response: int id, byte status, body
+ *   OK       SORT: int n, int sorted[n]
+ *            SELECT: int value
+ *            CLOSEST: double distance, int first, int second
+ *            STATS: UTF text
+ *   BUSY     no body; the job queue stayed full for the admission timeout
+ *   ERROR    UTF message
+ * </pre>
+ *
+ * Op codes 1 to 3 are the {@link JobType}s in order.
+ */
+final class Protocol {
+    static final byte STATS = 4;
+    static final byte OK = 0;
+    static final byte BUSY = 1;
+    static final byte ERROR = 2;
+    static final int MAX_ELEMENTS = 1 << 26;
+    // Bytes staged per bulk copy between a stream and an array
+    static final int SCRATCH_BYTES = 1 << 16;
+    static final int BUFFER_BYTES = 1 << 16;
+
+    private Protocol() {}
+
+    static ByteBuffer scratch() {
+        return ByteBuffer.allocate(SCRATCH_BYTES);
+    }
+
+    static int readCount(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0 || n > MAX_ELEMENTS) throw new IOException("Bad element count: " + n);
+        return n;
+    }
+
+    static void readInts(DataInputStream in, int[] dst, int n, ByteBuffer scratch) throws IOException {
+        int chunk = scratch.capacity() / Integer.BYTES;
+        for (int off = 0; off < n; off += chunk) {
+            int m = Math.min(chunk, n - off);
+            in.readFully(scratch.array(), 0, m * Integer.BYTES);
+            scratch.clear();
+            scratch.asIntBuffer().get(dst, off, m);
+        }
+    }
+
+    static void writeInts(DataOutputStream out, int[] src, int from, int n, ByteBuffer scratch) throws IOException {
+        int chunk = scratch.capacity() / Integer.BYTES;
+        for (int off = 0; off < n; off += chunk) {
+            int m = Math.min(chunk, n - off);
+            scratch.clear();
+            scratch.asIntBuffer().put(src, from + off, m);
+            out.write(scratch.array(), 0, m * Integer.BYTES);
+        }
+    }
+
+    static void readDoubles(DataInputStream in, double[] dst, int n, ByteBuffer scratch) throws IOException {
+        int chunk = scratch.capacity() / Double.BYTES;
+        for (int off = 0; off < n; off += chunk) {
+            int m = Math.min(chunk, n - off);
+            in.readFully(scratch.array(), 0, m * Double.BYTES);
+            scratch.clear();
+            scratch.asDoubleBuffer().get(dst, off, m);
+        }
+    }
+
+    static void writeDoubles(DataOutputStream out, double[] src, int n, ByteBuffer scratch) throws IOException {
+        int chunk = scratch.capacity() / Double.BYTES;
+        for (int off = 0; off < n; off += chunk) {
+            int m = Math.min(chunk, n - off);
+            scratch.clear();
+            scratch.asDoubleBuffer().put(src, off, m);
+            out.write(scratch.array(), 0, m * Double.BYTES);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.dnc.algorithms.service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.dnc.algorithms.util.Options;
+
+/**
+ * Settings for {@link JobServer} and {@link LoadGenerator}, read by
+ * {@link Options}.
+ *
+ * <pre>
+ * --address localhost:7070          TCP host:port, or unix:&lt;path&gt; for a Unix domain socket
+ *
+ * serve:
+ * --workers 8                       threads running large sorts, selects and closest pairs
+ * --batchers 1                      threads sorting batches of small sort jobs
+ * --queue 1024                      capacity of each job queue
+ * --admit-ms 100                    how long a full queue may stall a connection before BUSY
+ * --small-sort 1024                 largest sort job that is batched
+ * --batch-jobs 256                  most small sort jobs per segmented call
+ * --report 10                       seconds between stats lines, 0 for none
+ *
+ * loadgen:
+ * --connections 8                   client connections
+ * --window 16                       requests in flight per connection
+ * --duration 10                     seconds of load
+ * --mix sort:60,select:30,closest:10  job weights
+ * --sizes sort:256,select:10000,closest:2000  elements or points per job
+ * --seed 42                         input seed
+ * </pre>
+ */
+public class ServiceConfig {
+    private static final String UNIX_PREFIX = "unix:";
+    private static final JobType[] TYPES = JobType.values();
+
+    private String address = "localhost:7070";
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int batchers = 1;
+    private int queueCapacity = 1024;
+    private int admitMillis = 100;
+    private int smallSortMax = 1024;
+    private int batchJobs = 256;
+    private int reportSeconds = 10;
+    private int connections = 8;
+    private int window = 16;
+    private int durationSeconds = 10;
+    private int[] mix = {60, 30, 10};
+    private int[] sizes = {256, 10000, 2000};
+    private long seed = 42;
+
+    /**
+     * Parses the options in args from index start on.
+     */
+    public static ServiceConfig parse(String[] args, int start) throws IOException {
+        ServiceConfig config = new ServiceConfig();
+        Options.parse(args, start, config::set);
+        return config;
+    }
+
+    /**
+     * Applies every key of a properties file.
+     */
+    public void load(Path file) throws IOException {
+        Options.load(file, this::set);
+    }
+
+    public void set(String key, String value) {
+        value = value.trim();
+        switch (key) {
+            case "address":
+                if (value.isEmpty()) throw new IllegalArgumentException("Empty address");
+                address = value;
+                break;
+            case "workers":
+                workers = positive(key, Integer.parseInt(value));
+                break;
+            case "batchers":
+                batchers = positive(key, Integer.parseInt(value));
+                break;
+            case "queue":
+                queueCapacity = positive(key, Integer.parseInt(value));
+                break;
+            case "admit-ms":
+                admitMillis = notNegative(key, Integer.parseInt(value));
+                break;
+            case "small-sort":
+                smallSortMax = notNegative(key, Integer.parseInt(value));
+                break;
+            case "batch-jobs":
+                batchJobs = positive(key, Integer.parseInt(value));
+                break;
+            case "report":
+                reportSeconds = notNegative(key, Integer.parseInt(value));
+                break;
+            case "connections":
+                connections = positive(key, Integer.parseInt(value));
+                break;
+            case "window":
+                window = positive(key, Integer.parseInt(value));
+                break;
+            case "duration":
+                durationSeconds = positive(key, Integer.parseInt(value));
+                break;
+            case "mix":
+                mix = perType(key, value, new int[TYPES.length]);
+                if (mix[0] + mix[1] + mix[2] == 0) throw new IllegalArgumentException("mix has no positive weight");
+                break;
+            case "sizes": {
+                int[] parsed = perType(key, value, sizes.clone());
+                for (JobType type : TYPES) {
+                    int n = parsed[type.ordinal()];
+                    if (n < 2 || n > Protocol.MAX_ELEMENTS) {
+                        throw new IllegalArgumentException(type.label() + " size must be in [2, " + Protocol.MAX_ELEMENTS + "]: " + n);
+                    }
+                }
+                sizes = parsed;
+                break;
+            }
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown service option: " + key);
+        }
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getBatchers() {
+        return batchers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getAdmitMillis() {
+        return admitMillis;
+    }
+
+    /** Sort jobs of at most this many elements are batched; 0 turns batching off. */
+    public int getSmallSortMax() {
+        return smallSortMax;
+    }
+
+    public int getBatchJobs() {
+        return batchJobs;
+    }
+
+    public int getReportSeconds() {
+        return reportSeconds;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /** Relative weight of a job type in the generated load. */
+    public int getWeight(JobType type) {
+        return mix[type.ordinal()];
+    }
+
+    /** Elements, or points, per generated job of a type. */
+    public int getSize(JobType type) {
+        return sizes[type.ordinal()];
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    boolean isUnixSocket() {
+        return address.startsWith(UNIX_PREFIX);
+    }
+
+    SocketAddress socketAddress() {
+        if (isUnixSocket()) return UnixDomainSocketAddress.of(address.substring(UNIX_PREFIX.length()));
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) throw new IllegalArgumentException("Address needs host:port or unix:<path>: " + address);
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    /**
+     * Binds a listening channel, replacing a stale socket file left by an
+     * earlier server on the same Unix path.
+     */
+    ServerSocketChannel bind() throws IOException {
+        SocketAddress target = socketAddress();
+        if (target instanceof UnixDomainSocketAddress unix) {
+            Files.deleteIfExists(unix.getPath());
+            return ServerSocketChannel.open(StandardProtocolFamily.UNIX).bind(unix);
+        }
+        return ServerSocketChannel.open().bind(target);
+    }
+
+    SocketChannel connect() throws IOException {
+        SocketChannel channel = SocketChannel.open(socketAddress());
+        configure(channel);
+        return channel;
+    }
+
+    /**
+     * Turns off Nagle's algorithm on TCP, since responses are small and
+     * flushed one by one.
+     */
+    static void configure(SocketChannel channel) throws IOException {
+        if (channel.getRemoteAddress() instanceof InetSocketAddress) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+    }
+
+    private static int[] perType(String key, String value, int[] into) {
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) throw new IllegalArgumentException("Expected type:value in " + key + ": " + part);
+            into[JobType.fromLabel(pair[0].trim()).ordinal()] = notNegative(key, Integer.parseInt(pair[1].trim()));
+        }
+        return into;
+    }
+
+    private static int positive(String key, int value) {
+        if (value < 1) throw new IllegalArgumentException(key + " must be positive: " + value);
+        return value;
+    }
+
+    private static int notNegative(String key, int value) {
+        if (value < 0) throw new IllegalArgumentException(key + " must not be negative: " + value);
+        return value;
+    }
+}
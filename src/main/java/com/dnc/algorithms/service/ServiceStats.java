@@ -0,0 +1,99 @@
+package com.dnc.algorithms.service;
+
+import java.util.Locale;
+
+/**
+ * Snapshot of a {@link JobServer}'s counters since it started. Latency runs
+ * from the moment a request has been read to the moment its response has
+ * been flushed, so it includes queueing but not network time.
+ */
+public class ServiceStats {
+    private final long uptimeNanos;
+    private final long[] completed;
+    private final long rejected;
+    private final long failed;
+    private final long elements;
+    private final long batches;
+    private final long batchedJobs;
+    private final int queued;
+    private final LatencyStats latency;
+
+    ServiceStats(long uptimeNanos, long[] completed, long rejected, long failed, long elements,
+                 long batches, long batchedJobs, int queued, LatencyStats latency) {
+        this.uptimeNanos = uptimeNanos;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.failed = failed;
+        this.elements = elements;
+        this.batches = batches;
+        this.batchedJobs = batchedJobs;
+        this.queued = queued;
+        this.latency = latency;
+    }
+
+    public long getUptimeNanos() {
+        return uptimeNanos;
+    }
+
+    public long getCompleted(JobType type) {
+        return completed[type.ordinal()];
+    }
+
+    /** Jobs answered with a result or an error. */
+    public long getCompleted() {
+        long total = failed;
+        for (long c : completed) total += c;
+        return total;
+    }
+
+    /** Jobs turned away with BUSY because the queue stayed full. */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /** Jobs answered with an error, such as a rank outside the input. */
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getElements() {
+        return elements;
+    }
+
+    /** Segmented sort calls made for batched small sorts. */
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getBatchedJobs() {
+        return batchedJobs;
+    }
+
+    /** Jobs waiting in the queues when the snapshot was taken. */
+    public int getQueued() {
+        return queued;
+    }
+
+    public LatencyStats getLatency() {
+        return latency;
+    }
+
+    /** Completed jobs per second over the whole uptime. */
+    public double getThroughput() {
+        return uptimeNanos > 0 ? getCompleted() * 1e9 / uptimeNanos : 0.0;
+    }
+
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "uptime %.1f s, %,d jobs (%,.0f/s)", uptimeNanos / 1e9,
+            getCompleted(), getThroughput()));
+        for (JobType type : JobType.values()) {
+            text.append(String.format(Locale.ROOT, ", %s %,d", type.label(), completed[type.ordinal()]));
+        }
+        text.append(String.format(Locale.ROOT, ", failed %,d, rejected %,d, queued %,d%n", failed, rejected, queued));
+        text.append(String.format(Locale.ROOT, "elements %,d, %,d batches of %.1f small sorts on average%n",
+            elements, batches, batches > 0 ? (double) batchedJobs / batches : 0.0));
+        text.append("latency ").append(latency.format());
+        return text.toString();
+    }
+}
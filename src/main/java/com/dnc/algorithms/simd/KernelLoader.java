@@ -0,0 +1,26 @@
+package com.dnc.algorithms.simd;
+
+/**
+ * Picks the kernel implementation once per JVM. The vector class is loaded
+ * reflectively so nothing links against jdk.incubator.vector unless the
+ * module is in the boot layer. Setting {@code -Ddnc.simd=scalar} forces the
+ * scalar kernels.
+ */
+final class KernelLoader {
+    static final Kernels SCALAR = new ScalarKernels();
+    static final Kernels BEST = load();
+
+    private KernelLoader() {
+    }
+
+    private static Kernels load() {
+        if ("scalar".equals(System.getProperty("dnc.simd"))) return SCALAR;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return SCALAR;
+        try {
+            return (Kernels) Class.forName("com.dnc.algorithms.simd.VectorKernels")
+                .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
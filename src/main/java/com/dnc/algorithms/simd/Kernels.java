@@ -0,0 +1,64 @@
+package com.dnc.algorithms.simd;
+
+/**
+ * Inner loops shared by the sorting, selection and geometry engines, with a
+ * scalar implementation and one on the incubating Vector API. Engines get an
+ * implementation from {@link #best()}, which is the vector one when the JVM
+ * runs with {@code --add-modules jdk.incubator.vector} and the scalar one
+ * otherwise. Both give identical results; the kernels do not record metrics,
+ * so callers account for the work they hand over.
+ */
+public interface Kernels {
+    /**
+     * Name of the implementation, for benchmark output.
+     */
+    String name();
+
+    /**
+     * Copies src[from, to) into dst[from, to) partitioned around pivot: keys
+     * less than the pivot first, then keys equal to it, then greater keys.
+     * The order within each part is unspecified. Returns the two part sizes
+     * packed as {@code (long) less << 32 | greater}; see {@link #lessCount(long)}
+     * and {@link #greaterCount(long)}.
+     */
+    long partition(int[] src, int from, int to, int pivot, int[] dst);
+
+    /**
+     * Largest range {@link #sortBlock(int[], int, int)} accepts.
+     */
+    int blockSize();
+
+    /**
+     * Sorts a[from, to), where to - from is at most {@link #blockSize()}.
+     */
+    void sortBlock(int[] a, int from, int to);
+
+    /**
+     * Merges the sorted runs a[aFrom, aTo) and b[bFrom, bTo) into dst starting
+     * at at. dst must not overlap either run.
+     */
+    void merge(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] dst, int at);
+
+    /**
+     * Writes the squared distance from (x, y) to each point of [from, to) into
+     * out starting at outFrom. Each value is computed as dx * dx + dy * dy
+     * without fused multiply-add, so it matches the scalar engines bit for bit.
+     */
+    void squaredDistances(double[] xs, double[] ys, int from, int to, double x, double y, double[] out, int outFrom);
+
+    static int lessCount(long parts) {
+        return (int) (parts >>> 32);
+    }
+
+    static int greaterCount(long parts) {
+        return (int) parts;
+    }
+
+    static Kernels best() {
+        return KernelLoader.BEST;
+    }
+
+    static Kernels scalar() {
+        return KernelLoader.SCALAR;
+    }
+}
@@ -0,0 +1,66 @@
+package com.dnc.algorithms.simd;
+
+/**
+ * Plain Java kernels, used when the Vector API is not available.
+ */
+public final class ScalarKernels implements Kernels {
+    private static final int BLOCK_SIZE = 16;
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public long partition(int[] src, int from, int to, int pivot, int[] dst) {
+        int lt = from, gt = to;
+        for (int i = from; i < to; i++) {
+            int v = src[i];
+            if (v < pivot) {
+                dst[lt++] = v;
+            } else if (v > pivot) {
+                dst[--gt] = v;
+            }
+        }
+        for (int i = lt; i < gt; i++) dst[i] = pivot;
+        return (long) (lt - from) << 32 | (to - gt);
+    }
+
+    @Override
+    public int blockSize() {
+        return BLOCK_SIZE;
+    }
+
+    @Override
+    public void sortBlock(int[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int key = a[i];
+            int j = i - 1;
+            while (j >= from && a[j] > key) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    @Override
+    public void merge(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] dst, int at) {
+        int i = aFrom, j = bFrom;
+        while (i < aTo && j < bTo) {
+            dst[at++] = a[i] <= b[j] ? a[i++] : b[j++];
+        }
+        System.arraycopy(a, i, dst, at, aTo - i);
+        System.arraycopy(b, j, dst, at + aTo - i, bTo - j);
+    }
+
+    @Override
+    public void squaredDistances(double[] xs, double[] ys, int from, int to, double x, double y,
+            double[] out, int outFrom) {
+        for (int i = from; i < to; i++) {
+            double dx = xs[i] - x;
+            double dy = ys[i] - y;
+            out[outFrom + i - from] = dx * dx + dy * dy;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.dnc.algorithms.simd;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels on the Vector API at the platform's preferred width (8 int lanes
+ * with AVX2, 16 with AVX-512). Partitioning compresses each vector by its
+ * less-than and greater-than masks and stores the packed lanes with a prefix
+ * mask. Blocks of one vector are sorted with a bitonic network, and merging
+ * runs a bitonic merge of two vectors, keeping the upper half for the next
+ * step (Inoue and Taura's scheme). Tails shorter than a vector fall back to
+ * scalar code.
+ */
+public final class VectorKernels implements Kernels {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = INTS.length();
+    private static final int DOUBLE_LANES = DOUBLES.length();
+    // PREFIX[c] selects the first c lanes
+    private static final VectorMask<Integer>[] PREFIX = prefixMasks();
+    private static final VectorShuffle<Integer> REVERSE = VectorShuffle.fromOp(INTS, i -> LANES - 1 - i);
+    // Bitonic sorting network: partner shuffle and take-max mask for each compare-exchange step
+    private static final VectorShuffle<Integer>[] SORT_PARTNER;
+    private static final VectorMask<Integer>[] SORT_TAKE_MAX;
+    // Bitonic merge half-cleaners, from distance LANES / 2 down to 1
+    private static final VectorShuffle<Integer>[] MERGE_PARTNER;
+    private static final VectorMask<Integer>[] MERGE_TAKE_MAX;
+
+    static {
+        int log = Integer.numberOfTrailingZeros(LANES);
+        SORT_PARTNER = newShuffles(log * (log + 1) / 2);
+        SORT_TAKE_MAX = newMasks(log * (log + 1) / 2);
+        int step = 0;
+        for (int k = 2; k <= LANES; k <<= 1) {
+            for (int j = k >> 1; j > 0; j >>= 1) {
+                int stride = j, block = k;
+                SORT_PARTNER[step] = VectorShuffle.fromOp(INTS, i -> i ^ stride);
+                boolean[] takeMax = new boolean[LANES];
+                for (int i = 0; i < LANES; i++) {
+                    takeMax[i] = ((i & stride) != 0) != ((i & block) != 0);
+                }
+                SORT_TAKE_MAX[step++] = VectorMask.fromArray(INTS, takeMax, 0);
+            }
+        }
+
+        MERGE_PARTNER = newShuffles(log);
+        MERGE_TAKE_MAX = newMasks(log);
+        step = 0;
+        for (int j = LANES >> 1; j > 0; j >>= 1) {
+            int stride = j;
+            MERGE_PARTNER[step] = VectorShuffle.fromOp(INTS, i -> i ^ stride);
+            boolean[] takeMax = new boolean[LANES];
+            for (int i = 0; i < LANES; i++) takeMax[i] = (i & stride) != 0;
+            MERGE_TAKE_MAX[step++] = VectorMask.fromArray(INTS, takeMax, 0);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + INTS.vectorBitSize();
+    }
+
+    @Override
+    public long partition(int[] src, int from, int to, int pivot, int[] dst) {
+        int lt = from, gt = to;
+        int i = from;
+        for (int bound = INTS.loopBound(to - from) + from; i < bound; i += LANES) {
+            IntVector v = IntVector.fromArray(INTS, src, i);
+            VectorMask<Integer> less = v.compare(VectorOperators.LT, pivot);
+            VectorMask<Integer> greater = v.compare(VectorOperators.GT, pivot);
+            int lessCount = less.trueCount();
+            int greaterCount = greater.trueCount();
+            v.compress(less).intoArray(dst, lt, PREFIX[lessCount]);
+            lt += lessCount;
+            gt -= greaterCount;
+            v.compress(greater).intoArray(dst, gt, PREFIX[greaterCount]);
+        }
+        for (; i < to; i++) {
+            int v = src[i];
+            if (v < pivot) {
+                dst[lt++] = v;
+            } else if (v > pivot) {
+                dst[--gt] = v;
+            }
+        }
+        for (int e = lt; e < gt; e++) dst[e] = pivot;
+        return (long) (lt - from) << 32 | (to - gt);
+    }
+
+    @Override
+    public int blockSize() {
+        return LANES;
+    }
+
+    @Override
+    public void sortBlock(int[] a, int from, int to) {
+        VectorMask<Integer> live = PREFIX[to - from];
+        // Padding lanes hold MAX_VALUE, which sorts to the unused end of the vector
+        IntVector v = IntVector.broadcast(INTS, Integer.MAX_VALUE).blend(IntVector.fromArray(INTS, a, from, live), live);
+        for (int step = 0; step < SORT_PARTNER.length; step++) {
+            IntVector partner = v.rearrange(SORT_PARTNER[step]);
+            v = v.min(partner).blend(v.max(partner), SORT_TAKE_MAX[step]);
+        }
+        v.intoArray(a, from, live);
+    }
+
+    @Override
+    public void merge(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] dst, int at) {
+        int end = at + (aTo - aFrom) + (bTo - bFrom);
+        if (aTo - aFrom < LANES || bTo - bFrom < LANES) {
+            mergeTail(a, aFrom, aTo, b, bFrom, bTo, dst, at, end, end);
+            return;
+        }
+
+        IntVector carry = IntVector.fromArray(INTS, a, aFrom);
+        IntVector next = IntVector.fromArray(INTS, b, bFrom);
+        int i = aFrom + LANES, j = bFrom + LANES;
+        while (true) {
+            // Both inputs are sorted, so reversing one makes their concatenation bitonic
+            IntVector reversed = next.rearrange(REVERSE);
+            IntVector low = clean(carry.min(reversed));
+            carry = clean(carry.max(reversed));
+            low.intoArray(dst, at);
+            at += LANES;
+
+            // Refill from the run with the smaller head; stop once it cannot supply a full vector
+            boolean fromA = j >= bTo || (i < aTo && a[i] <= b[j]);
+            if (fromA && i + LANES <= aTo) {
+                next = IntVector.fromArray(INTS, a, i);
+                i += LANES;
+            } else if (!fromA && j + LANES <= bTo) {
+                next = IntVector.fromArray(INTS, b, j);
+                j += LANES;
+            } else {
+                break;
+            }
+        }
+
+        // The carried lanes go to the very end of the output, which the tail merge reaches last
+        carry.intoArray(dst, end - LANES);
+        mergeTail(a, i, aTo, b, j, bTo, dst, at, end, end - LANES);
+    }
+
+    /**
+     * Sorts a bitonic vector with half-cleaners.
+     */
+    private static IntVector clean(IntVector v) {
+        for (int step = 0; step < MERGE_PARTNER.length; step++) {
+            IntVector partner = v.rearrange(MERGE_PARTNER[step]);
+            v = v.min(partner).blend(v.max(partner), MERGE_TAKE_MAX[step]);
+        }
+        return v;
+    }
+
+    /**
+     * Three-way merge of a[i, aTo), b[j, bTo) and the sorted lanes already at
+     * dst[c, end) into dst[at, end). The write position never passes the
+     * unread carried lanes, since it trails them by the unmerged a and b keys.
+     */
+    private static void mergeTail(int[] a, int i, int aTo, int[] b, int j, int bTo, int[] dst, int at, int end, int c) {
+        while (i < aTo || j < bTo) {
+            int v;
+            if (j >= bTo || (i < aTo && a[i] <= b[j])) {
+                if (c < end && dst[c] < a[i]) {
+                    v = dst[c++];
+                } else {
+                    v = a[i++];
+                }
+            } else if (c < end && dst[c] < b[j]) {
+                v = dst[c++];
+            } else {
+                v = b[j++];
+            }
+            dst[at++] = v;
+        }
+    }
+
+    @Override
+    public void squaredDistances(double[] xs, double[] ys, int from, int to, double x, double y,
+            double[] out, int outFrom) {
+        int i = from;
+        for (int bound = DOUBLES.loopBound(to - from) + from; i < bound; i += DOUBLE_LANES) {
+            DoubleVector dx = DoubleVector.fromArray(DOUBLES, xs, i).sub(x);
+            DoubleVector dy = DoubleVector.fromArray(DOUBLES, ys, i).sub(y);
+            dx.mul(dx).add(dy.mul(dy)).intoArray(out, outFrom + i - from);
+        }
+        for (; i < to; i++) {
+            double dx = xs[i] - x;
+            double dy = ys[i] - y;
+            out[outFrom + i - from] = dx * dx + dy * dy;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VectorMask<Integer>[] prefixMasks() {
+        VectorMask<Integer>[] masks = (VectorMask<Integer>[]) new VectorMask<?>[LANES + 1];
+        for (int c = 0; c <= LANES; c++) masks[c] = INTS.indexInRange(0, c);
+        return masks;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VectorShuffle<Integer>[] newShuffles(int n) {
+        return (VectorShuffle<Integer>[]) new VectorShuffle<?>[n];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VectorMask<Integer>[] newMasks(int n) {
+        return (VectorMask<Integer>[]) new VectorMask<?>[n];
+    }
+}
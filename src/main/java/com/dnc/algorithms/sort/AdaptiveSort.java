@@ -0,0 +1,92 @@
+package com.dnc.algorithms.sort;
+
+import com.dnc.algorithms.metrics.Metrics;
+
+/**
+ * Front door that samples the input and routes it to the cheapest engine:
+ * insertion sort for tiny arrays, radix sort for large arrays whose value
+ * range needs at most three byte passes, natural merge sort for mostly
+ * ascending or mostly descending input and introsort for everything else. Each decision is recorded with
+ * {@link Metrics#recordDispatch(String, long)}.
+ */
+public class AdaptiveSort {
+    public enum Engine { INSERTION, RADIX, MERGE, QUICK }
+
+    private static final int INSERTION_MAX = 32;
+    private static final int RADIX_MIN = 1 << 12;
+    private static final long RADIX_MAX_RANGE = 1L << 24;
+    private static final int SAMPLE_SIZE = 64;
+    private static final double PRESORTED_RATIO = 0.9;
+    private final Metrics metrics;
+    private final RadixSort radixSort;
+    private final NaturalMergeSort mergeSort;
+    private final IntroSort introSort;
+
+    public AdaptiveSort(Metrics metrics) {
+        this.metrics = metrics;
+        this.radixSort = new RadixSort(metrics);
+        this.mergeSort = new NaturalMergeSort(metrics);
+        this.introSort = new IntroSort(metrics);
+    }
+
+    public Engine sort(int[] arr) {
+        Engine engine = choose(arr);
+        metrics.recordDispatch(engine.name(), arr.length);
+        switch (engine) {
+            case INSERTION:
+                insertionSort(arr, 0, arr.length - 1);
+                break;
+            case RADIX:
+                radixSort.sort(arr);
+                break;
+            case MERGE:
+                mergeSort.sort(arr);
+                break;
+            default:
+                introSort.sort(arr);
+                break;
+        }
+        return engine;
+    }
+
+    /**
+     * Picks an engine from the size, a sampled value range and the fraction of
+     * sampled adjacent pairs that are already in order.
+     */
+    public Engine choose(int[] arr) {
+        int n = arr.length;
+        if (n <= INSERTION_MAX) return Engine.INSERTION;
+
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        int ordered = 0;
+        for (int s = 0; s < SAMPLE_SIZE; s++) {
+            // Spread over the whole array, first pair to last; short arrays repeat some pairs
+            int i = (int) ((long) s * (n - 2) / (SAMPLE_SIZE - 1));
+            int a = arr[i], b = arr[i + 1];
+            min = Math.min(min, Math.min(a, b));
+            max = Math.max(max, Math.max(a, b));
+            if (a <= b) ordered++;
+        }
+
+        // Descending runs are reversed in place, so they count as presorted too
+        if (ordered >= PRESORTED_RATIO * SAMPLE_SIZE || ordered <= (1 - PRESORTED_RATIO) * SAMPLE_SIZE) {
+            return Engine.MERGE;
+        }
+        if (n >= RADIX_MIN && (long) max - min < RADIX_MAX_RANGE) return Engine.RADIX;
+        return Engine.QUICK;
+    }
+
+    private void insertionSort(int[] arr, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int key = arr[i];
+            int j = i - 1;
+            while (j >= left && arr[j] > key) {
+                metrics.incrementComparisons();
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            metrics.incrementComparisons(); // Final comparison that fails
+            arr[j + 1] = key;
+        }
+    }
+}
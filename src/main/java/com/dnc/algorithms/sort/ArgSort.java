@@ -0,0 +1,181 @@
+package com.dnc.algorithms.sort;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.util.ScratchArena;
+
+/**
+ * Argsort and stable key/payload sorting over primitive keys, so records can
+ * be ordered by the radix engine without boxing or a Comparator.
+ *
+ * <p>Int keys are packed with their index into one long: the key in the high
+ * bits, shifted by just enough bits to hold the index, and the index below
+ * it. The packed values are sorted with {@link RadixSort}, and ties between
+ * equal keys fall to the index, so the result is stable. A small key range
+ * on a small input needs fewer byte passes than a full 64-bit sort. Long and
+ * double keys leave no room for an index, so they go through the radix
+ * sort's key/payload mode instead, which is stable on its own. Doubles are
+ * first mapped to longs that order like {@link Double#compare}: -0.0 before
+ * 0.0, and NaN last.
+ *
+ * <p>Scratch arrays come from a {@link ScratchArena}; only the returned
+ * permutations are allocated.
+ */
+public class ArgSort {
+    private final Metrics metrics;
+    private final ScratchArena arena;
+    private final RadixSort radix;
+
+    public ArgSort(Metrics metrics) {
+        this(metrics, null);
+    }
+
+    /**
+     * Draws scratch from arena; null uses the calling thread's arena.
+     */
+    public ArgSort(Metrics metrics, ScratchArena arena) {
+        this.metrics = metrics;
+        this.arena = arena;
+        this.radix = new RadixSort(metrics, arena);
+    }
+
+    /**
+     * Returns the permutation that sorts keys: keys[order[0]] <= keys[order[1]]
+     * <= ..., with equal keys in index order. keys is not modified.
+     */
+    public int[] argsort(int[] keys) {
+        int n = keys.length;
+        int[] order = new int[n];
+        if (n == 0) return order;
+
+        ScratchArena scratch = ScratchArena.orLocal(arena);
+        long[] packed = scratch.borrowLongs(n, metrics);
+        int bits = indexBits(n);
+        pack(keys, packed, n, bits);
+        radix.sort(packed, 0, n);
+
+        long mask = (1L << bits) - 1;
+        for (int i = 0; i < n; i++) order[i] = (int) (packed[i] & mask);
+        scratch.release(packed);
+        return order;
+    }
+
+    public int[] argsort(long[] keys) {
+        int n = keys.length;
+        int[] order = identity(n);
+        ScratchArena scratch = ScratchArena.orLocal(arena);
+        long[] copy = scratch.borrowLongs(n, metrics);
+        System.arraycopy(keys, 0, copy, 0, n);
+        radix.sort(copy, order, 0, n);
+        scratch.release(copy);
+        return order;
+    }
+
+    /**
+     * Orders like {@link Double#compare}; see the class comment.
+     */
+    public int[] argsort(double[] keys) {
+        int n = keys.length;
+        int[] order = identity(n);
+        ScratchArena scratch = ScratchArena.orLocal(arena);
+        long[] bits = scratch.borrowLongs(n, metrics);
+        for (int i = 0; i < n; i++) bits[i] = sortableBits(keys[i]);
+        radix.sort(bits, order, 0, n);
+        scratch.release(bits);
+        return order;
+    }
+
+    /**
+     * Stable sort of keys that applies the same permutation to payload.
+     */
+    public void sort(int[] keys, int[] payload) {
+        int n = checkLengths(keys.length, payload.length);
+        if (n < 2) return;
+
+        ScratchArena scratch = ScratchArena.orLocal(arena);
+        long[] packed = scratch.borrowLongs(n, metrics);
+        int[] moved = scratch.borrowInts(n, metrics);
+        int bits = indexBits(n);
+        pack(keys, packed, n, bits);
+        radix.sort(packed, 0, n);
+
+        System.arraycopy(payload, 0, moved, 0, n);
+        long mask = (1L << bits) - 1;
+        for (int i = 0; i < n; i++) {
+            keys[i] = (int) (packed[i] >> bits);
+            payload[i] = moved[(int) (packed[i] & mask)];
+        }
+        scratch.release(packed);
+        scratch.release(moved);
+    }
+
+    public void sort(long[] keys, int[] payload) {
+        int n = checkLengths(keys.length, payload.length);
+        radix.sort(keys, payload, 0, n);
+    }
+
+    /**
+     * Stable sort of keys in {@link Double#compare} order that applies the same
+     * permutation to payload. Keys are moved, not recomputed, so NaN bit
+     * patterns survive.
+     */
+    public void sort(double[] keys, int[] payload) {
+        int n = checkLengths(keys.length, payload.length);
+        if (n < 2) return;
+
+        ScratchArena scratch = ScratchArena.orLocal(arena);
+        long[] bits = scratch.borrowLongs(n, metrics);
+        int[] order = scratch.borrowInts(n, metrics);
+        for (int i = 0; i < n; i++) {
+            bits[i] = sortableBits(keys[i]);
+            order[i] = i;
+        }
+        radix.sort(bits, order, 0, n);
+
+        double[] keyCopy = scratch.borrowDoubles(n, metrics);
+        int[] payloadCopy = scratch.borrowInts(n, metrics);
+        System.arraycopy(keys, 0, keyCopy, 0, n);
+        System.arraycopy(payload, 0, payloadCopy, 0, n);
+        for (int i = 0; i < n; i++) {
+            keys[i] = keyCopy[order[i]];
+            payload[i] = payloadCopy[order[i]];
+        }
+        scratch.release(bits);
+        scratch.release(order);
+        scratch.release(keyCopy);
+        scratch.release(payloadCopy);
+    }
+
+    /**
+     * Maps a double to a long whose signed order matches {@link Double#compare}.
+     */
+    static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        // Negative values have their magnitude bits flipped so larger magnitudes sort first
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Packs keys[i] above an index field of the given width. The key keeps its
+     * sign, so signed order of the packed value is (key, index) order.
+     */
+    private static void pack(int[] keys, long[] packed, int n, int bits) {
+        for (int i = 0; i < n; i++) packed[i] = (long) keys[i] << bits | i;
+    }
+
+    private static int indexBits(int n) {
+        return n <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(n - 1);
+    }
+
+    private static int[] identity(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        return order;
+    }
+
+    private static int checkLengths(int keys, int payload) {
+        if (keys != payload) {
+            throw new IllegalArgumentException("keys and payload differ in length: " + keys + " vs " + payload);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,283 @@
+package com.dnc.algorithms.sort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.dnc.algorithms.metrics.Metrics;
+
+/**
+ * External merge sort for binary files of big-endian ints or longs that do
+ * not fit on the heap. The input is mapped chunk by chunk, each chunk is
+ * sorted in memory (ints through {@link AdaptiveSort}, longs through
+ * {@link RadixSort}) and spilled as a run, and the runs are combined with a
+ * k-way heap merge over large sequential buffers. When there are more runs
+ * than {@link #MAX_FAN_IN}, intermediate merge passes reduce them first.
+ */
+public class ExternalSort {
+    public enum Width {
+        INT(Integer.BYTES), LONG(Long.BYTES);
+
+        final int bytes;
+
+        Width(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    static final int MAX_FAN_IN = 128;
+    private static final int MIN_IO_BUFFER = 64 * 1024;
+    private static final int MAX_IO_BUFFER = 8 * 1024 * 1024;
+    private static final long MAX_MAPPED_CHUNK = Integer.MAX_VALUE & ~7L;
+    private final Metrics metrics;
+    private final long memoryBytes;
+    private final Path tempDir;
+
+    public ExternalSort(Metrics metrics, long memoryBytes) {
+        this(metrics, memoryBytes, null);
+    }
+
+    /**
+     * @param memoryBytes heap budget for sorting a single run; half of it
+     *     holds the chunk and half the sort's scratch buffer of the same size
+     * @param tempDir directory for spilled runs, or null for the system default
+     */
+    public ExternalSort(Metrics metrics, long memoryBytes, Path tempDir) {
+        if (memoryBytes < MIN_IO_BUFFER) {
+            throw new IllegalArgumentException("memory budget too small: " + memoryBytes + " bytes");
+        }
+        this.metrics = metrics;
+        this.memoryBytes = memoryBytes;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Sorts the input file into the output file and returns the number of
+     * initial runs that were spilled.
+     */
+    public int sort(Path input, Path output, Width width) throws IOException {
+        long size = Files.size(input);
+        if (size % width.bytes != 0) {
+            throw new IOException(input + " is not a whole number of " + width + " values (" + size + " bytes)");
+        }
+
+        List<Path> spilled = new ArrayList<>();
+        try {
+            List<Path> runs = createRuns(input, output, width, size, spilled);
+            int initialRuns = Math.max(1, runs.size());
+            if (runs.size() <= 1) return initialRuns;
+
+            while (runs.size() > MAX_FAN_IN) {
+                List<Path> next = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                    List<Path> group = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+                    Path merged = createTempRun(spilled);
+                    next.add(merged);
+                    merge(group, merged, width);
+                    for (Path run : group) Files.deleteIfExists(run);
+                }
+                runs = next;
+            }
+            merge(runs, output, width);
+            return initialRuns;
+        } finally {
+            for (Path run : spilled) Files.deleteIfExists(run);
+        }
+    }
+
+    /**
+     * Sorts the input chunk by chunk. A single chunk is written straight to the
+     * output and no runs are returned.
+     */
+    private List<Path> createRuns(Path input, Path output, Width width, long size, List<Path> spilled)
+            throws IOException {
+        List<Path> runs = new ArrayList<>();
+        // AdaptiveSort and RadixSort both borrow a buffer as large as the chunk
+        long chunkBytes = Math.min(memoryBytes / 2, MAX_MAPPED_CHUNK) / width.bytes * width.bytes;
+        boolean singleRun = size <= chunkBytes;
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            for (long pos = 0; pos < size || (pos == 0 && singleRun); pos += chunkBytes) {
+                int count = (int) (Math.min(chunkBytes, size - pos) / width.bytes);
+                MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, pos, (long) count * width.bytes);
+                mapped.order(ByteOrder.BIG_ENDIAN);
+
+                Path run = singleRun ? output : createTempRun(spilled);
+                if (!singleRun) runs.add(run);
+
+                if (width == Width.INT) {
+                    int[] chunk = new int[count];
+                    metrics.incrementAllocations(count);
+                    mapped.asIntBuffer().get(chunk);
+                    new AdaptiveSort(metrics).sort(chunk);
+                    writeRun(run, chunk);
+                } else {
+                    long[] chunk = new long[count];
+                    metrics.incrementAllocations(count);
+                    mapped.asLongBuffer().get(chunk);
+                    new RadixSort(metrics).sort(chunk);
+                    writeRun(run, chunk);
+                }
+                if (singleRun) break;
+            }
+        }
+        return runs;
+    }
+
+    private void writeRun(Path run, int[] chunk) throws IOException {
+        try (FileChannel out = openForWrite(run)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(ioBufferSize(1)).order(ByteOrder.BIG_ENDIAN);
+            int perBuffer = buffer.capacity() / Integer.BYTES;
+            for (int off = 0; off < chunk.length; off += perBuffer) {
+                int m = Math.min(perBuffer, chunk.length - off);
+                buffer.clear();
+                buffer.asIntBuffer().put(chunk, off, m);
+                buffer.limit(m * Integer.BYTES);
+                writeFully(out, buffer);
+            }
+        }
+    }
+
+    private void writeRun(Path run, long[] chunk) throws IOException {
+        try (FileChannel out = openForWrite(run)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(ioBufferSize(1)).order(ByteOrder.BIG_ENDIAN);
+            int perBuffer = buffer.capacity() / Long.BYTES;
+            for (int off = 0; off < chunk.length; off += perBuffer) {
+                int m = Math.min(perBuffer, chunk.length - off);
+                buffer.clear();
+                buffer.asLongBuffer().put(chunk, off, m);
+                buffer.limit(m * Long.BYTES);
+                writeFully(out, buffer);
+            }
+        }
+    }
+
+    private void merge(List<Path> runs, Path output, Width width) throws IOException {
+        int k = runs.size();
+        int bufferSize = ioBufferSize(k + 1);
+        RunReader[] readers = new RunReader[k];
+        int[] heap = new int[k];
+        int heapSize = 0;
+
+        try (FileChannel out = openForWrite(output)) {
+            for (int i = 0; i < k; i++) {
+                readers[i] = new RunReader(runs.get(i), width, bufferSize);
+                if (readers[i].advance()) heap[heapSize++] = i;
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) siftDown(heap, heapSize, i, readers);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.BIG_ENDIAN);
+            while (heapSize > 0) {
+                RunReader top = readers[heap[0]];
+                if (buffer.remaining() < width.bytes) {
+                    buffer.flip();
+                    writeFully(out, buffer);
+                    buffer.clear();
+                }
+                if (width == Width.INT) {
+                    buffer.putInt((int) top.current);
+                } else {
+                    buffer.putLong(top.current);
+                }
+
+                if (!top.advance()) {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(heap, heapSize, 0, readers);
+            }
+            buffer.flip();
+            writeFully(out, buffer);
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) reader.close();
+            }
+        }
+    }
+
+    private void siftDown(int[] heap, int size, int i, RunReader[] readers) {
+        int item = heap[i];
+        long value = readers[item].current;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size) {
+                metrics.incrementComparisons();
+                if (readers[heap[child + 1]].current < readers[heap[child]].current) child++;
+            }
+            metrics.incrementComparisons();
+            if (value <= readers[heap[child]].current) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = item;
+    }
+
+    private int ioBufferSize(int streams) {
+        long perStream = memoryBytes / streams;
+        return (int) Math.max(MIN_IO_BUFFER, Math.min(MAX_IO_BUFFER, perStream)) & ~7;
+    }
+
+    private Path createTempRun(List<Path> spilled) throws IOException {
+        Path run = tempDir == null
+            ? Files.createTempFile("dnc-run-", ".bin")
+            : Files.createTempFile(tempDir, "dnc-run-", ".bin");
+        spilled.add(run);
+        return run;
+    }
+
+    private static FileChannel openForWrite(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Sequential reader over one sorted run; {@link #current} holds the value
+     * last returned by {@link #advance()}.
+     */
+    private static final class RunReader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final Width width;
+        long current;
+
+        RunReader(Path run, Width width, int bufferSize) throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.BIG_ENDIAN);
+            this.buffer.limit(0);
+            this.width = width;
+        }
+
+        boolean advance() throws IOException {
+            if (buffer.remaining() < width.bytes) {
+                buffer.compact();
+                while (buffer.position() < width.bytes) {
+                    if (channel.read(buffer) < 0) {
+                        buffer.flip();
+                        return false;
+                    }
+                }
+                buffer.flip();
+            }
+            current = width == Width.INT ? buffer.getInt() : buffer.getLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
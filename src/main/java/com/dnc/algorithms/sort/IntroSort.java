@@ -0,0 +1,163 @@
+package com.dnc.algorithms.sort;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.profiling.InvocationEvent;
+import com.dnc.algorithms.profiling.PartitionEvent;
+import com.dnc.algorithms.profiling.Profiling;
+import com.dnc.algorithms.util.ArrayUtils;
+
+/**
+ * Introsort-style quicksort: Bentley-McIlroy 3-way partitioning around a
+ * median-of-3 (or Tukey ninther for larger ranges) pivot, insertion sort for
+ * small ranges, and a heapsort fallback once the depth budget of
+ * 2 * floor(log2 n) partitions is spent. Runs of equal keys are gathered
+ * around the pivot and never recursed into, so low-cardinality input stays
+ * O(n log n) without shuffling.
+ */
+public class IntroSort {
+    private static final int INSERTION_CUTOFF = 16;
+    private static final int NINTHER_THRESHOLD = 40;
+    private final Metrics metrics;
+    private int depth; // Recursion depth reported by partition events
+
+    public IntroSort(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void sort(int[] arr) {
+        sort(arr, 0, arr.length - 1);
+    }
+
+    /**
+     * Sorts arr[low..high] (inclusive).
+     */
+    public void sort(int[] arr, int low, int high) {
+        if (high - low < 1) return;
+        InvocationEvent event = Profiling.invocation();
+        int depthBudget = 2 * (31 - Integer.numberOfLeadingZeros(high - low + 1));
+        sort(arr, low, high, depthBudget);
+        if (event != null) event.record("IntroSort", "sort", high - low + 1);
+    }
+
+    private void sort(int[] arr, int low, int high, int depthBudget) {
+        while (high - low >= INSERTION_CUTOFF) {
+            metrics.enterRecursion();
+
+            if (depthBudget-- == 0) {
+                heapSort(arr, low, high);
+                metrics.exitRecursion();
+                return;
+            }
+
+            PartitionEvent event = Profiling.partition();
+            ArrayUtils.swap(arr, low, choosePivot(arr, low, high));
+            int pivot = arr[low];
+
+            // Bentley-McIlroy: keys equal to the pivot are parked at both ends while scanning
+            int i = low, j = high + 1;
+            int p = low, q = high + 1;
+            while (true) {
+                while (less(arr[++i], pivot)) {
+                    if (i == high) break;
+                }
+                while (less(pivot, arr[--j])) {
+                    if (j == low) break;
+                }
+                if (i == j && arr[i] == pivot) ArrayUtils.swap(arr, ++p, i);
+                if (i >= j) break;
+
+                ArrayUtils.swap(arr, i, j);
+                if (arr[i] == pivot) ArrayUtils.swap(arr, ++p, i);
+                if (arr[j] == pivot) ArrayUtils.swap(arr, --q, j);
+            }
+
+            // Move the parked equal keys into the middle: [low..j] < pivot < [i..high]
+            i = j + 1;
+            for (int k = low; k <= p; k++) ArrayUtils.swap(arr, k, j--);
+            for (int k = high; k >= q; k--) ArrayUtils.swap(arr, k, i++);
+            if (event != null) event.record("IntroSort", depth, high - low + 1, j - low + 1, high - i + 1);
+
+            // Recurse on smaller partition, iterate on larger
+            depth++;
+            if (j - low < high - i) {
+                sort(arr, low, j, depthBudget);
+                low = i;
+            } else {
+                sort(arr, i, high, depthBudget);
+                high = j;
+            }
+            depth--;
+
+            metrics.exitRecursion();
+        }
+
+        insertionSort(arr, low, high);
+    }
+
+    private int choosePivot(int[] arr, int low, int high) {
+        int n = high - low + 1;
+        int mid = low + n / 2;
+        if (n <= NINTHER_THRESHOLD) {
+            return median3(arr, low, mid, high);
+        }
+
+        // Tukey's ninther: median of the medians of three evenly spaced triples
+        int eps = n / 8;
+        int m1 = median3(arr, low, low + eps, low + 2 * eps);
+        int m2 = median3(arr, mid - eps, mid, mid + eps);
+        int m3 = median3(arr, high - 2 * eps, high - eps, high);
+        return median3(arr, m1, m2, m3);
+    }
+
+    private int median3(int[] arr, int a, int b, int c) {
+        if (less(arr[a], arr[b])) {
+            if (less(arr[b], arr[c])) return b;
+            return less(arr[a], arr[c]) ? c : a;
+        }
+        if (less(arr[c], arr[b])) return b;
+        return less(arr[c], arr[a]) ? c : a;
+    }
+
+    private void heapSort(int[] arr, int low, int high) {
+        int n = high - low + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(arr, low, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            ArrayUtils.swap(arr, low, low + end);
+            siftDown(arr, low, 0, end);
+        }
+    }
+
+    private void siftDown(int[] arr, int offset, int i, int n) {
+        int value = arr[offset + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) break;
+            if (child + 1 < n && less(arr[offset + child], arr[offset + child + 1])) child++;
+            if (!less(value, arr[offset + child])) break;
+            arr[offset + i] = arr[offset + child];
+            i = child;
+        }
+        arr[offset + i] = value;
+    }
+
+    private void insertionSort(int[] arr, int low, int high) {
+        for (int i = low + 1; i <= high; i++) {
+            int key = arr[i];
+            int j = i - 1;
+            while (j >= low && arr[j] > key) {
+                metrics.incrementComparisons();
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            metrics.incrementComparisons(); // Final comparison that fails
+            arr[j + 1] = key;
+        }
+    }
+
+    private boolean less(int a, int b) {
+        metrics.incrementComparisons();
+        return a < b;
+    }
+}
@@ -1,21 +1,50 @@
 package com.dnc.algorithms.sort;
 
-import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.profiling.InvocationEvent;
+import com.dnc.algorithms.profiling.MergeEvent;
+import com.dnc.algorithms.profiling.Profiling;
+import com.dnc.algorithms.util.ScratchArena;
 
 public class MergeSort {
     private static final int CUTOFF = 15; // Switch to insertion sort for small arrays
-    private final MetricsTracker metrics;
+    private final Metrics metrics;
+    private final ScratchArena arena;
+    private final String engineName; // Engine reported by merge events
+    private int depth; // Recursion depth reported by merge events
     
-    public MergeSort(MetricsTracker metrics) {
+    public MergeSort(Metrics metrics) {
+        this(metrics, null);
+    }
+    
+    /**
+     * Draws the merge buffer from arena; null uses the calling thread's arena.
+     */
+    public MergeSort(Metrics metrics, ScratchArena arena) {
+        this(metrics, arena, "MergeSort", 0);
+    }
+    
+    /**
+     * Leaf sorter of a parallel engine: merge events carry that engine's
+     * name and count depth on from the leaf's own.
+     */
+    MergeSort(Metrics metrics, ScratchArena arena, String engineName, int baseDepth) {
         this.metrics = metrics;
+        this.arena = arena;
+        this.engineName = engineName;
+        this.depth = baseDepth;
     }
     
     public void sort(int[] arr) {
-        int[] buffer = new int[arr.length];
+        InvocationEvent event = Profiling.invocation();
+        ScratchArena scratch = ScratchArena.orLocal(arena);
+        int[] buffer = scratch.borrowInts(arr.length, metrics);
         sort(arr, buffer, 0, arr.length - 1);
+        scratch.release(buffer);
+        if (event != null) event.record("MergeSort", "sort", arr.length);
     }
     
-    private void sort(int[] arr, int[] buffer, int left, int right) {
+    void sort(int[] arr, int[] buffer, int left, int right) {
         metrics.enterRecursion();
         
         if (right - left <= CUTOFF) {
@@ -25,29 +54,38 @@ public class MergeSort {
         }
         
         int mid = left + (right - left) / 2;
+        depth++;
         sort(arr, buffer, left, mid);
         sort(arr, buffer, mid + 1, right);
-        merge(arr, buffer, left, mid, right);
+        depth--;
+        // Halves that are already in order need no merge
+        metrics.incrementComparisons();
+        if (arr[mid] > arr[mid + 1]) {
+            merge(arr, buffer, left, mid, right);
+        }
         
         metrics.exitRecursion();
     }
     
-    private void merge(int[] arr, int[] buffer, int left, int mid, int right) {
-        System.arraycopy(arr, left, buffer, left, right - left + 1);
-        metrics.incrementAllocations(right - left + 1);
+    void merge(int[] arr, int[] buffer, int left, int mid, int right) {
+        MergeEvent event = Profiling.merge();
+        // Only the left run moves out; the right run is read in place, since
+        // the write position never passes it
+        System.arraycopy(arr, left, buffer, left, mid - left + 1);
+        metrics.incrementAllocations(mid - left + 1);
         
         int i = left, j = mid + 1, k = left;
         while (i <= mid && j <= right) {
             metrics.incrementComparisons();
-            if (buffer[i] <= buffer[j]) {
+            if (buffer[i] <= arr[j]) {
                 arr[k++] = buffer[i++];
             } else {
-                arr[k++] = buffer[j++];
+                arr[k++] = arr[j++];
             }
         }
         
         while (i <= mid) arr[k++] = buffer[i++];
-        while (j <= right) arr[k++] = buffer[j++];
+        if (event != null) event.record(engineName, depth, mid - left + 1, right - mid);
     }
     
     private void insertionSort(int[] arr, int left, int right) {
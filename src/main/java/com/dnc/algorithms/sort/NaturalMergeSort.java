@@ -0,0 +1,461 @@
+package com.dnc.algorithms.sort;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.util.ScratchArena;
+
+/**
+ * Adaptive merge sort in the style of TimSort. The input is cut into its
+ * natural runs, with strictly descending runs reversed in place, and runs
+ * shorter than the minimum run length are extended with binary insertion
+ * sort. Runs are merged off a stack whose lengths stay balanced. Before a
+ * merge, galloping trims the parts of both runs that are already in place,
+ * and runs that are already in order are not merged at all. During a merge,
+ * galloping takes over whenever one run keeps winning.
+ *
+ * <p>Sorted and reverse-sorted input take n - 1 comparisons and no merges.
+ * Input made of a few long runs, such as a nearly ordered event stream,
+ * finishes close to O(n). On random input it is somewhat slower than
+ * {@link MergeSort}, which is why {@link AdaptiveSort} only routes presorted
+ * input here. The merge buffer is borrowed from a {@link ScratchArena} for
+ * the duration of a call.
+ */
+public class NaturalMergeSort {
+    private static final int MIN_MERGE = 32;
+    private static final int MIN_GALLOP = 7;
+    // Run lengths on the stack grow at least like Fibonacci numbers, so 64 entries cover any int length
+    private static final int MAX_STACK = 64;
+    private static final int[] EMPTY = new int[0];
+    private final Metrics metrics;
+    private final ScratchArena arena;
+    private final int[] runBase = new int[MAX_STACK];
+    private final int[] runLen = new int[MAX_STACK];
+    private int stackSize;
+    private int minGallop;
+    private ScratchArena scratch;
+    private int[] tmp = EMPTY;
+    private long comparisons;
+
+    public NaturalMergeSort(Metrics metrics) {
+        this(metrics, null);
+    }
+
+    /**
+     * Draws the merge buffer from arena; null uses the calling thread's arena.
+     */
+    public NaturalMergeSort(Metrics metrics, ScratchArena arena) {
+        this.metrics = metrics;
+        this.arena = arena;
+    }
+
+    public void sort(int[] arr) {
+        sort(arr, 0, arr.length);
+    }
+
+    /**
+     * Sorts arr[from, to).
+     */
+    public void sort(int[] arr, int from, int to) {
+        if (from < 0 || to > arr.length || from > to) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ")");
+        }
+        int remaining = to - from;
+        if (remaining < 2) return;
+        comparisons = 0;
+        scratch = ScratchArena.orLocal(arena);
+        stackSize = 0;
+        minGallop = MIN_GALLOP;
+
+        int lo = from;
+        int minRun = minRunLength(remaining);
+        while (remaining > 0) {
+            int length = countRunAndMakeAscending(arr, lo, to);
+            if (length < minRun) {
+                int forced = Math.min(remaining, minRun);
+                binarySort(arr, lo, lo + forced, lo + length);
+                length = forced;
+            }
+            runBase[stackSize] = lo;
+            runLen[stackSize] = length;
+            stackSize++;
+            mergeCollapse(arr);
+            lo += length;
+            remaining -= length;
+        }
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] < runLen[n + 1]) n--;
+            mergeAt(arr, n);
+        }
+
+        if (tmp != EMPTY) {
+            scratch.release(tmp);
+            tmp = EMPTY;
+        }
+        metrics.incrementComparisons(comparisons);
+    }
+
+    /**
+     * Returns the length of the run starting at lo, reversing it first if it
+     * is strictly descending. Strictness keeps equal keys in input order.
+     */
+    private int countRunAndMakeAscending(int[] a, int lo, int hi) {
+        int runHi = lo + 1;
+        if (runHi == hi) return 1;
+
+        if (a[runHi++] < a[lo]) {
+            while (runHi < hi && a[runHi] < a[runHi - 1]) runHi++;
+            reverse(a, lo, runHi);
+        } else {
+            while (runHi < hi && a[runHi] >= a[runHi - 1]) runHi++;
+        }
+        // Every step compared once, plus the comparison that ended the run
+        comparisons += runHi - lo - (runHi == hi ? 1 : 0);
+        return runHi - lo;
+    }
+
+    private static void reverse(int[] a, int lo, int hi) {
+        hi--;
+        while (lo < hi) {
+            int t = a[lo];
+            a[lo++] = a[hi];
+            a[hi--] = t;
+        }
+    }
+
+    /**
+     * Sorts a[lo, hi) given that a[lo, start) is already sorted, placing each
+     * further key with a binary search.
+     */
+    private void binarySort(int[] a, int lo, int hi, int start) {
+        for (; start < hi; start++) {
+            int pivot = a[start];
+            int left = lo, right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                comparisons++;
+                if (pivot < a[mid]) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            System.arraycopy(a, left, a, left + 1, start - left);
+            a[left] = pivot;
+        }
+    }
+
+    private static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    /**
+     * Merges runs until the stack invariants hold again: each run is longer
+     * than the next one, and longer than the sum of the next two.
+     */
+    private void mergeCollapse(int[] a) {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]
+                    || n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1]) {
+                if (runLen[n - 1] < runLen[n + 1]) n--;
+            } else if (runLen[n] > runLen[n + 1]) {
+                break;
+            }
+            mergeAt(a, n);
+        }
+    }
+
+    /**
+     * Merges the runs at stack positions i and i + 1.
+     */
+    private void mergeAt(int[] a, int i) {
+        int base1 = runBase[i], len1 = runLen[i];
+        int base2 = runBase[i + 1], len2 = runLen[i + 1];
+        runLen[i] = len1 + len2;
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLen[i + 1] = runLen[i + 2];
+        }
+        stackSize--;
+
+        // Runs already in order need nothing further
+        comparisons++;
+        if (a[base2 - 1] <= a[base2]) return;
+
+        // Keys of the first run not above the second run's head are already in place
+        int k = gallopRight(a[base2], a, base1, len1, 0);
+        base1 += k;
+        len1 -= k;
+        // Likewise keys of the second run not below the first run's tail
+        len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2, len2 - 1);
+
+        if (len1 <= len2) {
+            mergeLo(a, base1, len1, base2, len2);
+        } else {
+            mergeHi(a, base1, len1, base2, len2);
+        }
+    }
+
+    /**
+     * Returns the position in a[base, base + len) where key would go before
+     * any equal keys, searching outward from hint.
+     */
+    private int gallopLeft(int key, int[] a, int base, int len, int hint) {
+        int lastOfs = 0, ofs = 1;
+        comparisons++;
+        if (key > a[base + hint]) {
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && key > a[base + hint + ofs]) {
+                comparisons++;
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            lastOfs += hint;
+            ofs += hint;
+        } else {
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && key <= a[base + hint - ofs]) {
+                comparisons++;
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            int t = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - t;
+        }
+
+        // The answer lies in (lastOfs, ofs]
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            comparisons++;
+            if (key > a[base + m]) {
+                lastOfs = m + 1;
+            } else {
+                ofs = m;
+            }
+        }
+        return ofs;
+    }
+
+    /**
+     * Like {@link #gallopLeft}, but returns the position after any equal keys.
+     */
+    private int gallopRight(int key, int[] a, int base, int len, int hint) {
+        int lastOfs = 0, ofs = 1;
+        comparisons++;
+        if (key < a[base + hint]) {
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && key < a[base + hint - ofs]) {
+                comparisons++;
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            int t = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - t;
+        } else {
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && key >= a[base + hint + ofs]) {
+                comparisons++;
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            lastOfs += hint;
+            ofs += hint;
+        }
+
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            comparisons++;
+            if (key < a[base + m]) {
+                ofs = m;
+            } else {
+                lastOfs = m + 1;
+            }
+        }
+        return ofs;
+    }
+
+    /**
+     * Merges adjacent runs left to right, buffering the first (shorter) run.
+     * On entry the first key of run 2 belongs before run 1 and the last key of
+     * run 1 belongs after run 2, which the trimming in mergeAt guarantees.
+     */
+    private void mergeLo(int[] a, int base1, int len1, int base2, int len2) {
+        int[] t = ensureCapacity(len1);
+        System.arraycopy(a, base1, t, 0, len1);
+        int cursor1 = 0, cursor2 = base2, dest = base1;
+
+        a[dest++] = a[cursor2++];
+        if (--len2 == 0) {
+            System.arraycopy(t, cursor1, a, dest, len1);
+            return;
+        }
+        if (len1 == 1) {
+            System.arraycopy(a, cursor2, a, dest, len2);
+            a[dest + len2] = t[cursor1];
+            return;
+        }
+
+        int gallop = minGallop;
+        outer:
+        while (true) {
+            int count1 = 0, count2 = 0;
+            // One key at a time until a run wins gallop times in a row
+            do {
+                comparisons++;
+                if (a[cursor2] < t[cursor1]) {
+                    a[dest++] = a[cursor2++];
+                    count2++;
+                    count1 = 0;
+                    if (--len2 == 0) break outer;
+                } else {
+                    a[dest++] = t[cursor1++];
+                    count1++;
+                    count2 = 0;
+                    if (--len1 == 1) break outer;
+                }
+            } while ((count1 | count2) < gallop);
+
+            // Galloping: copy whole stretches while they stay long
+            do {
+                count1 = gallopRight(a[cursor2], t, cursor1, len1, 0);
+                if (count1 != 0) {
+                    System.arraycopy(t, cursor1, a, dest, count1);
+                    dest += count1;
+                    cursor1 += count1;
+                    len1 -= count1;
+                    if (len1 <= 1) break outer;
+                }
+                a[dest++] = a[cursor2++];
+                if (--len2 == 0) break outer;
+
+                count2 = gallopLeft(t[cursor1], a, cursor2, len2, 0);
+                if (count2 != 0) {
+                    System.arraycopy(a, cursor2, a, dest, count2);
+                    dest += count2;
+                    cursor2 += count2;
+                    len2 -= count2;
+                    if (len2 == 0) break outer;
+                }
+                a[dest++] = t[cursor1++];
+                if (--len1 == 1) break outer;
+                gallop--;
+            } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+            // Leaving gallop mode makes it harder to re-enter
+            if (gallop < 0) gallop = 0;
+            gallop += 2;
+        }
+        minGallop = Math.max(gallop, 1);
+
+        if (len1 == 1) {
+            System.arraycopy(a, cursor2, a, dest, len2);
+            a[dest + len2] = t[cursor1];
+        } else {
+            System.arraycopy(t, cursor1, a, dest, len1);
+        }
+    }
+
+    /**
+     * Mirror image of {@link #mergeLo}: merges right to left, buffering the
+     * second (shorter) run.
+     */
+    private void mergeHi(int[] a, int base1, int len1, int base2, int len2) {
+        int[] t = ensureCapacity(len2);
+        System.arraycopy(a, base2, t, 0, len2);
+        int cursor1 = base1 + len1 - 1, cursor2 = len2 - 1, dest = base2 + len2 - 1;
+
+        a[dest--] = a[cursor1--];
+        if (--len1 == 0) {
+            System.arraycopy(t, 0, a, dest - (len2 - 1), len2);
+            return;
+        }
+        if (len2 == 1) {
+            dest -= len1;
+            cursor1 -= len1;
+            System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+            a[dest] = t[cursor2];
+            return;
+        }
+
+        int gallop = minGallop;
+        outer:
+        while (true) {
+            int count1 = 0, count2 = 0;
+            do {
+                comparisons++;
+                if (t[cursor2] < a[cursor1]) {
+                    a[dest--] = a[cursor1--];
+                    count1++;
+                    count2 = 0;
+                    if (--len1 == 0) break outer;
+                } else {
+                    a[dest--] = t[cursor2--];
+                    count2++;
+                    count1 = 0;
+                    if (--len2 == 1) break outer;
+                }
+            } while ((count1 | count2) < gallop);
+
+            do {
+                count1 = len1 - gallopRight(t[cursor2], a, base1, len1, len1 - 1);
+                if (count1 != 0) {
+                    dest -= count1;
+                    cursor1 -= count1;
+                    len1 -= count1;
+                    System.arraycopy(a, cursor1 + 1, a, dest + 1, count1);
+                    if (len1 == 0) break outer;
+                }
+                a[dest--] = t[cursor2--];
+                if (--len2 == 1) break outer;
+
+                count2 = len2 - gallopLeft(a[cursor1], t, 0, len2, len2 - 1);
+                if (count2 != 0) {
+                    dest -= count2;
+                    cursor2 -= count2;
+                    len2 -= count2;
+                    System.arraycopy(t, cursor2 + 1, a, dest + 1, count2);
+                    if (len2 <= 1) break outer;
+                }
+                a[dest--] = a[cursor1--];
+                if (--len1 == 0) break outer;
+                gallop--;
+            } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+            if (gallop < 0) gallop = 0;
+            gallop += 2;
+        }
+        minGallop = Math.max(gallop, 1);
+
+        if (len2 == 1) {
+            dest -= len1;
+            cursor1 -= len1;
+            System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+            a[dest] = t[cursor2];
+        } else {
+            System.arraycopy(t, 0, a, dest - (len2 - 1), len2);
+        }
+    }
+
+    private int[] ensureCapacity(int length) {
+        if (tmp.length < length) {
+            if (tmp != EMPTY) scratch.release(tmp);
+            tmp = scratch.borrowInts(length, metrics);
+        }
+        return tmp;
+    }
+}
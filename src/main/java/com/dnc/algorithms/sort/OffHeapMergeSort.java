@@ -0,0 +1,151 @@
+package com.dnc.algorithms.sort;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.util.OffHeapArena;
+
+/**
+ * {@link MergeSort} over the remaining elements of an int or long buffer,
+ * typically a direct or mapped one. The data is sorted in place and the merge
+ * buffer comes from an {@link OffHeapArena}, so nothing is copied on-heap.
+ */
+public class OffHeapMergeSort {
+    private static final int CUTOFF = 15; // Switch to insertion sort for small ranges
+    private final Metrics metrics;
+    private final OffHeapArena arena;
+
+    public OffHeapMergeSort(Metrics metrics) {
+        this(metrics, new OffHeapArena());
+    }
+
+    public OffHeapMergeSort(Metrics metrics, OffHeapArena arena) {
+        this.metrics = metrics;
+        this.arena = arena;
+    }
+
+    /**
+     * Sorts buf[position..limit) without moving the buffer's position.
+     */
+    public void sort(IntBuffer buf) {
+        IntBuffer data = buf.slice();
+        IntBuffer buffer = arena.ints(data.capacity());
+        sort(data, buffer, 0, data.capacity() - 1);
+        arena.release();
+    }
+
+    /**
+     * Sorts buf[position..limit) without moving the buffer's position.
+     */
+    public void sort(LongBuffer buf) {
+        LongBuffer data = buf.slice();
+        LongBuffer buffer = arena.longs(data.capacity());
+        sort(data, buffer, 0, data.capacity() - 1);
+        arena.release();
+    }
+
+    private void sort(IntBuffer data, IntBuffer buffer, int left, int right) {
+        metrics.enterRecursion();
+
+        if (right - left <= CUTOFF) {
+            insertionSort(data, left, right);
+            metrics.exitRecursion();
+            return;
+        }
+
+        int mid = left + (right - left) / 2;
+        sort(data, buffer, left, mid);
+        sort(data, buffer, mid + 1, right);
+        merge(data, buffer, left, mid, right);
+
+        metrics.exitRecursion();
+    }
+
+    private void merge(IntBuffer data, IntBuffer buffer, int left, int mid, int right) {
+        buffer.put(left, data, left, right - left + 1);
+        metrics.incrementAllocations(right - left + 1);
+
+        int i = left, j = mid + 1, k = left;
+        while (i <= mid && j <= right) {
+            metrics.incrementComparisons();
+            int a = buffer.get(i), b = buffer.get(j);
+            if (a <= b) {
+                data.put(k++, a);
+                i++;
+            } else {
+                data.put(k++, b);
+                j++;
+            }
+        }
+
+        // A leftover right run is already in place
+        if (i <= mid) data.put(k, buffer, i, mid - i + 1);
+    }
+
+    private void insertionSort(IntBuffer data, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int key = data.get(i);
+            int j = i - 1;
+            while (j >= left && data.get(j) > key) {
+                metrics.incrementComparisons();
+                data.put(j + 1, data.get(j));
+                j--;
+            }
+            metrics.incrementComparisons(); // Final comparison that fails
+            data.put(j + 1, key);
+        }
+    }
+
+    private void sort(LongBuffer data, LongBuffer buffer, int left, int right) {
+        metrics.enterRecursion();
+
+        if (right - left <= CUTOFF) {
+            insertionSort(data, left, right);
+            metrics.exitRecursion();
+            return;
+        }
+
+        int mid = left + (right - left) / 2;
+        sort(data, buffer, left, mid);
+        sort(data, buffer, mid + 1, right);
+        merge(data, buffer, left, mid, right);
+
+        metrics.exitRecursion();
+    }
+
+    private void merge(LongBuffer data, LongBuffer buffer, int left, int mid, int right) {
+        buffer.put(left, data, left, right - left + 1);
+        metrics.incrementAllocations(right - left + 1);
+
+        int i = left, j = mid + 1, k = left;
+        while (i <= mid && j <= right) {
+            metrics.incrementComparisons();
+            long a = buffer.get(i), b = buffer.get(j);
+            if (a <= b) {
+                data.put(k++, a);
+                i++;
+            } else {
+                data.put(k++, b);
+                j++;
+            }
+        }
+
+        // A leftover right run is already in place
+        if (i <= mid) data.put(k, buffer, i, mid - i + 1);
+    }
+
+    private void insertionSort(LongBuffer data, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            long key = data.get(i);
+            int j = i - 1;
+            while (j >= left && data.get(j) > key) {
+                metrics.incrementComparisons();
+                data.put(j + 1, data.get(j));
+                j--;
+            }
+            metrics.incrementComparisons(); // Final comparison that fails
+            data.put(j + 1, key);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.dnc.algorithms.sort;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.profiling.InvocationEvent;
+import com.dnc.algorithms.profiling.MergeEvent;
+import com.dnc.algorithms.profiling.Profiling;
+import com.dnc.algorithms.util.ScratchArena;
+
+/**
+ * Fork/join merge sort. Ranges at or below the threshold are handed to the
+ * sequential {@link MergeSort}; larger merges are split with a binary search
+ * on the longer run so the top-level merge also runs in parallel.
+ * Every task counts into its own tracker and the totals are folded into the
+ * caller's tracker once the task has been joined.
+ */
+public class ParallelMergeSort {
+    public static final int DEFAULT_THRESHOLD = 1 << 13;
+    private final Metrics metrics;
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    public ParallelMergeSort(Metrics metrics) {
+        this(metrics, DEFAULT_THRESHOLD);
+    }
+
+    public ParallelMergeSort(Metrics metrics, int threshold) {
+        this(metrics, threshold, ForkJoinPool.commonPool());
+    }
+
+    public ParallelMergeSort(Metrics metrics, int threshold, ForkJoinPool pool) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        this.metrics = metrics;
+        this.threshold = threshold;
+        this.pool = pool;
+    }
+
+    public void sort(int[] arr) {
+        InvocationEvent event = Profiling.invocation();
+        // The buffer belongs to the calling thread's arena; tasks only index into it
+        ScratchArena scratch = ScratchArena.local();
+        int[] buffer = scratch.borrowInts(arr.length, metrics);
+        SortTask root = new SortTask(arr, buffer, 0, arr.length - 1, 0);
+        pool.invoke(root);
+        metrics.merge(root.local);
+        scratch.release(buffer);
+        if (event != null) event.record("ParallelMergeSort", "sort", arr.length);
+    }
+
+    private final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] arr;
+        private final int[] buffer;
+        private final int left;
+        private final int right;
+        private final int depth;
+        private final transient Metrics local = metrics.fork();
+
+        SortTask(int[] arr, int[] buffer, int left, int right, int depth) {
+            this.arr = arr;
+            this.buffer = buffer;
+            this.left = left;
+            this.right = right;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            local.enterRecursion();
+
+            if (right - left < threshold) {
+                new MergeSort(local, null, "ParallelMergeSort", depth).sort(arr, buffer, left, right);
+                local.exitRecursion();
+                return;
+            }
+
+            int mid = left + (right - left) / 2;
+            SortTask lower = new SortTask(arr, buffer, left, mid, depth + 1);
+            SortTask upper = new SortTask(arr, buffer, mid + 1, right, depth + 1);
+            invokeAll(lower, upper);
+            local.merge(lower.local);
+            local.merge(upper.local);
+
+            MergeEvent event = Profiling.merge();
+            System.arraycopy(arr, left, buffer, left, right - left + 1);
+            local.incrementAllocations(right - left + 1);
+
+            MergeTask merge = new MergeTask(buffer, left, mid, mid + 1, right, arr, left);
+            merge.compute();
+            local.merge(merge.local);
+            // One event for the whole merge, however many tasks it was split into
+            if (event != null) event.record("ParallelMergeSort", depth, mid - left + 1, right - mid);
+
+            local.exitRecursion();
+        }
+    }
+
+    /**
+     * Merges src[lo1..hi1] and src[lo2..hi2] into dst starting at out.
+     */
+    private final class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] src;
+        private final int lo1, hi1, lo2, hi2;
+        private final int[] dst;
+        private final int out;
+        private final transient Metrics local = metrics.fork();
+
+        MergeTask(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int out) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1 + 1;
+            int n2 = hi2 - lo2 + 1;
+            if (n1 + n2 <= threshold) {
+                mergeSequential();
+                return;
+            }
+
+            // Split the longer run at its middle and find the matching split in the shorter one
+            int aLo = lo1, aHi = hi1, bLo = lo2, bHi = hi2;
+            if (n1 < n2) {
+                aLo = lo2; aHi = hi2; bLo = lo1; bHi = hi1;
+            }
+            int aMid = aLo + (aHi - aLo) / 2;
+            int bSplit = lowerBound(src, bLo, bHi + 1, src[aMid]);
+            int pos = out + (aMid - aLo) + (bSplit - bLo);
+            dst[pos] = src[aMid];
+
+            MergeTask lower = new MergeTask(src, aLo, aMid - 1, bLo, bSplit - 1, dst, out);
+            MergeTask upper = new MergeTask(src, aMid + 1, aHi, bSplit, bHi, dst, pos + 1);
+            invokeAll(lower, upper);
+            local.merge(lower.local);
+            local.merge(upper.local);
+        }
+
+        private void mergeSequential() {
+            int i = lo1, j = lo2, k = out;
+            while (i <= hi1 && j <= hi2) {
+                local.incrementComparisons();
+                if (src[i] <= src[j]) {
+                    dst[k++] = src[i++];
+                } else {
+                    dst[k++] = src[j++];
+                }
+            }
+
+            while (i <= hi1) dst[k++] = src[i++];
+            while (j <= hi2) dst[k++] = src[j++];
+        }
+
+        private int lowerBound(int[] a, int from, int to, int key) {
+            while (from < to) {
+                int m = (from + to) >>> 1;
+                local.incrementComparisons();
+                if (a[m] < key) {
+                    from = m + 1;
+                } else {
+                    to = m;
+                }
+            }
+            return from;
+        }
+    }
+}
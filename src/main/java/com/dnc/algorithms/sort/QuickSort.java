@@ -1,27 +1,36 @@
 package com.dnc.algorithms.sort;
 
-import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.profiling.InvocationEvent;
+import com.dnc.algorithms.profiling.PartitionEvent;
+import com.dnc.algorithms.profiling.Profiling;
 import com.dnc.algorithms.util.ArrayUtils;
 
 public class QuickSort {
-    private final MetricsTracker metrics;
+    private final Metrics metrics;
+    private int depth; // Recursion depth reported by partition events
     
-    public QuickSort(MetricsTracker metrics) {
+    public QuickSort(Metrics metrics) {
         this.metrics = metrics;
     }
     
     public void sort(int[] arr) {
+        InvocationEvent event = Profiling.invocation();
         ArrayUtils.shuffle(arr); // Randomize for probabilistic guarantee
         sort(arr, 0, arr.length - 1);
+        if (event != null) event.record("QuickSort", "sort", arr.length);
     }
     
     private void sort(int[] arr, int low, int high) {
         while (low < high) {
             metrics.enterRecursion();
             
+            PartitionEvent event = Profiling.partition();
             int pivot = partition(arr, low, high);
+            if (event != null) event.record("QuickSort", depth, high - low + 1, pivot - low, high - pivot);
             
             // Recurse on smaller partition, iterate on larger
+            depth++;
             if (pivot - low < high - pivot) {
                 sort(arr, low, pivot - 1);
                 low = pivot + 1;
@@ -29,6 +38,7 @@ public class QuickSort {
                 sort(arr, pivot + 1, high);
                 high = pivot - 1;
             }
+            depth--;
             
             metrics.exitRecursion();
         }
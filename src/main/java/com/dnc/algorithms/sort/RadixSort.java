@@ -0,0 +1,212 @@
+package com.dnc.algorithms.sort;
+
+import java.util.Arrays;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.util.ScratchArena;
+
+/**
+ * Byte-wise LSD radix sort. Keys are offset by the range minimum so only the
+ * bytes that actually vary get a pass: a range below 2^16 costs two passes
+ * regardless of where it sits. The scratch buffer is borrowed from a
+ * {@link ScratchArena} for each call, so repeated sorts allocate once.
+ */
+public class RadixSort {
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+    private final Metrics metrics;
+    private final ScratchArena arena;
+    private final int[] counts = new int[BUCKETS];
+
+    public RadixSort(Metrics metrics) {
+        this(metrics, null);
+    }
+
+    /**
+     * Draws the scatter buffer from arena; null uses the calling thread's arena.
+     */
+    public RadixSort(Metrics metrics, ScratchArena arena) {
+        this.metrics = metrics;
+        this.arena = arena;
+    }
+
+    public void sort(int[] arr) {
+        sort(arr, 0, arr.length);
+    }
+
+    /**
+     * Sorts arr[from..to).
+     */
+    void sort(int[] arr, int from, int to) {
+        int n = to - from;
+        if (n < 2) return;
+
+        int min = arr[from], max = arr[from];
+        for (int i = from + 1; i < to; i++) {
+            int v = arr[i];
+            if (v < min) min = v;
+            if (v > max) max = v;
+        }
+        int range = max - min; // read as unsigned, always fits in 32 bits
+        if (range == 0) return;
+
+        ScratchArena scratchArena = ScratchArena.orLocal(arena);
+        int[] scratch = scratchArena.borrowInts(n, metrics);
+
+        int passes = (32 - Integer.numberOfLeadingZeros(range) + RADIX_BITS - 1) / RADIX_BITS;
+        int[] src = arr, dst = scratch;
+        int srcOff = from, dstOff = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            int shift = pass * RADIX_BITS;
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                counts[((src[srcOff + i] - min) >>> shift) & (BUCKETS - 1)]++;
+            }
+
+            int sum = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                int c = counts[b];
+                counts[b] = sum;
+                sum += c;
+            }
+
+            for (int i = 0; i < n; i++) {
+                int v = src[srcOff + i];
+                dst[dstOff + counts[((v - min) >>> shift) & (BUCKETS - 1)]++] = v;
+            }
+
+            int[] t = src; src = dst; dst = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, srcOff, arr, from, n);
+        }
+        scratchArena.release(scratch);
+    }
+
+    public void sort(long[] arr) {
+        sort(arr, 0, arr.length);
+    }
+
+    /**
+     * Sorts arr[from..to) with the same range-offset scheme over up to eight byte passes.
+     */
+    void sort(long[] arr, int from, int to) {
+        int n = to - from;
+        if (n < 2) return;
+
+        long min = arr[from], max = arr[from];
+        for (int i = from + 1; i < to; i++) {
+            long v = arr[i];
+            if (v < min) min = v;
+            if (v > max) max = v;
+        }
+        long range = max - min; // read as unsigned, always fits in 64 bits
+        if (range == 0) return;
+
+        ScratchArena scratchArena = ScratchArena.orLocal(arena);
+        long[] longScratch = scratchArena.borrowLongs(n, metrics);
+
+        int passes = (64 - Long.numberOfLeadingZeros(range) + RADIX_BITS - 1) / RADIX_BITS;
+        long[] src = arr, dst = longScratch;
+        int srcOff = from, dstOff = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            int shift = pass * RADIX_BITS;
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                counts[(int) ((src[srcOff + i] - min) >>> shift) & (BUCKETS - 1)]++;
+            }
+
+            int sum = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                int c = counts[b];
+                counts[b] = sum;
+                sum += c;
+            }
+
+            for (int i = 0; i < n; i++) {
+                long v = src[srcOff + i];
+                dst[dstOff + counts[(int) ((v - min) >>> shift) & (BUCKETS - 1)]++] = v;
+            }
+
+            long[] t = src; src = dst; dst = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, srcOff, arr, from, n);
+        }
+        scratchArena.release(longScratch);
+    }
+
+    /**
+     * Stable sort of keys with payload[i] travelling alongside keys[i]. Keys
+     * that compare equal keep their input order, since every LSD pass is a
+     * stable scatter.
+     */
+    public void sort(long[] keys, int[] payload) {
+        if (keys.length != payload.length) {
+            throw new IllegalArgumentException("keys and payload differ in length: " + keys.length + " vs " + payload.length);
+        }
+        sort(keys, payload, 0, keys.length);
+    }
+
+    /**
+     * Sorts keys[from..to) and moves payload[from..to) with them.
+     */
+    void sort(long[] keys, int[] payload, int from, int to) {
+        int n = to - from;
+        if (n < 2) return;
+
+        long min = keys[from], max = keys[from];
+        for (int i = from + 1; i < to; i++) {
+            long v = keys[i];
+            if (v < min) min = v;
+            if (v > max) max = v;
+        }
+        long range = max - min;
+        if (range == 0) return;
+
+        ScratchArena scratchArena = ScratchArena.orLocal(arena);
+        long[] keyScratch = scratchArena.borrowLongs(n, metrics);
+        int[] payloadScratch = scratchArena.borrowInts(n, metrics);
+
+        int passes = (64 - Long.numberOfLeadingZeros(range) + RADIX_BITS - 1) / RADIX_BITS;
+        long[] src = keys, dst = keyScratch;
+        int[] srcPayload = payload, dstPayload = payloadScratch;
+        int srcOff = from, dstOff = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            int shift = pass * RADIX_BITS;
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                counts[(int) ((src[srcOff + i] - min) >>> shift) & (BUCKETS - 1)]++;
+            }
+
+            int sum = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                int c = counts[b];
+                counts[b] = sum;
+                sum += c;
+            }
+
+            for (int i = 0; i < n; i++) {
+                long v = src[srcOff + i];
+                int at = dstOff + counts[(int) ((v - min) >>> shift) & (BUCKETS - 1)]++;
+                dst[at] = v;
+                dstPayload[at] = srcPayload[srcOff + i];
+            }
+
+            long[] t = src; src = dst; dst = t;
+            int[] tp = srcPayload; srcPayload = dstPayload; dstPayload = tp;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+
+        if (src != keys) {
+            System.arraycopy(src, srcOff, keys, from, n);
+            System.arraycopy(srcPayload, srcOff, payload, from, n);
+        }
+        scratchArena.release(keyScratch);
+        scratchArena.release(payloadScratch);
+    }
+}
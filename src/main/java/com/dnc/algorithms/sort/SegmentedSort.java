@@ -0,0 +1,248 @@
+package com.dnc.algorithms.sort;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.simd.Kernels;
+import com.dnc.algorithms.util.ScratchArena;
+
+/**
+ * Sorts many small arrays stored back to back in one flat array. Segment i
+ * is data[offsets[i], offsets[i + 1]). Each segment is sorted in place by
+ * the cheapest engine for its size:
+ * <ul>
+ *   <li>up to one kernel block: the block sorting network;</li>
+ *   <li>up to {@link #INSERTION_MAX}: insertion sort;</li>
+ *   <li>up to {@link #RADIX_MIN}: block networks followed by kernel merge
+ *   passes, as in {@link VectorSort};</li>
+ *   <li>larger: {@link RadixSort}.</li>
+ * </ul>
+ * No per-segment setup is paid: there is no shuffle or recursion, and one
+ * merge buffer per batch is borrowed from the worker thread's
+ * {@link ScratchArena}.
+ *
+ * <p>Segments are cut into batches of roughly equal element counts, and the
+ * batches run as fork/join tasks. Every task counts into its own tracker,
+ * and the trackers are folded into the caller's once the task has joined.
+ * Engine choices are recorded once per call, with the number of elements
+ * each engine sorted.
+ */
+public class SegmentedSort {
+    public enum Engine { NETWORK, INSERTION, MERGE, RADIX }
+
+    public static final int INSERTION_MAX = 32;
+    public static final int RADIX_MIN = 1 << 12;
+    public static final int DEFAULT_BATCH_ELEMENTS = 1 << 16;
+    // Batches per worker, so uneven batches still balance
+    private static final int BATCHES_PER_WORKER = 4;
+    private static final Engine[] ENGINES = Engine.values();
+    private final Metrics metrics;
+    private final ForkJoinPool pool;
+    private final Kernels kernels;
+    private final int batchElements;
+
+    public SegmentedSort(Metrics metrics) {
+        this(metrics, ForkJoinPool.commonPool());
+    }
+
+    public SegmentedSort(Metrics metrics, ForkJoinPool pool) {
+        this(metrics, pool, Kernels.best(), DEFAULT_BATCH_ELEMENTS);
+    }
+
+    /**
+     * @param batchElements smallest number of elements worth a task of its own
+     */
+    public SegmentedSort(Metrics metrics, ForkJoinPool pool, Kernels kernels, int batchElements) {
+        if (batchElements < 1) {
+            throw new IllegalArgumentException("batchElements must be positive: " + batchElements);
+        }
+        this.metrics = metrics;
+        this.pool = pool;
+        this.kernels = kernels;
+        this.batchElements = batchElements;
+    }
+
+    /**
+     * Sorts every segment data[offsets[i], offsets[i + 1]) in place. offsets
+     * must be non-decreasing and within data; elements outside
+     * [offsets[0], offsets[last]) are left alone.
+     */
+    public void sortSegments(int[] data, int[] offsets) {
+        int segments = offsets.length - 1;
+        if (segments < 1) return;
+        if (offsets[0] < 0 || offsets[segments] > data.length) {
+            throw new IllegalArgumentException("offsets outside data: [" + offsets[0] + ", " + offsets[segments] + ")");
+        }
+        for (int i = 0; i < segments; i++) {
+            if (offsets[i] > offsets[i + 1]) {
+                throw new IllegalArgumentException("offsets decrease at segment " + i);
+            }
+        }
+
+        long total = offsets[segments] - offsets[0];
+        long target = Math.max(batchElements, total / ((long) pool.getParallelism() * BATCHES_PER_WORKER));
+        long[] elements = new long[ENGINES.length];
+        if (total <= target || pool.getParallelism() == 1) {
+            new Batch(data, offsets, metrics, elements).sort(0, segments);
+        } else {
+            int[] bounds = batchBounds(offsets, segments, target);
+            BatchTask root = new BatchTask(data, offsets, bounds, 0, bounds.length - 1);
+            pool.invoke(root);
+            metrics.merge(root.local);
+            for (int e = 0; e < ENGINES.length; e++) elements[e] = root.elements[e];
+        }
+
+        for (Engine engine : ENGINES) {
+            if (elements[engine.ordinal()] > 0) metrics.recordDispatch(engine.name(), elements[engine.ordinal()]);
+        }
+    }
+
+    /**
+     * Picks the engine for a segment of the given length.
+     */
+    public Engine choose(int length) {
+        if (length <= kernels.blockSize()) return Engine.NETWORK;
+        if (length <= INSERTION_MAX) return Engine.INSERTION;
+        if (length < RADIX_MIN) return Engine.MERGE;
+        return Engine.RADIX;
+    }
+
+    /**
+     * Segment indices where batches start, plus the end: each batch but the
+     * last holds at least target elements.
+     */
+    private static int[] batchBounds(int[] offsets, int segments, long target) {
+        int count = 1;
+        int start = offsets[0];
+        for (int i = 1; i < segments; i++) {
+            if (offsets[i] - start >= target) {
+                count++;
+                start = offsets[i];
+            }
+        }
+
+        int[] bounds = new int[count + 1];
+        int b = 1;
+        start = offsets[0];
+        for (int i = 1; i < segments; i++) {
+            if (offsets[i] - start >= target) {
+                bounds[b++] = i;
+                start = offsets[i];
+            }
+        }
+        bounds[count] = segments;
+        return bounds;
+    }
+
+    /**
+     * Sorts a run of segments on one thread with one merge buffer.
+     */
+    private final class Batch {
+        private final int[] data;
+        private final int[] offsets;
+        private final Metrics local;
+        private final long[] elements;
+        private final VectorSort merger;
+        private final RadixSort radix;
+
+        Batch(int[] data, int[] offsets, Metrics local, long[] elements) {
+            this.data = data;
+            this.offsets = offsets;
+            this.local = local;
+            this.elements = elements;
+            this.merger = new VectorSort(local, kernels);
+            this.radix = new RadixSort(local);
+        }
+
+        void sort(int from, int to) {
+            int longestMerge = 0;
+            for (int i = from; i < to; i++) {
+                int length = offsets[i + 1] - offsets[i];
+                if (length < RADIX_MIN) longestMerge = Math.max(longestMerge, length);
+            }
+            ScratchArena scratch = ScratchArena.local();
+            int[] buffer = longestMerge > INSERTION_MAX ? scratch.borrowInts(longestMerge, local) : null;
+
+            for (int i = from; i < to; i++) {
+                int lo = offsets[i], hi = offsets[i + 1];
+                int length = hi - lo;
+                if (length < 2) continue;
+                Engine engine = choose(length);
+                elements[engine.ordinal()] += length;
+                switch (engine) {
+                    case NETWORK:
+                        kernels.sortBlock(data, lo, hi);
+                        local.incrementComparisons(length);
+                        break;
+                    case INSERTION:
+                        insertionSort(lo, hi);
+                        break;
+                    case MERGE:
+                        merger.sort(data, lo, hi, buffer);
+                        break;
+                    default:
+                        radix.sort(data, lo, hi);
+                        break;
+                }
+            }
+
+            if (buffer != null) scratch.release(buffer);
+        }
+
+        private void insertionSort(int lo, int hi) {
+            long comparisons = 0;
+            for (int i = lo + 1; i < hi; i++) {
+                int key = data[i];
+                int j = i - 1;
+                while (j >= lo && data[j] > key) {
+                    data[j + 1] = data[j];
+                    j--;
+                }
+                data[j + 1] = key;
+                comparisons += i - j;
+            }
+            local.incrementComparisons(comparisons);
+        }
+    }
+
+    /**
+     * Runs batches [lo, hi) of bounds, halving the range until one batch is left.
+     */
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] data;
+        private final int[] offsets;
+        private final int[] bounds;
+        private final int lo;
+        private final int hi;
+        private final long[] elements = new long[ENGINES.length];
+        private final transient Metrics local = metrics.fork();
+
+        BatchTask(int[] data, int[] offsets, int[] bounds, int lo, int hi) {
+            this.data = data;
+            this.offsets = offsets;
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                new Batch(data, offsets, local, elements).sort(bounds[lo], bounds[hi]);
+                return;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            BatchTask lower = new BatchTask(data, offsets, bounds, lo, mid);
+            BatchTask upper = new BatchTask(data, offsets, bounds, mid, hi);
+            invokeAll(lower, upper);
+            local.merge(lower.local);
+            local.merge(upper.local);
+            for (int e = 0; e < ENGINES.length; e++) {
+                elements[e] = lower.elements[e] + upper.elements[e];
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.dnc.algorithms.sort;
+
+import com.dnc.algorithms.metrics.Metrics;
+import com.dnc.algorithms.simd.Kernels;
+import com.dnc.algorithms.util.ScratchArena;
+
+/**
+ * Bottom-up merge sort built on the {@link Kernels}: blocks of
+ * {@link Kernels#blockSize()} keys are sorted with a sorting network, then
+ * runs are merged pairwise with the merge kernel, alternating between the
+ * array and one buffer. Pairs of runs that are already in order are copied
+ * instead of merged. The kernels do not count comparisons, so each pass is
+ * charged one comparison per key.
+ */
+public class VectorSort {
+    private final Metrics metrics;
+    private final Kernels kernels;
+
+    public VectorSort(Metrics metrics) {
+        this(metrics, Kernels.best());
+    }
+
+    public VectorSort(Metrics metrics, Kernels kernels) {
+        this.metrics = metrics;
+        this.kernels = kernels;
+    }
+
+    public void sort(int[] arr) {
+        int n = arr.length;
+        if (n <= kernels.blockSize()) {
+            sort(arr, 0, n, null);
+            return;
+        }
+        ScratchArena scratch = ScratchArena.local();
+        int[] buffer = scratch.borrowInts(n, metrics);
+        sort(arr, 0, n, buffer);
+        scratch.release(buffer);
+    }
+
+    /**
+     * Sorts arr[from, to) using buffer[0, to - from) as the merge target.
+     * The buffer is not touched when the range fits in one block.
+     */
+    void sort(int[] arr, int from, int to, int[] buffer) {
+        int n = to - from;
+        int block = kernels.blockSize();
+        for (int lo = from; lo < to; lo += block) {
+            kernels.sortBlock(arr, lo, Math.min(lo + block, to));
+        }
+        metrics.incrementComparisons(n);
+        if (n <= block) return;
+
+        int[] src = arr, dst = buffer;
+        int srcOff = from, dstOff = 0;
+        for (int width = block; width < n; width <<= 1) {
+            for (int lo = 0; lo < n; lo += width << 1) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + (width << 1), n);
+                if (mid == hi || src[srcOff + mid - 1] <= src[srcOff + mid]) {
+                    System.arraycopy(src, srcOff + lo, dst, dstOff + lo, hi - lo);
+                } else {
+                    kernels.merge(src, srcOff + lo, srcOff + mid, src, srcOff + mid, srcOff + hi, dst, dstOff + lo);
+                }
+            }
+            metrics.incrementComparisons(n);
+            int[] t = src; src = dst; dst = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+        if (src != arr) System.arraycopy(src, srcOff, arr, from, n);
+    }
+
+    public String kernelName() {
+        return kernels.name();
+    }
+}
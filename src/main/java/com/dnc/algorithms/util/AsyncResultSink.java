@@ -0,0 +1,122 @@
+package com.dnc.algorithms.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Moves result writing off the measuring thread. Rows are collected into a
+ * {@link ResultBatch}; a full batch is handed to a writer thread, which
+ * passes it to the wrapped sink and returns it to a free list. The batches
+ * are allocated once, so a long sweep allocates nothing per row, and the
+ * caller only blocks when every batch is waiting to be written.
+ *
+ * <p>A failure on the writer thread is rethrown by the next write or by
+ * {@link #close()}, which also drains the remaining rows and closes the
+ * wrapped sink.
+ */
+public class AsyncResultSink implements ResultSink {
+    public static final int DEFAULT_BATCH_ROWS = 1 << 12;
+    public static final int DEFAULT_BATCHES = 4;
+    // Handed to the writer thread to make it stop
+    private static final ResultBatch END = new ResultBatch(0);
+    private final ResultSink delegate;
+    private final BlockingQueue<ResultBatch> full;
+    private final BlockingQueue<ResultBatch> free;
+    private final Thread writer;
+    private volatile Throwable failure;
+    private ResultBatch current;
+    private boolean closed;
+
+    public AsyncResultSink(ResultSink delegate) {
+        this(delegate, DEFAULT_BATCH_ROWS, DEFAULT_BATCHES);
+    }
+
+    /**
+     * @param batches batches in circulation; at least two, so one can fill
+     *                while another is written
+     */
+    public AsyncResultSink(ResultSink delegate, int batchRows, int batches) {
+        if (batchRows < 1 || batches < 2) {
+            throw new IllegalArgumentException("Need batchRows >= 1 and batches >= 2: " + batchRows + ", " + batches);
+        }
+        this.delegate = delegate;
+        this.full = new ArrayBlockingQueue<>(batches + 1);
+        this.free = new ArrayBlockingQueue<>(batches);
+        for (int i = 1; i < batches; i++) free.add(new ResultBatch(batchRows));
+        this.current = new ResultBatch(batchRows);
+        this.writer = new Thread(this::drain, "result-sink");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void write(String algorithm, String distribution, int size, int threads, int run,
+                      long timeNanos, int maxDepth, long comparisons, long allocations) throws IOException {
+        checkOpen();
+        if (current.add(algorithm, distribution, size, threads, run, timeNanos, maxDepth, comparisons, allocations)) {
+            handOff();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (current.size() > 0) full.put(current);
+            full.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while draining results");
+        } finally {
+            delegate.close();
+        }
+        rethrow();
+    }
+
+    private void handOff() throws IOException {
+        try {
+            full.put(current);
+            current = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while handing off results");
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                ResultBatch batch = full.take();
+                if (batch == END) return;
+                if (failure == null) {
+                    try {
+                        delegate.write(batch);
+                    } catch (IOException | RuntimeException e) {
+                        failure = e;
+                    }
+                }
+                batch.clear();
+                free.put(batch);
+            }
+        } catch (InterruptedException e) {
+            failure = e;
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) throw new IOException("Result sink is closed");
+        rethrow();
+    }
+
+    private void rethrow() throws IOException {
+        Throwable t = failure;
+        if (t == null) return;
+        if (t instanceof IOException io) throw io;
+        if (t instanceof RuntimeException re) throw re;
+        throw new IOException("Result writer failed", t);
+    }
+}
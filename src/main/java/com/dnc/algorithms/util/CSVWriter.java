@@ -5,8 +5,17 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 
-public class CSVWriter implements AutoCloseable {
+/**
+ * Writes result rows as CSV. Numbers are formatted by hand into a reused
+ * char buffer instead of through String.format, so a row costs no
+ * allocation and no format-string parsing.
+ */
+public class CSVWriter implements ResultSink {
+    private static final String HEADER =
+        "algorithm,distribution,size,threads,run,time_ns,max_recursion_depth,comparisons,allocations\n";
     private final BufferedWriter writer;
+    private char[] line = new char[256];
+    private int length;
 
     public CSVWriter(String filePath, boolean append) throws IOException {
         File file = new File(filePath);
@@ -16,17 +25,91 @@ public class CSVWriter implements AutoCloseable {
     }
 
     public void writeHeader() throws IOException {
-        writer.write("algorithm,size,run,time_ms,max_recursion_depth,comparisons,copies\n");
+        writer.write(HEADER);
     }
 
-    public void writeRow(String algorithm, int size, int run, long timeMs,
-                         int maxDepth, long comparisons, long copies) throws IOException {
-        writer.write(String.format("%s,%d,%d,%d,%d,%d,%d\n",
-                algorithm, size, run, timeMs, maxDepth, comparisons, copies));
+    @Override
+    public void write(String algorithm, String distribution, int size, int threads, int run,
+                      long timeNanos, int maxDepth, long comparisons, long allocations) throws IOException {
+        length = 0;
+        appendText(algorithm);
+        append(',');
+        appendText(distribution);
+        append(',');
+        appendNumber(size);
+        append(',');
+        appendNumber(threads);
+        append(',');
+        appendNumber(run);
+        append(',');
+        appendNumber(timeNanos);
+        append(',');
+        appendNumber(maxDepth);
+        append(',');
+        appendNumber(comparisons);
+        append(',');
+        appendNumber(allocations);
+        append('\n');
+        writer.write(line, 0, length);
     }
 
     @Override
     public void close() throws IOException {
         writer.close();
     }
-}
\ No newline at end of file
+
+    private void append(char c) {
+        ensure(1);
+        line[length++] = c;
+    }
+
+    /**
+     * Appends a field, quoted if it holds a comma, quote or line break.
+     */
+    private void appendText(String text) {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            ensure(text.length());
+            text.getChars(0, text.length(), line, length);
+            length += text.length();
+            return;
+        }
+        append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') append('"');
+            append(c);
+        }
+        append('"');
+    }
+
+    private void appendNumber(long value) {
+        ensure(20);
+        // Digits are produced from a non-positive value, so Long.MIN_VALUE needs no special case
+        boolean negative = value < 0;
+        if (!negative) value = -value;
+        int start = length;
+        do {
+            line[length++] = (char) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (negative) line[length++] = '-';
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            char t = line[i];
+            line[i] = line[j];
+            line[j] = t;
+        }
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > line.length) {
+            char[] grown = new char[Math.max(line.length * 2, length + extra)];
+            System.arraycopy(line, 0, grown, 0, length);
+            line = grown;
+        }
+    }
+}
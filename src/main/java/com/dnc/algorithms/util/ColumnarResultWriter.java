@@ -0,0 +1,208 @@
+package com.dnc.algorithms.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes result rows in a compact binary columnar format. Rows are buffered
+ * into blocks, and each block is written column by column as fixed-width
+ * big-endian values; the two string columns are dictionary ids.
+ *
+ * <pre>
+ * file:   int magic "DNCR", int version, block*
+ * block:  int rows, int newStrings, newStrings x (int byteLength, UTF-8 bytes),
+ *         int algorithmIds[rows], int distributionIds[rows], int sizes[rows],
+ *         int threads[rows], int runs[rows], long timeNanos[rows],
+ *         int maxDepths[rows], long comparisons[rows], long allocations[rows]
+ * </pre>
+ *
+ * A string gets the next id the first time it appears, and the block that
+ * first uses it defines it. {@link #replay} reads a file back into any sink,
+ * such as a {@link CSVWriter}.
+ */
+public class ColumnarResultWriter implements ResultSink {
+    public static final int DEFAULT_BLOCK_ROWS = 1 << 14;
+    private static final int MAGIC = 0x44_4E_43_52;
+    private static final int VERSION = 1;
+    // Bytes per row: seven int or long columns plus the two dictionary ids
+    private static final int ROW_BYTES = 6 * Integer.BYTES + 3 * Long.BYTES;
+    private final FileChannel channel;
+    private final ResultBatch pending;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> newStrings = new ArrayList<>();
+    private ByteBuffer buffer;
+    private int[] algorithmIds = new int[0];
+    private int[] distributionIds = new int[0];
+
+    public ColumnarResultWriter(Path file) throws IOException {
+        this(file, DEFAULT_BLOCK_ROWS);
+    }
+
+    public ColumnarResultWriter(Path file, int blockRows) throws IOException {
+        if (blockRows < 1) {
+            throw new IllegalArgumentException("blockRows must be positive: " + blockRows);
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        pending = new ResultBatch(blockRows);
+        buffer = ByteBuffer.allocate(2 * Integer.BYTES + blockRows * ROW_BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        drain();
+    }
+
+    @Override
+    public void write(String algorithm, String distribution, int size, int threads, int run,
+                      long timeNanos, int maxDepth, long comparisons, long allocations) throws IOException {
+        if (pending.add(algorithm, distribution, size, threads, run, timeNanos, maxDepth, comparisons, allocations)) {
+            writeBlock(pending);
+            pending.clear();
+        }
+    }
+
+    /**
+     * Writes batch as a block of its own, after any rows still pending.
+     */
+    @Override
+    public void write(ResultBatch batch) throws IOException {
+        if (pending.size() > 0) {
+            writeBlock(pending);
+            pending.clear();
+        }
+        if (batch.size() > 0) writeBlock(batch);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (pending.size() > 0) writeBlock(pending);
+            pending.clear();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeBlock(ResultBatch batch) throws IOException {
+        int rows = batch.size();
+        if (algorithmIds.length < rows) {
+            algorithmIds = new int[rows];
+            distributionIds = new int[rows];
+        }
+        assignIds(batch.algorithms, algorithmIds, rows);
+        assignIds(batch.distributions, distributionIds, rows);
+
+        int dictionaryBytes = 0;
+        for (String s : newStrings) dictionaryBytes += Integer.BYTES + s.length() * 3;
+        ensure(2 * Integer.BYTES + dictionaryBytes + rows * ROW_BYTES);
+        buffer.putInt(rows).putInt(newStrings.size());
+        for (String s : newStrings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        newStrings.clear();
+
+        for (int i = 0; i < rows; i++) buffer.putInt(algorithmIds[i]);
+        for (int i = 0; i < rows; i++) buffer.putInt(distributionIds[i]);
+        for (int i = 0; i < rows; i++) buffer.putInt(batch.sizes[i]);
+        for (int i = 0; i < rows; i++) buffer.putInt(batch.threads[i]);
+        for (int i = 0; i < rows; i++) buffer.putInt(batch.runs[i]);
+        for (int i = 0; i < rows; i++) buffer.putLong(batch.timeNanos[i]);
+        for (int i = 0; i < rows; i++) buffer.putInt(batch.maxDepths[i]);
+        for (int i = 0; i < rows; i++) buffer.putLong(batch.comparisons[i]);
+        for (int i = 0; i < rows; i++) buffer.putLong(batch.allocations[i]);
+        drain();
+    }
+
+    /**
+     * Maps each string of column to its dictionary id, queueing strings seen
+     * for the first time to be defined by the current block.
+     */
+    private void assignIds(String[] column, int[] out, int rows) {
+        for (int i = 0; i < rows; i++) {
+            String s = column[i];
+            Integer id = ids.get(s);
+            if (id == null) {
+                id = ids.size();
+                ids.put(s, id);
+                newStrings.add(s);
+            }
+            out[i] = id;
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) buffer = ByteBuffer.allocate(buffer.position() + bytes);
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Reads every row of a file written by this class into sink, one
+     * {@link ResultBatch} per block. sink is not closed.
+     */
+    public static void replay(Path file, ResultSink sink) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (in.remaining() < 2 * Integer.BYTES || in.getInt() != MAGIC) {
+            throw new IOException("Not a columnar result file: " + file);
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported columnar result version " + version + " in " + file);
+        }
+
+        List<String> dictionary = new ArrayList<>();
+        ResultBatch batch = new ResultBatch(0);
+        int[] algorithmIds = new int[0];
+        int[] distributionIds = new int[0];
+        try {
+            while (in.hasRemaining()) {
+                int rows = in.getInt();
+                int added = in.getInt();
+                for (int s = 0; s < added; s++) {
+                    byte[] bytes = new byte[in.getInt()];
+                    in.get(bytes);
+                    dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+                }
+                if (batch.capacity() < rows) {
+                    batch = new ResultBatch(rows);
+                    algorithmIds = new int[rows];
+                    distributionIds = new int[rows];
+                }
+                batch.clear();
+                for (int i = 0; i < rows; i++) algorithmIds[i] = in.getInt();
+                for (int i = 0; i < rows; i++) distributionIds[i] = in.getInt();
+                for (int i = 0; i < rows; i++) {
+                    batch.algorithms[i] = dictionary.get(algorithmIds[i]);
+                    batch.distributions[i] = dictionary.get(distributionIds[i]);
+                }
+                for (int i = 0; i < rows; i++) batch.sizes[i] = in.getInt();
+                for (int i = 0; i < rows; i++) batch.threads[i] = in.getInt();
+                for (int i = 0; i < rows; i++) batch.runs[i] = in.getInt();
+                for (int i = 0; i < rows; i++) batch.timeNanos[i] = in.getLong();
+                for (int i = 0; i < rows; i++) batch.maxDepths[i] = in.getInt();
+                for (int i = 0; i < rows; i++) batch.comparisons[i] = in.getLong();
+                for (int i = 0; i < rows; i++) batch.allocations[i] = in.getLong();
+                batch.count = rows;
+                sink.write(batch);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new EOFException("Truncated or corrupt columnar result file: " + file);
+        }
+    }
+}
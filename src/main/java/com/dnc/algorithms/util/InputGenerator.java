@@ -0,0 +1,79 @@
+package com.dnc.algorithms.util;
+
+import java.util.Random;
+
+/**
+ * Seeded inputs for benchmarks and tests, so runs on different releases see
+ * the same keys. Every distribution targets a different weakness: sorted and
+ * reversed input hit naive pivot choices, few-unique input hits partitions
+ * that do not group equal keys, organ-pipe input has two long runs, and
+ * clustered points pack many candidates into each closest-pair strip.
+ */
+public final class InputGenerator {
+    public enum Distribution { RANDOM, SORTED, REVERSED, FEW_UNIQUE, ORGAN_PIPE }
+
+    public enum PointLayout { UNIFORM, CLUSTERED }
+
+    public static final int FEW_UNIQUE_KEYS = 16;
+    public static final int CLUSTERS = 32;
+    // Cluster spread in the unit square
+    private static final double CLUSTER_SIGMA = 0.002;
+
+    private InputGenerator() {}
+
+    public static int[] ints(Distribution distribution, int n, long seed) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+        int[] keys = new int[n];
+        Random random = new Random(seed);
+        switch (distribution) {
+            case RANDOM:
+                for (int i = 0; i < n; i++) keys[i] = random.nextInt();
+                break;
+            case SORTED:
+                for (int i = 0; i < n; i++) keys[i] = i;
+                break;
+            case REVERSED:
+                for (int i = 0; i < n; i++) keys[i] = n - i;
+                break;
+            case FEW_UNIQUE:
+                for (int i = 0; i < n; i++) keys[i] = random.nextInt(FEW_UNIQUE_KEYS);
+                break;
+            default:
+                for (int i = 0; i < n; i++) keys[i] = i < n / 2 ? i : n - i;
+                break;
+        }
+        return keys;
+    }
+
+    /**
+     * Fills xs and ys with points in the unit square. Clustered points are
+     * normal around {@link #CLUSTERS} random centres.
+     */
+    public static void points(PointLayout layout, double[] xs, double[] ys, long seed) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("xs and ys differ in length: " + xs.length + " vs " + ys.length);
+        }
+        Random random = new Random(seed);
+        if (layout == PointLayout.UNIFORM) {
+            for (int i = 0; i < xs.length; i++) {
+                xs[i] = random.nextDouble();
+                ys[i] = random.nextDouble();
+            }
+            return;
+        }
+
+        double[] cx = new double[CLUSTERS];
+        double[] cy = new double[CLUSTERS];
+        for (int c = 0; c < CLUSTERS; c++) {
+            cx[c] = random.nextDouble();
+            cy[c] = random.nextDouble();
+        }
+        for (int i = 0; i < xs.length; i++) {
+            int c = random.nextInt(CLUSTERS);
+            xs[i] = cx[c] + random.nextGaussian() * CLUSTER_SIGMA;
+            ys[i] = cy[c] + random.nextGaussian() * CLUSTER_SIGMA;
+        }
+    }
+}
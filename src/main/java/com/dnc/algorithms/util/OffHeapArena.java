@@ -0,0 +1,61 @@
+package com.dnc.algorithms.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Reusable off-heap scratch space for the buffer-based engines. A single
+ * direct block is handed out as int or long views and grows geometrically;
+ * {@link #release()} drops it again if it has grown past the retention limit.
+ * Views returned by one call are invalidated by the next, and an arena must
+ * not be shared between threads.
+ */
+public class OffHeapArena {
+    private static final long MAX_BLOCK_BYTES = Integer.MAX_VALUE & ~7L;
+    private final long maxRetainedBytes;
+    private ByteBuffer block;
+
+    public OffHeapArena() {
+        this(64L * 1024 * 1024);
+    }
+
+    public OffHeapArena(long maxRetainedBytes) {
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    public IntBuffer ints(int count) {
+        return reserve((long) count * Integer.BYTES).asIntBuffer();
+    }
+
+    public LongBuffer longs(int count) {
+        return reserve((long) count * Long.BYTES).asLongBuffer();
+    }
+
+    public long capacityBytes() {
+        return block == null ? 0 : block.capacity();
+    }
+
+    /**
+     * Drops the backing block if it is larger than the retention limit.
+     */
+    public void release() {
+        if (block != null && block.capacity() > maxRetainedBytes) {
+            block = null;
+        }
+    }
+
+    private ByteBuffer reserve(long bytes) {
+        if (bytes > MAX_BLOCK_BYTES) {
+            throw new IllegalArgumentException("scratch request too large: " + bytes + " bytes");
+        }
+        if (block == null || block.capacity() < bytes) {
+            long grown = block == null ? bytes : Math.max(bytes, 2L * block.capacity());
+            block = ByteBuffer.allocateDirect((int) Math.min(grown, MAX_BLOCK_BYTES)).order(ByteOrder.nativeOrder());
+        }
+        ByteBuffer view = block.duplicate().order(ByteOrder.nativeOrder());
+        view.limit((int) bytes);
+        return view;
+    }
+}
@@ -0,0 +1,54 @@
+package com.dnc.algorithms.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Option parsing shared by the configuration classes. Options come from the
+ * command line, from a properties file named by --config, or both;
+ * command-line options win. The properties keys are the option names
+ * without the dashes, and every option is handed to the caller's
+ * {@link Setter} under that key.
+ */
+public final class Options {
+    public interface Setter {
+        void set(String key, String value);
+    }
+
+    private Options() {}
+
+    /**
+     * Applies the options in args from index start on, after the properties
+     * file named by --config if there is one.
+     */
+    public static void parse(String[] args, int start, Setter setter) throws IOException {
+        for (int i = start; i < args.length; i++) {
+            if (args[i].equals("--config")) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for --config");
+                load(Paths.get(args[i + 1]), setter);
+            }
+        }
+        for (int i = start; i < args.length; i++) {
+            String option = args[i];
+            if (!option.startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + option);
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + option);
+            String value = args[++i];
+            if (!option.equals("--config")) setter.set(option.substring(2), value);
+        }
+    }
+
+    /**
+     * Applies every key of a properties file.
+     */
+    public static void load(Path file, Setter setter) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        for (String key : properties.stringPropertyNames()) setter.set(key, properties.getProperty(key));
+    }
+}
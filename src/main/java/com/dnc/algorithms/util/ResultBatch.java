@@ -0,0 +1,85 @@
+package com.dnc.algorithms.util;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-capacity block of result rows, stored as one array per column.
+ * Batches are cleared and refilled, so passing rows around in batches
+ * allocates nothing once the batches exist.
+ */
+public final class ResultBatch {
+    final String[] algorithms;
+    final String[] distributions;
+    final int[] sizes;
+    final int[] threads;
+    final int[] runs;
+    final long[] timeNanos;
+    final int[] maxDepths;
+    final long[] comparisons;
+    final long[] allocations;
+    int count;
+
+    public ResultBatch(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        algorithms = new String[capacity];
+        distributions = new String[capacity];
+        sizes = new int[capacity];
+        threads = new int[capacity];
+        runs = new int[capacity];
+        timeNanos = new long[capacity];
+        maxDepths = new int[capacity];
+        comparisons = new long[capacity];
+        allocations = new long[capacity];
+    }
+
+    /**
+     * Appends a row and returns true once the batch is full.
+     */
+    public boolean add(String algorithm, String distribution, int size, int threadCount, int run,
+                       long time, int maxDepth, long comparisonCount, long allocationCount) {
+        if (count == algorithms.length) {
+            throw new IllegalStateException("Batch is full: " + count + " rows");
+        }
+        int i = count++;
+        algorithms[i] = algorithm;
+        distributions[i] = distribution;
+        sizes[i] = size;
+        threads[i] = threadCount;
+        runs[i] = run;
+        timeNanos[i] = time;
+        maxDepths[i] = maxDepth;
+        comparisons[i] = comparisonCount;
+        allocations[i] = allocationCount;
+        return count == algorithms.length;
+    }
+
+    /** Number of rows held. */
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return algorithms.length;
+    }
+
+    /**
+     * Drops every row; the string references are released too.
+     */
+    public void clear() {
+        Arrays.fill(algorithms, 0, count, null);
+        Arrays.fill(distributions, 0, count, null);
+        count = 0;
+    }
+
+    public String algorithm(int row) { return algorithms[row]; }
+    public String distribution(int row) { return distributions[row]; }
+    public int size(int row) { return sizes[row]; }
+    public int threads(int row) { return threads[row]; }
+    public int run(int row) { return runs[row]; }
+    public long timeNanos(int row) { return timeNanos[row]; }
+    public int maxDepth(int row) { return maxDepths[row]; }
+    public long comparisons(int row) { return comparisons[row]; }
+    public long allocations(int row) { return allocations[row]; }
+}
@@ -0,0 +1,25 @@
+package com.dnc.algorithms.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination for benchmark result rows. Rows are passed as primitives, and
+ * the strings are expected to be shared constants such as engine names, so
+ * a sink can take millions of rows without allocating per row.
+ */
+public interface ResultSink extends Closeable {
+    void write(String algorithm, String distribution, int size, int threads, int run,
+               long timeNanos, int maxDepth, long comparisons, long allocations) throws IOException;
+
+    /**
+     * Writes every row of batch. Sinks that store columns override this to
+     * copy whole columns at once.
+     */
+    default void write(ResultBatch batch) throws IOException {
+        for (int i = 0; i < batch.size(); i++) {
+            write(batch.algorithm(i), batch.distribution(i), batch.size(i), batch.threads(i), batch.run(i),
+                batch.timeNanos(i), batch.maxDepth(i), batch.comparisons(i), batch.allocations(i));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.dnc.algorithms.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import com.dnc.algorithms.metrics.Metrics;
+
+/**
+ * Reusable heap scratch arrays for the sort, select and closest-pair
+ * engines, the on-heap counterpart of {@link OffHeapArena}. Engines borrow
+ * arrays at the start of a call and release them at the end, so repeated
+ * calls of similar size settle into a steady state that allocates nothing.
+ *
+ * <p>New arrays are sized to the next power of two, so growth is geometric.
+ * A borrowed array may be longer than requested and holds stale data.
+ * Released arrays are kept while the retained total stays under the limit
+ * and are dropped otherwise; a miss also drops the largest array that was
+ * too small, so outgrown arrays do not pin the budget. An arena must not be
+ * shared between threads. Engines built without one use {@link #local()},
+ * resolved on each call, so they follow whichever thread runs them.
+ */
+public class ScratchArena {
+    public static final long DEFAULT_MAX_RETAINED_BYTES = 64L * 1024 * 1024;
+    private static final int MIN_CAPACITY = 64;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final ThreadLocal<ScratchArena> LOCAL = ThreadLocal.withInitial(ScratchArena::new);
+    private static final ToIntFunction<int[]> INT_LENGTH = a -> a.length;
+    private static final ToIntFunction<long[]> LONG_LENGTH = a -> a.length;
+    private static final ToIntFunction<double[]> DOUBLE_LENGTH = a -> a.length;
+    private final long maxRetainedBytes;
+    private final List<int[]> freeInts = new ArrayList<>();
+    private final List<long[]> freeLongs = new ArrayList<>();
+    private final List<double[]> freeDoubles = new ArrayList<>();
+    private long retainedBytes;
+    private long allocatedBytes;
+
+    public ScratchArena() {
+        this(DEFAULT_MAX_RETAINED_BYTES);
+    }
+
+    public ScratchArena(long maxRetainedBytes) {
+        if (maxRetainedBytes < 0) {
+            throw new IllegalArgumentException("maxRetainedBytes must not be negative: " + maxRetainedBytes);
+        }
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * The calling thread's arena, created on first use with the default limit.
+     */
+    public static ScratchArena local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Returns arena, or the calling thread's arena if it is null.
+     */
+    public static ScratchArena orLocal(ScratchArena arena) {
+        return arena != null ? arena : LOCAL.get();
+    }
+
+    /**
+     * Borrows an int array of at least the given length. Fresh allocations
+     * are recorded on metrics.
+     */
+    public int[] borrowInts(int length, Metrics metrics) {
+        int[] array = take(freeInts, length, Integer.BYTES, INT_LENGTH);
+        if (array == null) {
+            array = new int[capacityFor(length)];
+            allocated(array.length, Integer.BYTES, metrics);
+        }
+        return array;
+    }
+
+    public long[] borrowLongs(int length, Metrics metrics) {
+        long[] array = take(freeLongs, length, Long.BYTES, LONG_LENGTH);
+        if (array == null) {
+            array = new long[capacityFor(length)];
+            allocated(array.length, Long.BYTES, metrics);
+        }
+        return array;
+    }
+
+    public double[] borrowDoubles(int length, Metrics metrics) {
+        double[] array = take(freeDoubles, length, Double.BYTES, DOUBLE_LENGTH);
+        if (array == null) {
+            array = new double[capacityFor(length)];
+            allocated(array.length, Double.BYTES, metrics);
+        }
+        return array;
+    }
+
+    public void release(int[] array) {
+        keep(freeInts, array, (long) array.length * Integer.BYTES);
+    }
+
+    public void release(long[] array) {
+        keep(freeLongs, array, (long) array.length * Long.BYTES);
+    }
+
+    public void release(double[] array) {
+        keep(freeDoubles, array, (long) array.length * Double.BYTES);
+    }
+
+    /**
+     * Drops every retained array.
+     */
+    public void clear() {
+        freeInts.clear();
+        freeLongs.clear();
+        freeDoubles.clear();
+        retainedBytes = 0;
+    }
+
+    /** Bytes currently held for reuse. */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /** Bytes allocated by this arena since it was created; flat in steady state. */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getMaxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    /**
+     * Removes and returns the smallest free array of at least length, or
+     * returns null after dropping the largest free array, which is too small.
+     */
+    private <T> T take(List<T> free, int length, int elementBytes, ToIntFunction<T> lengthOf) {
+        if (length < 0 || length > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Invalid scratch length: " + length);
+        }
+        int best = -1, largest = -1;
+        for (int i = 0; i < free.size(); i++) {
+            int capacity = lengthOf.applyAsInt(free.get(i));
+            if (capacity >= length && (best < 0 || capacity < lengthOf.applyAsInt(free.get(best)))) best = i;
+            if (largest < 0 || capacity > lengthOf.applyAsInt(free.get(largest))) largest = i;
+        }
+        int index = best >= 0 ? best : largest;
+        if (index < 0) return null;
+
+        T array = free.get(index);
+        int last = free.size() - 1;
+        free.set(index, free.get(last));
+        free.remove(last);
+        retainedBytes -= (long) lengthOf.applyAsInt(array) * elementBytes;
+        return best >= 0 ? array : null;
+    }
+
+    private <T> void keep(List<T> free, T array, long bytes) {
+        if (retainedBytes + bytes > maxRetainedBytes) return;
+        free.add(array);
+        retainedBytes += bytes;
+    }
+
+    private void allocated(int length, int elementBytes, Metrics metrics) {
+        allocatedBytes += (long) length * elementBytes;
+        metrics.incrementAllocations(length);
+    }
+
+    private static int capacityFor(int length) {
+        if (length <= MIN_CAPACITY) return MIN_CAPACITY;
+        if (length > 1 << 30) return MAX_CAPACITY;
+        return Integer.highestOneBit(length - 1) << 1;
+    }
+}
@@ -0,0 +1,65 @@
+package com.dnc.algorithms.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dnc.algorithms.geometry.ClosestPair;
+import com.dnc.algorithms.geometry.PrimitiveClosestPair;
+import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.util.InputGenerator;
+import com.dnc.algorithms.util.InputGenerator.PointLayout;
+
+/**
+ * Closest pair on uniform and clustered points, through the Point[] API and
+ * the primitive engine behind it. Neither modifies its input. 100M points
+ * take about 5 GB as Point objects, so the largest size is left out of the
+ * defaults; pass {@code -p size=100000000} with a larger heap to run it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class ClosestPairBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    @Param({"UNIFORM", "CLUSTERED"})
+    public PointLayout layout;
+
+    private double[] xs;
+    private double[] ys;
+    private ClosestPair.Point[] points;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        xs = new double[size];
+        ys = new double[size];
+        InputGenerator.points(layout, xs, ys, 42);
+        points = new ClosestPair.Point[size];
+        for (int i = 0; i < size; i++) points[i] = new ClosestPair.Point(xs[i], ys[i]);
+    }
+
+    @Benchmark
+    public double closestPair() {
+        return new ClosestPair(new MetricsTracker()).findClosestDistance(points);
+    }
+
+    @Benchmark
+    public double primitiveClosestPair() {
+        return new PrimitiveClosestPair(new MetricsTracker()).find(xs, ys).distance;
+    }
+}
@@ -0,0 +1,207 @@
+package com.dnc.algorithms.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.select.IntroSelect;
+import com.dnc.algorithms.select.VectorSelect;
+import com.dnc.algorithms.simd.Kernels;
+import com.dnc.algorithms.simd.ScalarKernels;
+import com.dnc.algorithms.simd.VectorKernels;
+import com.dnc.algorithms.sort.MergeSort;
+import com.dnc.algorithms.sort.VectorSort;
+
+/**
+ * Compares the SIMD kernels with the scalar loops they replace. The
+ * "baseline" methods are copies of the current inner loops of
+ * DeterministicSelect.partition, MergeSort.merge and the insertion sort
+ * cutoff, without the metrics calls, so the difference is the kernel alone.
+ *
+ * <pre>
+ * mvn -P benchmark verify -Djmh.args=KernelBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class KernelBenchmark {
+    @Param({"1024", "65536", "1048576"})
+    public int size;
+
+    private final Kernels scalar = new ScalarKernels();
+    private final Kernels vector = new VectorKernels();
+    private int[] data;
+    private int[] work;
+    private int[] buffer;
+    private int[] runs;
+    private double[] xs;
+    private double[] ys;
+    private double[] distances;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        data = new int[size];
+        for (int i = 0; i < size; i++) data[i] = random.nextInt();
+        work = new int[size];
+        buffer = new int[size];
+
+        // Two sorted halves for the merge benchmarks
+        runs = Arrays.copyOf(data, size);
+        Arrays.sort(runs, 0, size / 2);
+        Arrays.sort(runs, size / 2, size);
+
+        xs = new double[size];
+        ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = random.nextDouble();
+            ys[i] = random.nextDouble();
+        }
+        distances = new double[size];
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(data, 0, work, 0, size);
+    }
+
+    // Partition around the middle key
+
+    @Benchmark
+    public int partitionBaseline() {
+        int pivot = data[size / 2];
+        int lt = 0, i = 0, gt = size - 1;
+        while (i <= gt) {
+            int v = work[i];
+            if (v < pivot) {
+                int t = work[lt];
+                work[lt++] = v;
+                work[i++] = t;
+            } else if (v > pivot) {
+                work[i] = work[gt];
+                work[gt--] = v;
+            } else {
+                i++;
+            }
+        }
+        return lt;
+    }
+
+    @Benchmark
+    public long partitionScalar() {
+        return scalar.partition(work, 0, size, data[size / 2], buffer);
+    }
+
+    @Benchmark
+    public long partitionVector() {
+        return vector.partition(work, 0, size, data[size / 2], buffer);
+    }
+
+    // Sorting every block of 16 keys
+
+    @Benchmark
+    public int[] blockSortBaseline() {
+        for (int lo = 0; lo < size; lo += 16) {
+            int hi = Math.min(lo + 16, size);
+            for (int i = lo + 1; i < hi; i++) {
+                int key = work[i];
+                int j = i - 1;
+                while (j >= lo && work[j] > key) {
+                    work[j + 1] = work[j];
+                    j--;
+                }
+                work[j + 1] = key;
+            }
+        }
+        return work;
+    }
+
+    @Benchmark
+    public int[] blockSortVector() {
+        int block = vector.blockSize();
+        for (int lo = 0; lo < size; lo += block) vector.sortBlock(work, lo, Math.min(lo + block, size));
+        return work;
+    }
+
+    // Merging two sorted halves
+
+    @Benchmark
+    public int[] mergeBaseline() {
+        int mid = size / 2 - 1, right = size - 1;
+        int i = 0, j = mid + 1, k = 0;
+        while (i <= mid && j <= right) {
+            buffer[k++] = runs[i] <= runs[j] ? runs[i++] : runs[j++];
+        }
+        while (i <= mid) buffer[k++] = runs[i++];
+        while (j <= right) buffer[k++] = runs[j++];
+        return buffer;
+    }
+
+    @Benchmark
+    public int[] mergeScalar() {
+        scalar.merge(runs, 0, size / 2, runs, size / 2, size, buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public int[] mergeVector() {
+        vector.merge(runs, 0, size / 2, runs, size / 2, size, buffer, 0);
+        return buffer;
+    }
+
+    // Distances from one point to all others
+
+    @Benchmark
+    public double[] distancesScalar() {
+        scalar.squaredDistances(xs, ys, 0, size, 0.5, 0.5, distances, 0);
+        return distances;
+    }
+
+    @Benchmark
+    public double[] distancesVector() {
+        vector.squaredDistances(xs, ys, 0, size, 0.5, 0.5, distances, 0);
+        return distances;
+    }
+
+    // Whole engines
+
+    @Benchmark
+    public int[] mergeSort() {
+        new MergeSort(new MetricsTracker()).sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] vectorSort() {
+        new VectorSort(new MetricsTracker(), vector).sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int introSelect() {
+        return new IntroSelect(new MetricsTracker()).select(work, size / 2);
+    }
+
+    @Benchmark
+    public int vectorSelect() {
+        return new VectorSelect(new MetricsTracker(), vector).select(work, size / 2);
+    }
+}
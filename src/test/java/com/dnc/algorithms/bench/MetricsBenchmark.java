@@ -0,0 +1,121 @@
+package com.dnc.algorithms.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dnc.algorithms.metrics.ConcurrentMetrics;
+import com.dnc.algorithms.metrics.LevelHistogramMetrics;
+import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.metrics.NoOpMetrics;
+import com.dnc.algorithms.sort.MergeSort;
+import com.dnc.algorithms.util.InputGenerator;
+import com.dnc.algorithms.util.InputGenerator.Distribution;
+
+/**
+ * Cost of counting in MergeSort, which reports every comparison. The
+ * "baseline" method is a copy of MergeSort with the metrics calls removed;
+ * {@link #noOp()} should match it within noise. Each benchmark runs in a
+ * fork of its own, so every call site sees a single Metrics implementation,
+ * as in a process that only ever uses one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class MetricsBenchmark {
+    private static final int CUTOFF = 15;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private int[] data;
+    private int[] work;
+    private int[] buffer;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        data = InputGenerator.ints(Distribution.RANDOM, size, 42);
+        work = new int[size];
+        buffer = new int[size];
+    }
+
+    @Benchmark
+    public int[] baseline() {
+        System.arraycopy(data, 0, work, 0, size);
+        sort(work, buffer, 0, size - 1);
+        return work;
+    }
+
+    @Benchmark
+    public int[] noOp() {
+        System.arraycopy(data, 0, work, 0, size);
+        new MergeSort(NoOpMetrics.INSTANCE).sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] tracker() {
+        System.arraycopy(data, 0, work, 0, size);
+        new MergeSort(new MetricsTracker()).sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] concurrent() {
+        System.arraycopy(data, 0, work, 0, size);
+        new MergeSort(new ConcurrentMetrics()).sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] levelHistogram() {
+        System.arraycopy(data, 0, work, 0, size);
+        new MergeSort(new LevelHistogramMetrics()).sort(work);
+        return work;
+    }
+
+    private static void sort(int[] arr, int[] buffer, int left, int right) {
+        if (right - left <= CUTOFF) {
+            for (int i = left + 1; i <= right; i++) {
+                int key = arr[i];
+                int j = i - 1;
+                while (j >= left && arr[j] > key) {
+                    arr[j + 1] = arr[j];
+                    j--;
+                }
+                arr[j + 1] = key;
+            }
+            return;
+        }
+
+        int mid = left + (right - left) / 2;
+        sort(arr, buffer, left, mid);
+        sort(arr, buffer, mid + 1, right);
+        if (arr[mid] <= arr[mid + 1]) return;
+
+        System.arraycopy(arr, left, buffer, left, mid - left + 1);
+        int i = left, j = mid + 1, k = left;
+        while (i <= mid && j <= right) {
+            if (buffer[i] <= arr[j]) {
+                arr[k++] = buffer[i++];
+            } else {
+                arr[k++] = arr[j++];
+            }
+        }
+        while (i <= mid) arr[k++] = buffer[i++];
+    }
+}
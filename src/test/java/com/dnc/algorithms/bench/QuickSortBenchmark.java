@@ -0,0 +1,57 @@
+package com.dnc.algorithms.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.sort.QuickSort;
+import com.dnc.algorithms.util.InputGenerator;
+import com.dnc.algorithms.util.InputGenerator.Distribution;
+
+/**
+ * QuickSort on its own, without FEW_UNIQUE: its two-way Lomuto partition
+ * puts every key equal to the pivot on one side, so runs of equal keys sort
+ * in quadratic time and the larger sizes would not finish. Add it back with
+ * {@code -p distribution=FEW_UNIQUE -p size=1000} to watch the effect.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class QuickSortBenchmark {
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "ORGAN_PIPE"})
+    public Distribution distribution;
+
+    private int[] data;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        data = InputGenerator.ints(distribution, size, 42);
+        work = new int[size];
+    }
+
+    @Benchmark
+    public int[] quickSort() {
+        System.arraycopy(data, 0, work, 0, size);
+        new QuickSort(new MetricsTracker()).sort(work);
+        return work;
+    }
+}
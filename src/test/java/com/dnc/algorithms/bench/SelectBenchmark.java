@@ -0,0 +1,67 @@
+package com.dnc.algorithms.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.select.DeterministicSelect;
+import com.dnc.algorithms.select.IntroSelect;
+import com.dnc.algorithms.util.InputGenerator;
+import com.dnc.algorithms.util.InputGenerator.Distribution;
+
+/**
+ * Median selection over every input distribution. Each call selects from a
+ * fresh copy of the input, as in {@link SortBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class SelectBenchmark {
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "ORGAN_PIPE"})
+    public Distribution distribution;
+
+    private int[] data;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        data = InputGenerator.ints(distribution, size, 42);
+        work = new int[size];
+    }
+
+    @Benchmark
+    public int[] copy() {
+        System.arraycopy(data, 0, work, 0, size);
+        return work;
+    }
+
+    @Benchmark
+    public int deterministicSelect() {
+        System.arraycopy(data, 0, work, 0, size);
+        return new DeterministicSelect(new MetricsTracker()).select(work, size / 2);
+    }
+
+    @Benchmark
+    public int introSelect() {
+        System.arraycopy(data, 0, work, 0, size);
+        return new IntroSelect(new MetricsTracker()).select(work, size / 2);
+    }
+}
@@ -0,0 +1,91 @@
+package com.dnc.algorithms.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dnc.algorithms.metrics.MetricsTracker;
+import com.dnc.algorithms.sort.IntroSort;
+import com.dnc.algorithms.sort.MergeSort;
+import com.dnc.algorithms.sort.NaturalMergeSort;
+import com.dnc.algorithms.sort.RadixSort;
+import com.dnc.algorithms.util.InputGenerator;
+import com.dnc.algorithms.util.InputGenerator.Distribution;
+
+/**
+ * Sort engines over every input distribution. Each call sorts a fresh copy
+ * of the input; {@link #copy()} measures the copy alone, so it can be
+ * subtracted at small sizes. Run through the benchmark profile, which adds
+ * the GC profiler and writes JSON results:
+ *
+ * <pre>
+ * mvn -P benchmark verify -Djmh.args="SortBenchmark -p size=1000,100000"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class SortBenchmark {
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "ORGAN_PIPE"})
+    public Distribution distribution;
+
+    private int[] data;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        data = InputGenerator.ints(distribution, size, 42);
+        work = new int[size];
+    }
+
+    @Benchmark
+    public int[] copy() {
+        System.arraycopy(data, 0, work, 0, size);
+        return work;
+    }
+
+    @Benchmark
+    public int[] mergeSort() {
+        System.arraycopy(data, 0, work, 0, size);
+        new MergeSort(new MetricsTracker()).sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] naturalMergeSort() {
+        System.arraycopy(data, 0, work, 0, size);
+        new NaturalMergeSort(new MetricsTracker()).sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] introSort() {
+        System.arraycopy(data, 0, work, 0, size);
+        new IntroSort(new MetricsTracker()).sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] radixSort() {
+        System.arraycopy(data, 0, work, 0, size);
+        new RadixSort(new MetricsTracker()).sort(work);
+        return work;
+    }
+}